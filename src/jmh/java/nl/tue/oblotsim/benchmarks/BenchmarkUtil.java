@@ -0,0 +1,42 @@
+package nl.tue.oblotsim.benchmarks;
+
+import nl.tue.oblotsim.Simulator.Robot;
+import nl.tue.oblotsim.Simulator.State;
+import nl.tue.oblotsim.Util.Vector;
+import nl.tue.oblotsim.algorithms.Algorithm;
+import nl.tue.oblotsim.positiontransformations.RotationTransformation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Input generation shared between the benchmarks. Everything is seeded so runs are comparable.
+ */
+class BenchmarkUtil {
+
+    static final long SEED = 1337;
+
+    /**
+     * Generate n points uniformly distributed in a square centered around the origin.
+     */
+    static Vector[] randomPoints(int n, double edgeLen, Random random) {
+        Vector[] points = new Vector[n];
+        for (int i = 0; i < n; i++) {
+            points[i] = new Vector(edgeLen * (random.nextDouble() - 0.5), edgeLen * (random.nextDouble() - 0.5));
+        }
+        return points;
+    }
+
+    /**
+     * Generate n sleeping robots at random positions, each with a random rotation of their coordinate system.
+     */
+    static List<Robot> randomRobots(Algorithm algorithm, int n, double edgeLen, Random random) {
+        List<Robot> robots = new ArrayList<>(n);
+        for (Vector pos : randomPoints(n, edgeLen, random)) {
+            RotationTransformation trans = new RotationTransformation(random.nextDouble() * 2 * Math.PI - Math.PI);
+            robots.add(new Robot(robots.size(), algorithm, pos, trans, null, State.SLEEPING, 1.0, 0.0));
+        }
+        return robots;
+    }
+}
@@ -0,0 +1,44 @@
+package nl.tue.oblotsim.benchmarks;
+
+import nl.tue.oblotsim.Util.CanonicalConfiguration;
+import nl.tue.oblotsim.Util.Vector;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CanonicalConfigurationBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    public int points;
+
+    private Vector[] random;
+    private Vector[] polygon;
+
+    @Setup
+    public void setUp() {
+        random = BenchmarkUtil.randomPoints(points, 100.0, new Random(BenchmarkUtil.SEED));
+        // Every rotation of a regular polygon gives the same string, which is the worst case for finding the smallest one.
+        polygon = new Vector[points];
+        for (int i = 0; i < points; i++) {
+            double angle = 2 * Math.PI * i / points;
+            polygon[i] = new Vector(10 * Math.cos(angle), 10 * Math.sin(angle));
+        }
+    }
+
+    @Benchmark
+    public long hashRandom() {
+        return CanonicalConfiguration.of(random).hash64();
+    }
+
+    @Benchmark
+    public long hashRegularPolygon() {
+        return CanonicalConfiguration.of(polygon).hash64();
+    }
+}
@@ -0,0 +1,38 @@
+package nl.tue.oblotsim.benchmarks;
+
+import nl.tue.oblotsim.RobotPaths.RobotPath;
+import nl.tue.oblotsim.Util.Vector;
+import nl.tue.oblotsim.algorithms.GatheringWithMultiplicity;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GatheringWithMultiplicityBenchmark {
+
+    // The algorithm only supports an even number of robots.
+    @Param({"10", "100", "1000"})
+    public int robots;
+
+    private Vector[] snapshot;
+    private GatheringWithMultiplicity algorithm;
+
+    @Setup
+    public void setUp() {
+        snapshot = BenchmarkUtil.randomPoints(robots, 100.0, new Random(BenchmarkUtil.SEED));
+        // Snapshots are in local coordinates, so the robot itself is at the origin.
+        snapshot[0] = Vector.ZERO;
+        algorithm = new GatheringWithMultiplicity();
+    }
+
+    @Benchmark
+    public RobotPath doAlgorithm() {
+        return algorithm.doAlgorithm(snapshot);
+    }
+}
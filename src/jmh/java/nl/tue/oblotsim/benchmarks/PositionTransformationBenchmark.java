@@ -0,0 +1,52 @@
+package nl.tue.oblotsim.benchmarks;
+
+import nl.tue.oblotsim.Util.Vector;
+import nl.tue.oblotsim.positiontransformations.PositionTransformation;
+import nl.tue.oblotsim.positiontransformations.RotationTransformation;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PositionTransformationBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    public int points;
+
+    private Vector[] snapshot;
+    private double[] coordinates;
+    private double[] local;
+    private Vector origin;
+    private PositionTransformation transformation;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(BenchmarkUtil.SEED);
+        snapshot = BenchmarkUtil.randomPoints(points, 100.0, random);
+        origin = snapshot[0];
+        coordinates = new double[2 * points];
+        for (int i = 0; i < points; i++) {
+            coordinates[2 * i] = snapshot[i].x;
+            coordinates[2 * i + 1] = snapshot[i].y;
+        }
+        local = new double[2 * points];
+        transformation = new RotationTransformation(1.5, 1.0, true);
+    }
+
+    @Benchmark
+    public Vector[] globalToLocal() {
+        return transformation.globalToLocal(snapshot, origin);
+    }
+
+    @Benchmark
+    public double[] globalToLocalBulk() {
+        transformation.globalToLocal(coordinates, local, points, origin);
+        return local;
+    }
+}
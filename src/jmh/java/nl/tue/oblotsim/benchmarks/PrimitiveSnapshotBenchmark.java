@@ -0,0 +1,79 @@
+package nl.tue.oblotsim.benchmarks;
+
+import nl.tue.oblotsim.RobotPaths.PathDescription;
+import nl.tue.oblotsim.RobotPaths.RobotPath;
+import nl.tue.oblotsim.Simulator.Robot;
+import nl.tue.oblotsim.Util.Circle;
+import nl.tue.oblotsim.Util.SmallestEnclosingCircle;
+import nl.tue.oblotsim.Util.Vector;
+import nl.tue.oblotsim.algorithms.GoToCoG;
+import nl.tue.oblotsim.algorithms.PrimitiveSnapshot;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Computing a path from a primitive snapshot compared to a snapshot of vectors.
+ * Run with gradle jmh -PjmhInclude=PrimitiveSnapshot -PjmhProfiler=gc to see that the primitive hot path
+ * does not allocate.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PrimitiveSnapshotBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int points;
+
+    private Vector[] snapshot;
+    private double[] coordinates;
+    private Supplier<Circle> circle;
+    private Robot robot;
+    private GoToCoG algorithm;
+    private PrimitiveSnapshot primitiveSnapshot;
+    private PathDescription path;
+
+    @Setup
+    public void setUp() {
+        algorithm = new GoToCoG();
+        List<Robot> robots = BenchmarkUtil.randomRobots(algorithm, points, 100.0, new Random(BenchmarkUtil.SEED));
+        robot = robots.get(0);
+        snapshot = robots.stream().map(Robot::getPos).toArray(Vector[]::new);
+        coordinates = new double[2 * points];
+        for (int i = 0; i < points; i++) {
+            coordinates[2 * i] = snapshot[i].x;
+            coordinates[2 * i + 1] = snapshot[i].y;
+        }
+        Circle enclosing = SmallestEnclosingCircle.makeCircle(Arrays.asList(snapshot));
+        circle = () -> enclosing;
+        primitiveSnapshot = new PrimitiveSnapshot();
+        path = new PathDescription();
+    }
+
+    @Benchmark
+    public RobotPath calculateFromVectors() {
+        return robot.calculate(snapshot, circle);
+    }
+
+    @Benchmark
+    public RobotPath calculateFromCoordinates() {
+        return robot.calculate(coordinates, circle);
+    }
+
+    /**
+     * Only the part that the algorithm and the simulation reuse objects for, which should not allocate at all.
+     */
+    @Benchmark
+    public PathDescription primitiveHotPath() {
+        primitiveSnapshot.load(coordinates, points, robot.getTrans(), robot.getPos(), circle);
+        algorithm.doAlgorithm(primitiveSnapshot, path.clear());
+        return path;
+    }
+}
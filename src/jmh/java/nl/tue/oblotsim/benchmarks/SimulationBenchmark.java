@@ -0,0 +1,47 @@
+package nl.tue.oblotsim.benchmarks;
+
+import nl.tue.oblotsim.Simulator.Simulation;
+import nl.tue.oblotsim.Util.Config;
+import nl.tue.oblotsim.algorithms.GoToCoG;
+import nl.tue.oblotsim.batch.BatchRunner;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of computing a single event of the timeline.
+ *
+ * A fresh simulation is created for every iteration, so the timeline doesn't grow without bound over the course of a run.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SimulationBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    public int robots;
+
+    @Param({"FSYNC", "SSYNC", "ASYNC", "HEAP_SSYNC", "HEAP_ASYNC"})
+    public String scheduler;
+
+    private Simulation simulation;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        Random random = new Random(BenchmarkUtil.SEED);
+        Config config = new Config(true, -1, false);
+        simulation = new Simulation(config,
+                BenchmarkUtil.randomRobots(new GoToCoG(), robots, 10.0 * Math.sqrt(robots), random),
+                BatchRunner.schedulerFactory(scheduler).get(),
+                BenchmarkUtil.SEED);
+    }
+
+    @Benchmark
+    public Object simulateTillNextEvent() {
+        return simulation.simulateTillNextEvent();
+    }
+}
@@ -0,0 +1,56 @@
+package nl.tue.oblotsim.benchmarks;
+
+import nl.tue.oblotsim.Util.Circle;
+import nl.tue.oblotsim.Util.SmallestEnclosingCircle;
+import nl.tue.oblotsim.Util.Vector;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SmallestEnclosingCircleBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    public int points;
+
+    private List<Vector> input;
+    private double[] xs;
+    private double[] ys;
+    private double[] xsScratch;
+    private double[] ysScratch;
+    private Random random;
+
+    @Setup
+    public void setUp() {
+        input = Arrays.asList(BenchmarkUtil.randomPoints(points, 100.0, new Random(BenchmarkUtil.SEED)));
+        xs = new double[points];
+        ys = new double[points];
+        for (int i = 0; i < points; i++) {
+            xs[i] = input.get(i).x;
+            ys[i] = input.get(i).y;
+        }
+        xsScratch = new double[points];
+        ysScratch = new double[points];
+        random = new Random(BenchmarkUtil.SEED);
+    }
+
+    @Benchmark
+    public Circle makeCircle() {
+        return SmallestEnclosingCircle.makeCircle(input);
+    }
+
+    @Benchmark
+    public Circle makeCircleInPlace() {
+        System.arraycopy(xs, 0, xsScratch, 0, points);
+        System.arraycopy(ys, 0, ysScratch, 0, points);
+        return SmallestEnclosingCircle.makeCircleInPlace(xsScratch, ysScratch, points, random);
+    }
+}
@@ -12,6 +12,8 @@ import java.io.File;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
 
 /**
  * The public class that we will use to start our nl.tue.oblotsim.GUI. This is an example class of how the simulator may be used.
@@ -23,12 +25,15 @@ public class Main{
     public static void main(String[] args) {
         // We're keeping this
         System.out.println("Most awesome simulator ever.");
-        List<Robot> robots = loadTestRobots();
+        // Pass a seed as the first argument to run the same simulation again.
+        long seed = args.length > 0 ? Long.parseLong(args[0]) : new SplittableRandom().nextLong();
+        System.out.println("Seed: " + seed);
+        List<Robot> robots = loadTestRobots(new Random(seed));
 
 //        Scheduler s = new FSyncScheduler(1, 1, 1, 1);
         Scheduler s = new FSyncScheduler();
         nl.tue.oblotsim.Util.Config c = new nl.tue.oblotsim.Util.Config(true, -1, true);
-        Simulation simulation = new Simulation(c, robots, s);
+        Simulation simulation = new Simulation(c, robots, s, seed);
 
         Class[] algorithms = new Class[]{GatheringWithMultiplicity.class, GoToCoG.class, GoToRightMost.class, MoveAlongSEC.class};
 
@@ -37,19 +42,19 @@ public class Main{
 
     /**
      * Load a set of robots with randomized position transformations.
+     * @param random the generator for the transformations, seed it to make them reproducible
      * @return An array of Robot instances that have a randomized positions, and using the MoveAlongSEC algorithm.
      */
-    public static List<Robot> loadTestRobots() {
+    public static List<Robot> loadTestRobots(Random random) {
         URL filePath = Robot.class.getClassLoader().getResource("testRobots2");
         if (filePath == null) {
             System.err.println("Cannot find resource testRobots2");
         }
-        final RotationTransformation basisTransform = new RotationTransformation();
         List<Robot> robots;
         try {
             robots = Robot.robotsFromFile(
                     new MoveAlongSEC(),
-                    () -> basisTransform.randomize(false, false, false),
+                    () -> new RotationTransformation().randomize(false, false, false, random),
                     new File(filePath.toURI()));
         } catch (URISyntaxException e) {
             e.printStackTrace();
@@ -6,6 +6,8 @@ import nl.tue.oblotsim.Util.Vector;
 
 public class CircularPath extends RobotPath {
 
+    private static final long serialVersionUID = 1L;
+
     public Vector center;
     /**
      * The positive angle from start to end in the direction defined by the variable clockwise.
@@ -26,6 +28,21 @@ public class CircularPath extends RobotPath {
         this.angle = calculateAngle(start, center, end);
     }
 
+    /**
+     * Recreates a circular path exactly as it was stored, without recomputing or validating the angle.
+     * @param start the start of the path
+     * @param center the center of the circle
+     * @param end the end of the path
+     * @param clockwise whether the rotation is clockwise
+     * @param angle the positive angle from start to end
+     */
+    public CircularPath(Vector start, Vector center, Vector end, boolean clockwise, double angle) {
+        super(start, end);
+        this.center = center;
+        this.clockwise = clockwise;
+        this.angle = angle;
+    }
+
     private double calculateAngle(Vector start, Vector center, Vector end) {
         double angle = Vector.angle(start, center, end);
         // when the angle measured is the anticlockwise angle, but we want clockwise, turn it around
@@ -81,6 +98,11 @@ public class CircularPath extends RobotPath {
         return totalLength * fraction;
     }
 
+    @Override
+    public RobotPath copy() {
+        return new CircularPath(start, center, end, clockwise, angle);
+    }
+
     @Override
     public void convertFromLocalToGlobal(PositionTransformation trans, Vector origin) {
         Vector newStart = trans.localToGlobal(getStart(), origin);
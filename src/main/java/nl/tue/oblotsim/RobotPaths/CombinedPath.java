@@ -5,10 +5,14 @@ import nl.tue.oblotsim.Util.Config;
 import nl.tue.oblotsim.Util.Vector;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.stream.Collectors;
 
 public class CombinedPath extends RobotPath {
 
+    private static final long serialVersionUID = 1L;
+
     private List<RobotPath> paths;
 
     /**
@@ -77,11 +81,23 @@ public class CombinedPath extends RobotPath {
         return currentPath.interpolate(startTime, endTime, t);
     }
 
+    /**
+     * The paths this path consists of, in order.
+     */
+    public List<RobotPath> getPaths() {
+        return Collections.unmodifiableList(paths);
+    }
+
     @Override
     public double getLength() {
         return paths.stream().mapToDouble(RobotPath::getLength).sum();
     }
 
+    @Override
+    public RobotPath copy() {
+        return new CombinedPath(paths.stream().map(RobotPath::copy).collect(Collectors.toList()));
+    }
+
     @Override
     public void convertFromLocalToGlobal(PositionTransformation trans, Vector origin) {
         this.start = trans.localToGlobal(this.getStart(), origin);
@@ -6,6 +6,8 @@ import nl.tue.oblotsim.Util.Vector;
 
 public class LinearPath extends RobotPath {
 
+    private static final long serialVersionUID = 1L;
+
     public LinearPath(Vector start, Vector end) {
         super(start, end);
     }
@@ -16,9 +18,42 @@ public class LinearPath extends RobotPath {
 
     @Override
     public Vector interpolate(double tStart, double tEnd, double t) {
+        double fractionToMove = fractionAt(tStart, tEnd, t);
+        if (fractionToMove == 0) {
+            return getStart();
+        } else if (fractionToMove == 1) {
+            return getEnd();
+        }
+        Vector dir = getEnd().sub(getStart()); // the vector from start to end
+        Vector dirToMove = dir.mult(fractionToMove); // the fraction that should be traversed
+        return getStart().add(dirToMove); // traverse from start, so add together
+    }
+
+    /**
+     * Same as {@link #interpolate(double, double, double)}, but without creating a vector.
+     */
+    @Override
+    public void interpolateInto(double tStart, double tEnd, double t, double[] xy, int offset) {
+        double fractionToMove = fractionAt(tStart, tEnd, t);
+        Vector start = getStart();
+        Vector end = getEnd();
+        if (fractionToMove == 1) {
+            xy[offset] = end.x;
+            xy[offset + 1] = end.y;
+        } else {
+            xy[offset] = start.x + (end.x - start.x) * fractionToMove;
+            xy[offset + 1] = start.y + (end.y - start.y) * fractionToMove;
+        }
+    }
+
+    /**
+     * How much of the path is traversed at time t, after checking the timestamps.
+     * Times just outside of the movement are clamped to its start or end.
+     */
+    private double fractionAt(double tStart, double tEnd, double t) {
         if (tStart == tEnd) {
             if (getStart().equals(getEnd())) {
-                return getStart();
+                return 0;
             } else {
                 throw new IllegalArgumentException("Start and end are not the same, but the timestamps are");
             }
@@ -27,21 +62,19 @@ public class LinearPath extends RobotPath {
             throw new IllegalArgumentException("tStart should be strictly smaller than tEnd");
         }
         if (t <= tStart - Config.EPSILON) {
-            return getStart();
+            return 0;
         } else if (t >= tEnd + Config.EPSILON) {
-            return getEnd();
+            return 1;
         }
         if (tStart > t || t > tEnd) {
             throw new IllegalArgumentException("the timestamp to interpolate to should lie strictly in" +
                     "between the start and end timestamps");
         }
         double fractionToMove = (t - tStart) / (tEnd - tStart); // how much of that vector should be traversed
-        Vector dir = getEnd().sub(getStart()); // the vector from start to end
         if (fractionToMove < 0 || fractionToMove > 1) {
             throw new IllegalArgumentException("The input timestamps are not correct");
         }
-        Vector dirToMove = dir.mult(fractionToMove); // the fraction that should be traversed
-        return getStart().add(dirToMove); // traverse from start, so add together
+        return fractionToMove;
     }
 
     @Override
@@ -49,6 +82,11 @@ public class LinearPath extends RobotPath {
         return getStart().dist(getEnd());
     }
 
+    @Override
+    public RobotPath copy() {
+        return new LinearPath(start, end);
+    }
+
     @Override
     public void convertFromLocalToGlobal(PositionTransformation trans, Vector origin) {
         start = trans.localToGlobal(getStart(), origin);
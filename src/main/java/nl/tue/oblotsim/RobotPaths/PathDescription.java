@@ -0,0 +1,142 @@
+package nl.tue.oblotsim.RobotPaths;
+
+import nl.tue.oblotsim.Util.Vector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A description of a path as a sequence of line segments and circular arcs, starting at the origin of the local
+ * coordinate system of a robot. Algorithms that use a {@link nl.tue.oblotsim.algorithms.PrimitiveSnapshot} write
+ * their path into one of these, which does not create any objects once it has grown large enough,
+ * so it can be reused for every computation. {@link #toPath()} turns it into a {@link RobotPath}.
+ */
+public final class PathDescription {
+
+    private static final byte LINE = 0;
+    private static final byte ARC_ANTICLOCKWISE = 1;
+    private static final byte ARC_CLOCKWISE = 2;
+
+    /**
+     * Per segment the x and y of its end and of the center of the arc, which are unused for lines.
+     */
+    private static final int SEGMENT_SIZE = 4;
+
+    private byte[] kinds = new byte[2];
+    private double[] coordinates = new double[2 * SEGMENT_SIZE];
+    private int segments = 0;
+
+    /**
+     * Remove all segments, so the path stays at the origin.
+     * @return this description
+     */
+    public PathDescription clear() {
+        segments = 0;
+        return this;
+    }
+
+    /**
+     * Move in a straight line from the end of the path so far to (x, y).
+     * @return this description
+     */
+    public PathDescription lineTo(double x, double y) {
+        add(LINE, x, y, 0, 0);
+        return this;
+    }
+
+    /**
+     * Move along a circle around (centerX, centerY) from the end of the path so far to (x, y),
+     * which should both be at the same distance from the center.
+     * @param clockwise whether to move clockwise around the center
+     * @return this description
+     */
+    public PathDescription arcTo(double centerX, double centerY, double x, double y, boolean clockwise) {
+        add(clockwise ? ARC_CLOCKWISE : ARC_ANTICLOCKWISE, x, y, centerX, centerY);
+        return this;
+    }
+
+    /**
+     * Add the segments of a path, first moving in a straight line to its start if the path so far does not end there.
+     * Paths other than {@link LinearPath}, {@link CircularPath} and {@link CombinedPath} are added as a line to their end.
+     * @param path the path to add, in the same local coordinate system
+     * @return this description
+     */
+    public PathDescription append(RobotPath path) {
+        Vector start = path.getStart();
+        if (start.x != getEndX() || start.y != getEndY()) {
+            lineTo(start.x, start.y);
+        }
+        Vector end = path.getEnd();
+        if (path instanceof CombinedPath) {
+            for (RobotPath part : ((CombinedPath) path).getPaths()) {
+                append(part);
+            }
+        } else if (path instanceof CircularPath) {
+            CircularPath arc = (CircularPath) path;
+            arcTo(arc.center.x, arc.center.y, end.x, end.y, arc.clockwise);
+        } else {
+            lineTo(end.x, end.y);
+        }
+        return this;
+    }
+
+    private void add(byte kind, double x, double y, double centerX, double centerY) {
+        if (segments == kinds.length) {
+            kinds = Arrays.copyOf(kinds, 2 * segments);
+            coordinates = Arrays.copyOf(coordinates, 2 * segments * SEGMENT_SIZE);
+        }
+        kinds[segments] = kind;
+        int offset = segments * SEGMENT_SIZE;
+        coordinates[offset] = x;
+        coordinates[offset + 1] = y;
+        coordinates[offset + 2] = centerX;
+        coordinates[offset + 3] = centerY;
+        segments++;
+    }
+
+    /**
+     * The number of segments in the path.
+     */
+    public int getSegmentCount() {
+        return segments;
+    }
+
+    /**
+     * The x coordinate of the end of the path, which is the origin if there are no segments.
+     */
+    public double getEndX() {
+        return segments == 0 ? 0 : coordinates[(segments - 1) * SEGMENT_SIZE];
+    }
+
+    /**
+     * The y coordinate of the end of the path, which is the origin if there are no segments.
+     */
+    public double getEndY() {
+        return segments == 0 ? 0 : coordinates[(segments - 1) * SEGMENT_SIZE + 1];
+    }
+
+    /**
+     * Create the path this describes. A path without segments stays at the origin.
+     * @return a new path in the same local coordinate system, which does not change when this description does
+     */
+    public RobotPath toPath() {
+        if (segments == 0) {
+            return new LinearPath(Vector.ZERO);
+        }
+        List<RobotPath> paths = new ArrayList<>(segments);
+        Vector start = new Vector(0, 0);
+        for (int i = 0; i < segments; i++) {
+            int offset = i * SEGMENT_SIZE;
+            Vector end = new Vector(coordinates[offset], coordinates[offset + 1]);
+            if (kinds[i] == LINE) {
+                paths.add(new LinearPath(start, end));
+            } else {
+                Vector center = new Vector(coordinates[offset + 2], coordinates[offset + 3]);
+                paths.add(new CircularPath(start, center, end, kinds[i] == ARC_CLOCKWISE));
+            }
+            start = end;
+        }
+        return paths.size() == 1 ? paths.get(0) : new CombinedPath(paths);
+    }
+}
@@ -3,7 +3,16 @@ package nl.tue.oblotsim.RobotPaths;
 import nl.tue.oblotsim.positiontransformations.PositionTransformation;
 import nl.tue.oblotsim.Util.Vector;
 
-public abstract class RobotPath {
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+
+public abstract class RobotPath implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     protected Vector start;
     protected Vector end;
@@ -26,6 +35,21 @@ public abstract class RobotPath {
      */
     public abstract Vector interpolate(double tStart, double tEnd, double t);
 
+    /**
+     * Write the position of the robot along the path at time t into {@code xy[offset]} and {@code xy[offset + 1]},
+     * like {@link #interpolate(double, double, double)}. Paths can override this to avoid creating a vector.
+     * @param tStart the time at which the robot started
+     * @param tEnd the time at which the robot should arrive
+     * @param t the time to get the position of the robot at
+     * @param xy the array to write the x and y coordinates to
+     * @param offset the index to write the x coordinate to
+     */
+    public void interpolateInto(double tStart, double tEnd, double t, double[] xy, int offset) {
+        Vector pos = interpolate(tStart, tEnd, t);
+        xy[offset] = pos.x;
+        xy[offset + 1] = pos.y;
+    }
+
     /**
      * Get the length of the path
      * @return the length of the path
@@ -60,6 +84,25 @@ public abstract class RobotPath {
         return start + timeTraveling;
     }
 
+    /**
+     * A copy of this path that can be converted with {@link #convertFromLocalToGlobal} without changing this path.
+     * The default makes a deep copy by serializing the path, paths can override this with something cheaper.
+     * @return a copy of this path
+     */
+    public RobotPath copy() {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                out.writeObject(this);
+            }
+            try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+                return (RobotPath) in.readObject();
+            }
+        } catch (IOException | ClassNotFoundException e) {
+            throw new IllegalStateException("Cannot copy " + getClass().getName() + ", it should be serializable", e);
+        }
+    }
+
     public Vector getStart() {
         return start;
     }
@@ -1,17 +1,29 @@
 package nl.tue.oblotsim.Schedulers;
 
 import nl.tue.oblotsim.Simulator.Robot;
+import nl.tue.oblotsim.Simulator.RobotStates;
 import nl.tue.oblotsim.Simulator.State;
 
 import java.util.*;
 
 public class AsyncScheduler extends Scheduler {
 
+    private static final long serialVersionUID = 1L;
+
     double minComputeTime;
     double maxComputeTime;
     double minMoveTime;
     double maxMoveTime;
-    Map<Robot, Double> endMovingTimes;
+
+    /**
+     * The time at which robots must stop moving, by id.
+     */
+    Map<Integer, Double> endMovingTimes;
+
+    /**
+     * Scratch space for the indices of the robots that may get the next event.
+     */
+    private transient int[] availableRobots;
 
     double lastRequestedEventTime = -1;
     List<Event> lastReturnedEvents = null;
@@ -45,8 +57,13 @@ public class AsyncScheduler extends Scheduler {
 
     }
 
-    private EventType getNextEventType (Robot robot) {
-        switch (robot.getState()) {
+    @Override
+    public void setSeed(long seed) {
+        random = new Random(seed);
+    }
+
+    private EventType getNextEventType (State state) {
+        switch (state) {
             case SLEEPING:
                 return EventType.START_COMPUTE;
             case COMPUTING:
@@ -60,97 +77,107 @@ public class AsyncScheduler extends Scheduler {
 
     @Override
     public List<Event> getNextEvent(List<Robot> robots, double t, boolean allowEarlyStop) {
+        return getNextEvent(RobotStates.of(robots), t, allowEarlyStop);
+    }
+
+    @Override
+    public List<Event> getNextEvent(RobotStates robots, double t, boolean allowEarlyStop) {
         if (lastRequestedEventTime == t) {
             return lastReturnedEvents;
         }
         double earliestNextEventTime = Double.MAX_VALUE;
-        Robot earliestNextEventRobot = null;
+        int earliestNextEventRobot = -1;
         List<Event> events = new ArrayList<>();
-        for (Robot robot: robots) {
-            if (robot.getState() == State.COMPUTING) {
-                if (robot.getInCurrentStateSince() + maxComputeTime < earliestNextEventTime) {
-                    earliestNextEventTime = robot.getInCurrentStateSince() + maxComputeTime;
-                    earliestNextEventRobot = robot;
+        for (int i = 0; i < robots.size(); i++) {
+            if (robots.getState(i) == State.COMPUTING) {
+                if (robots.getInCurrentStateSince(i) + maxComputeTime < earliestNextEventTime) {
+                    earliestNextEventTime = robots.getInCurrentStateSince(i) + maxComputeTime;
+                    earliestNextEventRobot = i;
                 }
-            }else if (robot.getState() == State.MOVING) {
-                if (robot.getInCurrentStateSince() + maxMoveTime < earliestNextEventTime) {
-                    earliestNextEventTime = robot.getInCurrentStateSince() + maxMoveTime;
-                    earliestNextEventRobot = robot;
+            }else if (robots.getState(i) == State.MOVING) {
+                if (robots.getInCurrentStateSince(i) + maxMoveTime < earliestNextEventTime) {
+                    earliestNextEventTime = robots.getInCurrentStateSince(i) + maxMoveTime;
+                    earliestNextEventRobot = i;
                 }
             }
         }
 
-        if (earliestNextEventRobot == null) {
+        if (earliestNextEventRobot == -1) {
             earliestNextEventTime = t + 0.2*random.nextDouble();
-            earliestNextEventRobot = robots.get(random.nextInt(robots.size()));
+            earliestNextEventRobot = random.nextInt(robots.size());
         }
 
         if (earliestNextEventTime - t < 0.2) {
-            EventType eventType = getNextEventType(earliestNextEventRobot);
-            events.add(new Event(eventType, earliestNextEventTime, earliestNextEventRobot.getId()));
+            EventType eventType = getNextEventType(robots.getState(earliestNextEventRobot));
+            events.add(new Event(eventType, earliestNextEventTime, robots.getId(earliestNextEventRobot)));
             return events;
         }
 
         boolean forcedEvent = false;
-        for(Robot robot: endMovingTimes.keySet()) {
-            if (endMovingTimes.get(robot) < earliestNextEventTime) {
-                earliestNextEventTime = endMovingTimes.get(robot);
-                earliestNextEventRobot = robot;
+        int forcedEventId = -1;
+        for(int id: endMovingTimes.keySet()) {
+            if (endMovingTimes.get(id) < earliestNextEventTime) {
+                earliestNextEventTime = endMovingTimes.get(id);
+                forcedEventId = id;
                 forcedEvent = true;
             }
         }
 
         if (forcedEvent) {
-            events.add(new Event(EventType.END_MOVING, earliestNextEventTime, earliestNextEventRobot.getId()));
+            events.add(new Event(EventType.END_MOVING, earliestNextEventTime, forcedEventId));
             return events;
         }
 
-        List<Robot> availableRobots = new ArrayList<>();
-        for (Robot robot: robots) {
-            switch (robot.getState()) {
+        // The indices of the available robots, in a buffer that is reused since this is called for every event.
+        if (availableRobots == null || availableRobots.length < robots.size()) {
+            availableRobots = new int[robots.size()];
+        }
+        int availableCount = 0;
+        for (int i = 0; i < robots.size(); i++) {
+            switch (robots.getState(i)) {
                 case SLEEPING:
-                    availableRobots.add(robot);
+                    availableRobots[availableCount++] = i;
                     break;
                 case COMPUTING:
-                    if (robot.getInCurrentStateSince() + minComputeTime < t) {
-                        availableRobots.add(robot);
+                    if (robots.getInCurrentStateSince(i) + minComputeTime < t) {
+                        availableRobots[availableCount++] = i;
                     }
                     break;
                 case MOVING:
-                    if (robot.getInCurrentStateSince() + minMoveTime < t && !endMovingTimes.containsKey(robot)) {
-                        availableRobots.add(robot);
+                    if (robots.getInCurrentStateSince(i) + minMoveTime < t && !endMovingTimes.containsKey(robots.getId(i))) {
+                        availableRobots[availableCount++] = i;
                     }
                     break;
             }
         }
 
-        if (availableRobots.size()==0) {
+        if (availableCount==0) {
             double earliestMinNextEventTime = Double.MAX_VALUE;
-            Robot earliestMinNextEventRobot = null;
-            for (Robot robot: robots) {
-                switch (robot.getState()) {
+            int earliestMinNextEventRobot = -1;
+            for (int i = 0; i < robots.size(); i++) {
+                switch (robots.getState(i)) {
                     case COMPUTING:
-                        if (robot.getInCurrentStateSince() + minComputeTime < earliestMinNextEventTime) {
-                            earliestMinNextEventTime = robot.getInCurrentStateSince() + minComputeTime;
-                            earliestMinNextEventRobot = robot;
+                        if (robots.getInCurrentStateSince(i) + minComputeTime < earliestMinNextEventTime) {
+                            earliestMinNextEventTime = robots.getInCurrentStateSince(i) + minComputeTime;
+                            earliestMinNextEventRobot = i;
                         }
                     case MOVING:
-                        if (robot.getInCurrentStateSince() + minMoveTime < earliestMinNextEventTime) {
-                            earliestMinNextEventTime = robot.getInCurrentStateSince() + minMoveTime;
-                            earliestMinNextEventRobot = robot;
+                        if (robots.getInCurrentStateSince(i) + minMoveTime < earliestMinNextEventTime) {
+                            earliestMinNextEventTime = robots.getInCurrentStateSince(i) + minMoveTime;
+                            earliestMinNextEventRobot = i;
                         }
 
                 }
             }
-            EventType eventType = getNextEventType(earliestMinNextEventRobot);
-            events.add(new Event(eventType, earliestMinNextEventTime, earliestMinNextEventRobot.getId()));
+            EventType eventType = getNextEventType(robots.getState(earliestMinNextEventRobot));
+            events.add(new Event(eventType, earliestMinNextEventTime, robots.getId(earliestMinNextEventRobot)));
             return events;
         }
 
-        Robot chosenRobot = availableRobots.get(random.nextInt(availableRobots.size()));
-        EventType eventType = getNextEventType(chosenRobot);
+        int chosenRobot = availableRobots[random.nextInt(availableCount)];
+        EventType eventType = getNextEventType(robots.getState(chosenRobot));
         double eventTime = t + (earliestNextEventTime - t) * random.nextDouble();
-        events.add(new Event(eventType, eventTime, chosenRobot.getId()));
+        events.add(new Event(eventType, eventTime, robots.getId(chosenRobot)));
 
         lastRequestedEventTime = t;
         lastReturnedEvents = events;
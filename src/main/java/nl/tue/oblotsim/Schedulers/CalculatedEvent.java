@@ -4,6 +4,7 @@ import nl.tue.oblotsim.Simulator.Robot;
 
 import java.io.*;
 import java.util.*;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
@@ -12,6 +13,8 @@ import java.util.stream.Collectors;
  */
 public class CalculatedEvent implements Serializable {
 
+    private static final long serialVersionUID = 1L;
+
     private double timestamp;
     private List<Event> events;
 
@@ -23,17 +26,47 @@ public class CalculatedEvent implements Serializable {
     }
 
     public CalculatedEvent(double timestamp, List<Event> events, Collection<Robot> snapshot) {
+        this(timestamp, events, constant(Collections.unmodifiableMap(snapshot.stream().collect(Collectors.toMap(Robot::getId, robot -> robot)))));
+    }
 
-        // Defensive copy of the list of events.
+    /**
+     * Create a calculated event whose snapshot is not stored in the event itself,
+     * but is fetched from the given source whenever it is requested.
+     *
+     * @param timestamp the time of the event
+     * @param events the events that occurred at this time
+     * @param snapshotSource produces an immutable map from robot ID to robot, with the robots as they are after the events
+     */
+    public CalculatedEvent(double timestamp, List<Event> events, Supplier<Map<Integer, Robot>> snapshotSource) {
+
+        // Defensive copy of the list of events. A round is immutable already, and copying it would expand it.
         this.timestamp = timestamp;
-        this.events = List.copyOf(events);
+        this.events = events instanceof RoundEvent ? events : List.copyOf(events);
 
         assert events.stream().allMatch(event -> event.getT() == timestamp);
 
-        this.snapshot = snapshot.stream().collect(Collectors.toMap(Robot::getId, robot -> robot));
+        this.snapshot = snapshotSource;
+    }
+
+    private static Supplier<Map<Integer, Robot>> constant(Map<Integer, Robot> snapshot) {
+        return () -> snapshot;
     }
 
-    private final Map<Integer, Robot> snapshot;
+    /**
+     * The source of the snapshot, which need not be serializable. The snapshot itself is serialized instead.
+     */
+    private transient Supplier<Map<Integer, Robot>> snapshot;
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeObject(new HashMap<>(getSnapshot()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        snapshot = constant(Collections.unmodifiableMap((Map<Integer, Robot>) in.readObject()));
+    }
 
 //
 //    /**
@@ -165,14 +198,14 @@ public class CalculatedEvent implements Serializable {
      * Immutable reference to list of events that occurred in this event.
      */
     public List<Event> getEvents() {
-        return Collections.unmodifiableList(events);
+        return events;
     }
 
     /**
      * Immutable map from robot ID to robot.
      */
     public Map<Integer, Robot> getSnapshot() {
-        return Collections.unmodifiableMap(snapshot);
+        return snapshot.get();
     }
 
     /**
@@ -180,6 +213,6 @@ public class CalculatedEvent implements Serializable {
      *         Will be the event's timestamp itself if they already stopped.
      */
     public double timeUntilAllStop() {
-        return snapshot.values().stream().flatMapToDouble(robot -> robot.willStopBefore().stream()).max().orElse(getTimestamp());
+        return getSnapshot().values().stream().flatMapToDouble(robot -> robot.willStopBefore().stream()).max().orElse(getTimestamp());
     }
 }
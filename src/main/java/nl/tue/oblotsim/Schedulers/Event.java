@@ -2,10 +2,14 @@ package nl.tue.oblotsim.Schedulers;
 
 import nl.tue.oblotsim.Simulator.Robot;
 
+import java.io.Serializable;
+
 /**
  * An event of a robot. Could be either start compute, start moving
  */
-public class Event {
+public class Event implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     private EventType type;
     private double t;
@@ -1,17 +1,20 @@
 package nl.tue.oblotsim.Schedulers;
 
 import nl.tue.oblotsim.Simulator.Robot;
+import nl.tue.oblotsim.Simulator.RobotStates;
 import nl.tue.oblotsim.Simulator.State;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.IntStream;
 
 public class FSyncScheduler extends SSyncScheduler {
+
+    private static final long serialVersionUID = 1L;
+
     @Override
-    protected List<Robot> chooseActiveRobots(List<Robot> r) {
-        // TODO: verify if this one is actually being called!
-        System.out.println("I'm actually being used!");
-        return r;
+    protected IntStream chooseActiveRobots(RobotStates r) {
+        return IntStream.range(0, r.size()).map(r::getId);
     }
 //    /**
 //     * creates new Fully sync scheduler
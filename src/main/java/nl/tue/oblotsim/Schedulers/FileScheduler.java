@@ -19,6 +19,8 @@ import java.util.*;
  */
 public class FileScheduler extends ListScheduler {
 
+    private static final long serialVersionUID = 1L;
+
     /**
      * Reads a file and stores an ordered array of events. Does this by reading a file and then merging it with the total
      * This is not the most efficient way, as insertion per event would be better. However, this was easier to implement
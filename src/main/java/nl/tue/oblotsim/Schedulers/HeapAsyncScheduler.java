@@ -0,0 +1,195 @@
+package nl.tue.oblotsim.Schedulers;
+
+import nl.tue.oblotsim.Simulator.Robot;
+import nl.tue.oblotsim.Util.IndexedMinHeap;
+
+import java.util.List;
+
+/**
+ * An asynchronous scheduler for large swarms, which returns the same events as {@link AsyncScheduler} for the same
+ * seed and robots in the same order, but finds them in O(log n) per event instead of looking at every robot.
+ * <p>
+ * Every robot must start moving at most the max compute time after it started computing, and stop at most the max
+ * move time after it started moving. If one of those deadlines is close, that robot gets the next event. Otherwise,
+ * a random robot that is sleeping, or has been computing or moving for at least the min time, gets an event at a
+ * random time before the first deadline. Like {@link AsyncScheduler}, robots may be stopped before they reach their
+ * target whether or not that is allowed.
+ * <p>
+ * Besides the deadlines in the heap, this keeps the times at which robots become available for a random event in
+ * a second heap, and the times used when no robot is available in a third. Which robots are available is kept in a
+ * binary indexed tree over the slots, so that a random one can be picked in the same order as {@link AsyncScheduler}.
+ */
+public class HeapAsyncScheduler extends HeapScheduler {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * A deadline is handled right away if it is closer than this to the current time.
+     */
+    private static final double DEADLINE_MARGIN = 0.2;
+
+    double minComputeTime;
+    double maxComputeTime;
+    double minMoveTime;
+    double maxMoveTime;
+
+    /**
+     * The time after which every robot that is computing or moving becomes available, by slot.
+     */
+    private IndexedMinHeap pending;
+
+    /**
+     * The time of the event of every robot that is computing or moving if no robot is available, by slot.
+     */
+    private IndexedMinHeap fallback;
+
+    /**
+     * Whether the robot in every slot is available, and a binary indexed tree counting the available slots.
+     */
+    private boolean[] available;
+    private int[] tree;
+    private int availableCount;
+
+    public HeapAsyncScheduler() {
+        this(1, 1, 1, 5);
+    }
+
+    /**
+     * creates new HeapAsyncScheduler
+     * @param minComputeTime min compute time
+     * @param maxComputeTime max compute time
+     * @param minMoveTime min move time
+     * @param maxMoveTime max move time
+     */
+    public HeapAsyncScheduler(double minComputeTime, double maxComputeTime, double minMoveTime, double maxMoveTime) {
+        if (minComputeTime < 0 || minMoveTime < 0) {
+            throw new IllegalArgumentException("Times should be at least 0");
+        }
+        if (maxComputeTime < minComputeTime || maxMoveTime < minMoveTime) {
+            throw new IllegalArgumentException("Max times should be at least the min times");
+        }
+        this.minComputeTime = minComputeTime;
+        this.maxComputeTime = maxComputeTime;
+        this.minMoveTime = minMoveTime;
+        this.maxMoveTime = maxMoveTime;
+    }
+
+    @Override
+    protected void initialize(List<Robot> robots, double t, boolean allowEarlyStop) {
+        int n = robots.size();
+        pending = new IndexedMinHeap(n);
+        fallback = new IndexedMinHeap(n);
+        available = new boolean[n];
+        tree = new int[n + 1];
+        availableCount = 0;
+        for (int slot = 0; slot < n; slot++) {
+            update(slot, robots.get(slot), t);
+        }
+    }
+
+    @Override
+    protected void eventsApplied(List<Event> events, List<Robot> robots, boolean allowEarlyStop) {
+        for (Event event : events) {
+            int slot = slotOf(event.getTargetId());
+            update(slot, robotIn(robots, slot), event.getT());
+        }
+    }
+
+    @Override
+    protected List<Event> nextEvents(double t, boolean allowEarlyStop) {
+        while (!pending.isEmpty() && pending.peekKey() < t) {
+            setAvailable(pending.poll(), true);
+        }
+
+        // The same random numbers in the same order as AsyncScheduler, so the events are the same.
+        double deadline;
+        int slot;
+        if (!deadlines.isEmpty()) {
+            deadline = deadlines.peekKey();
+            slot = deadlines.peek();
+        } else {
+            deadline = t + DEADLINE_MARGIN * random.nextDouble();
+            slot = random.nextInt(ids.length);
+        }
+        if (deadline - t < DEADLINE_MARGIN) {
+            return List.of(new Event(nextTypes[slot], deadline, ids[slot]));
+        }
+
+        if (availableCount == 0) {
+            slot = fallback.peek();
+            return List.of(new Event(nextTypes[slot], fallback.peekKey(), ids[slot]));
+        }
+
+        slot = selectAvailable(random.nextInt(availableCount));
+        double eventTime = t + (deadline - t) * random.nextDouble();
+        return List.of(new Event(nextTypes[slot], eventTime, ids[slot]));
+    }
+
+    /**
+     * Bring the heaps up to date with the state of the robot in the given slot.
+     * @param t the current time
+     */
+    private void update(int slot, Robot robot, double t) {
+        deadlines.remove(slot);
+        pending.remove(slot);
+        fallback.remove(slot);
+        setAvailable(slot, false);
+
+        double since = robot.getInCurrentStateSince();
+        switch (robot.getState()) {
+            case SLEEPING:
+                nextTypes[slot] = EventType.START_COMPUTE;
+                setAvailable(slot, true);
+                break;
+            case COMPUTING:
+                nextTypes[slot] = EventType.START_MOVING;
+                deadlines.set(slot, since + maxComputeTime);
+                fallback.set(slot, Math.min(since + minComputeTime, since + minMoveTime));
+                becomesAvailable(slot, since + minComputeTime, t);
+                break;
+            case MOVING:
+                nextTypes[slot] = EventType.END_MOVING;
+                deadlines.set(slot, since + maxMoveTime);
+                fallback.set(slot, since + minMoveTime);
+                becomesAvailable(slot, since + minMoveTime, t);
+                break;
+        }
+    }
+
+    private void becomesAvailable(int slot, double time, double t) {
+        if (time < t) {
+            setAvailable(slot, true);
+        } else {
+            pending.set(slot, time);
+        }
+    }
+
+    private void setAvailable(int slot, boolean isAvailable) {
+        if (available[slot] == isAvailable) {
+            return;
+        }
+        available[slot] = isAvailable;
+        int delta = isAvailable ? 1 : -1;
+        availableCount += delta;
+        for (int i = slot + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    /**
+     * The slot of the available robot with the given rank, counting the available robots in order of slot from 0.
+     */
+    private int selectAvailable(int rank) {
+        int position = 0;
+        int remaining = rank;
+        for (int step = Integer.highestOneBit(tree.length - 1); step > 0; step >>= 1) {
+            int next = position + step;
+            if (next < tree.length && tree[next] <= remaining) {
+                position = next;
+                remaining -= tree[next];
+            }
+        }
+        // The first position + 1 slots contain rank available robots, so the next one is the robot.
+        return position;
+    }
+}
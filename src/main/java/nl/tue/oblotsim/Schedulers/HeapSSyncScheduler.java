@@ -0,0 +1,181 @@
+package nl.tue.oblotsim.Schedulers;
+
+import nl.tue.oblotsim.Simulator.Robot;
+import nl.tue.oblotsim.Simulator.State;
+
+import java.util.List;
+import java.util.OptionalDouble;
+
+/**
+ * A semi-synchronous scheduler for large swarms, which returns the same events as {@link SSyncScheduler} for the same
+ * seed, but does not look at every robot for every event.
+ * <p>
+ * Every round, a pseudorandom non-empty subset of the robots is activated. They start computing one time unit after
+ * the last robot stopped, and start moving one time unit later. If robots may not be stopped early, they all stop
+ * when the last of them reaches its target, otherwise each of them stops at its own pseudorandom time.
+ * Picking the active robots shuffles all of them like {@link SSyncScheduler} does, which costs O(n) once per round;
+ * the other events of a round cost O(k log n) for k active robots.
+ */
+public class HeapSSyncScheduler extends HeapScheduler {
+
+    private static final long serialVersionUID = 1L;
+
+    double minComputeTime;
+    double maxComputeTime;
+    double minMoveTime;
+    double maxMoveTime;
+
+    /**
+     * Mixed into the pseudorandom choices, like in {@link SSyncScheduler}.
+     */
+    long seed = 0;
+
+    /**
+     * The last time any robot changed state, from which the next round is started and seeded.
+     */
+    private double lastChange;
+
+    /**
+     * The slots of the robots, shuffled every round to pick the active ones.
+     */
+    private int[] order;
+
+    public HeapSSyncScheduler() {
+        this(1, 1, 1, 5);
+    }
+
+    /**
+     * creates new HeapSSyncScheduler
+     *
+     * @param minComputeTime min compute time
+     * @param maxComputeTime max compute time
+     * @param minMoveTime    min move time
+     * @param maxMoveTime    max move time
+     */
+    public HeapSSyncScheduler(double minComputeTime, double maxComputeTime, double minMoveTime, double maxMoveTime) {
+        if (minComputeTime <= 0.0) {
+            throw new IllegalArgumentException("minComputeTime should be > 0");
+        }
+        if (minMoveTime <= 0.0) {
+            throw new IllegalArgumentException("minMoveTime should be > 0");
+        }
+        if (maxComputeTime < minComputeTime || maxMoveTime < minMoveTime) {
+            throw new IllegalArgumentException("Max times should be at least the min times");
+        }
+        this.minComputeTime = minComputeTime;
+        this.maxComputeTime = maxComputeTime;
+        this.minMoveTime = minMoveTime;
+        this.maxMoveTime = maxMoveTime;
+    }
+
+    @Override
+    public void setSeed(long seed) {
+        super.setSeed(seed);
+        this.seed = seed;
+    }
+
+    /**
+     * Pick the robots to activate in a round, like {@link SSyncScheduler#chooseActiveRobots}.
+     * @param slots the slots of all robots in order, to be rearranged so that the active ones come first
+     * @param seedTime the last time any robot changed state
+     * @return the number of active robots, at least 1
+     */
+    protected int chooseActiveSlots(int[] slots, double seedTime) {
+        return SSyncScheduler.shuffleActive(slots, seed, seedTime);
+    }
+
+    @Override
+    protected void initialize(List<Robot> robots, double t, boolean allowEarlyStop) {
+        order = new int[robots.size()];
+
+        // Continue the round that is in progress, if any, in the same way as SSyncScheduler.
+        Robot representative = null;
+        for (Robot robot : robots) {
+            if (robot.getState() != State.SLEEPING) {
+                representative = robot;
+                break;
+            }
+        }
+        if (representative == null) {
+            lastChange = robots.stream().mapToDouble(Robot::getInCurrentStateSince).max().getAsDouble();
+            return;
+        }
+        double since = representative.getInCurrentStateSince();
+        lastChange = since;
+        switch (representative.getState()) {
+            case COMPUTING:
+                for (int slot = 0; slot < robots.size(); slot++) {
+                    if (robots.get(slot).getState() == State.COMPUTING) {
+                        schedule(slot, EventType.START_MOVING, since + 1.0, t);
+                    }
+                }
+                break;
+            case MOVING:
+                double moveEnd = since + minMoveTime;
+                for (Robot robot : robots) {
+                    moveEnd = Math.max(moveEnd, robot.willStopBefore().orElse(since));
+                }
+                for (int slot = 0; slot < robots.size(); slot++) {
+                    Robot robot = robots.get(slot);
+                    if (robot.getState() == State.MOVING) {
+                        schedule(slot, EventType.END_MOVING, allowEarlyStop
+                                ? since + SSyncScheduler.makePseudorandomStopTime(seed, robot.getId(), robot.getInCurrentStateSince(), minMoveTime, maxMoveTime)
+                                : moveEnd, t);
+                    }
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    @Override
+    protected void eventsApplied(List<Event> events, List<Robot> robots, boolean allowEarlyStop) {
+        double t = events.get(0).getT();
+        lastChange = t;
+        switch (events.get(0).getType()) {
+            case START_COMPUTE:
+                for (Event event : events) {
+                    schedule(slotOf(event.getTargetId()), EventType.START_MOVING, t + 1.0, t);
+                }
+                break;
+            case START_MOVING:
+                if (allowEarlyStop) {
+                    for (Event event : events) {
+                        schedule(slotOf(event.getTargetId()), EventType.END_MOVING,
+                                t + SSyncScheduler.makePseudorandomStopTime(seed, event.getTargetId(), t, minMoveTime, maxMoveTime), t);
+                    }
+                } else {
+                    // Everybody stops when the last one reaches its target.
+                    double moveEnd = t + minMoveTime;
+                    for (Event event : events) {
+                        OptionalDouble stop = robotIn(robots, slotOf(event.getTargetId())).willStopBefore();
+                        if (stop.isPresent()) {
+                            moveEnd = Math.max(moveEnd, stop.getAsDouble());
+                        }
+                    }
+                    for (Event event : events) {
+                        schedule(slotOf(event.getTargetId()), EventType.END_MOVING, moveEnd, t);
+                    }
+                }
+                break;
+            case END_MOVING:
+                // The robots sleep until the next round, which starts once all of them stopped.
+                break;
+        }
+    }
+
+    /**
+     * Start a new round, by activating a pseudorandom subset of the robots.
+     */
+    @Override
+    protected void scheduleMore(double t) {
+        for (int slot = 0; slot < order.length; slot++) {
+            order[slot] = slot;
+        }
+        int k = chooseActiveSlots(order, lastChange);
+        for (int i = 0; i < k; i++) {
+            schedule(order[i], EventType.START_COMPUTE, lastChange + 1.0, t);
+        }
+    }
+}
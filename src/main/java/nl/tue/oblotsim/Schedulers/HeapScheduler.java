@@ -0,0 +1,215 @@
+package nl.tue.oblotsim.Schedulers;
+
+import nl.tue.oblotsim.Simulator.Robot;
+import nl.tue.oblotsim.Util.IndexedMinHeap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * A scheduler that keeps the time of the next event of every robot in an {@link IndexedMinHeap},
+ * so finding the next event does not require looking at every robot.
+ * <p>
+ * The simulation applies the events this scheduler returns and then asks for the events after them. When that
+ * happens, only the robots in the returned events need to be rescheduled, which costs O(log n) per robot.
+ * When asked for events after any other time, the schedule is rebuilt from the given robots in O(n log n).
+ * <p>
+ * Every robot is given a slot in the heap: its index in the list of robots of the first call. The lists given in
+ * later calls are expected to be in the same order, if not, looking up a robot takes O(n).
+ * <p>
+ * This only bounds the work of the scheduler. {@link nl.tue.oblotsim.Simulator.Simulation} still does O(n) work per
+ * event, since it copies the list of robots and rebuilds its map of robots for every event.
+ */
+public abstract class HeapScheduler extends Scheduler {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The time of the next event of every robot that has one, by slot.
+     */
+    protected IndexedMinHeap deadlines;
+
+    /**
+     * The type of the next event of every robot that has one, by slot.
+     */
+    protected EventType[] nextTypes;
+
+    /**
+     * The id of the robot in every slot.
+     */
+    protected int[] ids;
+
+    /**
+     * The slots of the events that are returned next, reused for every request.
+     */
+    private int[] polled;
+
+    /**
+     * The slot of every robot id, only used if the ids are not equal to the slots.
+     */
+    private Map<Integer, Integer> slots;
+
+    protected Random random = new Random();
+
+    private double lastRequestedEventTime = Double.NaN;
+    private List<Event> lastReturnedEvents = null;
+
+    @Override
+    public void setSeed(long seed) {
+        random = new Random(seed);
+    }
+
+    @Override
+    public List<Event> getNextEvent(List<Robot> robots, double t, boolean allowEarlyStop) {
+        if (t == lastRequestedEventTime) {
+            return lastReturnedEvents;
+        }
+
+        if (ids == null || ids.length != robots.size() || lastReturnedEvents == null || t != lastReturnedEvents.get(0).getT()) {
+            reset(robots, t, allowEarlyStop);
+        } else {
+            eventsApplied(lastReturnedEvents, robots, allowEarlyStop);
+        }
+
+        List<Event> events = nextEvents(t, allowEarlyStop);
+
+        lastRequestedEventTime = t;
+        lastReturnedEvents = events;
+        return events;
+    }
+
+    /**
+     * The events after the given time, after the heap was brought up to date with the robots.
+     * By default, these are the events of the robots with the earliest time in the heap,
+     * after giving the scheduler the chance to schedule more if the heap is empty.
+     * @param t the current time
+     * @param allowEarlyStop whether robots may be stopped before they reach their target
+     * @return the next events, all at the same time, or null if there are none
+     */
+    protected List<Event> nextEvents(double t, boolean allowEarlyStop) {
+        if (deadlines.isEmpty()) {
+            scheduleMore(t);
+        }
+
+        List<Event> events = null;
+        if (!deadlines.isEmpty()) {
+            double eventTime = deadlines.peekKey();
+            int count = 0;
+            boolean sameType = true;
+            while (!deadlines.isEmpty() && deadlines.peekKey() == eventTime) {
+                int slot = deadlines.poll();
+                if (count > 0 && nextTypes[slot] != nextTypes[polled[0]]) {
+                    sameType = false;
+                }
+                polled[count++] = slot;
+            }
+            if (count > 1 && sameType) {
+                // A synchronous round, which is stored compactly.
+                EventType type = nextTypes[polled[0]];
+                events = RoundEvent.of(type, eventTime, Arrays.stream(polled, 0, count).map(slot -> ids[slot]));
+            } else {
+                events = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    events.add(new Event(nextTypes[polled[i]], eventTime, ids[polled[i]]));
+                }
+            }
+        }
+        return events;
+    }
+
+    private void reset(List<Robot> robots, double t, boolean allowEarlyStop) {
+        int n = robots.size();
+        if (n == 0) {
+            throw new IllegalArgumentException("Robot list may not be empty!");
+        }
+        deadlines = new IndexedMinHeap(n);
+        nextTypes = new EventType[n];
+        polled = new int[n];
+        ids = new int[n];
+        slots = null;
+        for (int i = 0; i < n; i++) {
+            ids[i] = robots.get(i).getId();
+            if (ids[i] != i && slots == null) {
+                slots = new HashMap<>();
+                for (int j = 0; j < i; j++) {
+                    slots.put(ids[j], j);
+                }
+            }
+            if (slots != null) {
+                slots.put(ids[i], i);
+            }
+        }
+        initialize(robots, t, allowEarlyStop);
+    }
+
+    /**
+     * Fill the heap for the given robots, which may be in any state.
+     * @param robots the robots, in slot order
+     * @param t the current time, all scheduled events should be strictly after it
+     * @param allowEarlyStop whether robots may be stopped before they reach their target
+     */
+    protected abstract void initialize(List<Robot> robots, double t, boolean allowEarlyStop);
+
+    /**
+     * Reschedule the robots after the simulation applied the events that were returned last.
+     * These robots have been removed from the heap already.
+     * @param events the applied events, all at the same time
+     * @param robots the robots after applying the events
+     * @param allowEarlyStop whether robots may be stopped before they reach their target
+     */
+    protected abstract void eventsApplied(List<Event> events, List<Robot> robots, boolean allowEarlyStop);
+
+    /**
+     * Called when no robot has a next event, to give the scheduler the chance to schedule more.
+     * By default, nothing is scheduled, which ends the schedule.
+     * @param t the current time, all scheduled events should be strictly after it
+     */
+    protected void scheduleMore(double t) {
+    }
+
+    /**
+     * Schedule the next event of the robot in a slot, replacing the event it had.
+     * @param slot the slot of the robot
+     * @param type the type of the event
+     * @param time the time of the event
+     * @param t the current time, if the event would not be after this, it is moved to just after it
+     */
+    protected void schedule(int slot, EventType type, double time, double t) {
+        nextTypes[slot] = type;
+        deadlines.set(slot, time > t ? time : Math.nextUp(t));
+    }
+
+    /**
+     * The slot of the robot with the given id.
+     */
+    protected int slotOf(int id) {
+        return slots == null ? id : slots.get(id);
+    }
+
+    /**
+     * The robot in the given slot, from a list of robots.
+     */
+    protected Robot robotIn(List<Robot> robots, int slot) {
+        Robot robot = robots.get(slot);
+        if (robot.getId() == ids[slot]) {
+            return robot;
+        }
+        for (Robot other : robots) {
+            if (other.getId() == ids[slot]) {
+                return other;
+            }
+        }
+        throw new IllegalArgumentException("Robot " + ids[slot] + " is missing");
+    }
+
+    /**
+     * A uniformly random duration between min and max.
+     */
+    protected double randomDuration(double min, double max) {
+        return min + (max - min) * random.nextDouble();
+    }
+}
@@ -10,6 +10,8 @@ import java.util.List;
  */
 public class ListScheduler extends Scheduler {
 
+    private static final long serialVersionUID = 1L;
+
     /**
      * An array that contains all events that will happen, sorted on timestamp
      */
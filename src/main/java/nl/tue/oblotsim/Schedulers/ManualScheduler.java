@@ -7,6 +7,8 @@ import java.util.List;
 
 public class ManualScheduler extends ListScheduler {
 
+    private static final long serialVersionUID = 1L;
+
     private Simulation sim;
     private final double TIME_OFFSET = 0.001;
 
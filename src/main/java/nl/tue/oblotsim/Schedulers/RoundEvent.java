@@ -0,0 +1,149 @@
+package nl.tue.oblotsim.Schedulers;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * The events of a round of a synchronous scheduler, in which all active robots get an event of the same type at the same time.
+ * <p>
+ * Instead of an {@link Event} per robot, this only stores the ids of the robots in a bit set,
+ * so a round of robots with ids up to n takes about n/64 words. The individual events are created when the list is read,
+ * in order of robot id. Reading an element by index has to count the ids before it, so iterate instead.
+ * The list can not be modified.
+ */
+public final class RoundEvent extends AbstractList<Event> implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Above this many bits of the bit set per robot, {@link #of} stores the events in a plain list instead.
+     */
+    private static final int MAX_BITS_PER_TARGET = 64;
+
+    private final EventType type;
+    private final double t;
+    private final BitSet targets;
+    private final int size;
+
+    /**
+     * Create the events of a round.
+     * @param type the type of all events
+     * @param t the timestamp of all events
+     * @param targets the ids of the robots that get the event, which is copied
+     */
+    public RoundEvent(EventType type, double t, BitSet targets) {
+        if (targets.isEmpty()) {
+            throw new IllegalArgumentException("A round needs at least one robot");
+        }
+        this.type = type;
+        this.t = t;
+        this.targets = (BitSet) targets.clone();
+        this.size = targets.cardinality();
+    }
+
+    /**
+     * The events of a round in which the given robots get an event of the same type, stored compactly if possible.
+     * @param type the type of all events
+     * @param t the timestamp of all events
+     * @param targetIds the ids of the robots that get the event
+     * @return a {@link RoundEvent}, or a plain list of events in order of id if some id is negative and can not be
+     * stored in a bit set, or if the ids are so sparse that the bit set would be larger than the events
+     */
+    public static List<Event> of(EventType type, double t, IntStream targetIds) {
+        int[] ids = targetIds.sorted().toArray();
+        if (ids.length > 0 && (ids[0] < 0 || ids[ids.length - 1] / MAX_BITS_PER_TARGET > ids.length)) {
+            return IntStream.of(ids).mapToObj(id -> new Event(type, t, id)).collect(Collectors.toList());
+        }
+        BitSet targets = new BitSet();
+        for (int id : ids) {
+            targets.set(id);
+        }
+        return new RoundEvent(type, t, targets);
+    }
+
+    /**
+     * The type of all events in this round.
+     */
+    public EventType getType() {
+        return type;
+    }
+
+    /**
+     * The timestamp of all events in this round.
+     */
+    public double getT() {
+        return t;
+    }
+
+    /**
+     * The first id of a robot in this round that is at least the given id, like {@link BitSet#nextSetBit(int)}.
+     * This allows going through the robots without creating events:
+     * {@code for (int id = round.nextTarget(0); id >= 0; id = round.nextTarget(id + 1))}.
+     *
+     * @param fromId the id to start from
+     * @return the id, or -1 if there is none
+     */
+    public int nextTarget(int fromId) {
+        return targets.nextSetBit(fromId);
+    }
+
+    /**
+     * The ids of the robots in this round, in increasing order.
+     */
+    public IntStream targetIds() {
+        return targets.stream();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Event get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+        }
+        int id = targets.nextSetBit(0);
+        for (int i = 0; i < index; i++) {
+            id = targets.nextSetBit(id + 1);
+        }
+        return new Event(type, t, id);
+    }
+
+    @Override
+    public Iterator<Event> iterator() {
+        return new Iterator<>() {
+            private int next = targets.nextSetBit(0);
+
+            @Override
+            public boolean hasNext() {
+                return next >= 0;
+            }
+
+            @Override
+            public Event next() {
+                if (next < 0) {
+                    throw new NoSuchElementException();
+                }
+                Event event = new Event(type, t, next);
+                next = targets.nextSetBit(next + 1);
+                return event;
+            }
+        };
+    }
+
+    @Override
+    public void forEach(Consumer<? super Event> action) {
+        for (int id = targets.nextSetBit(0); id >= 0; id = targets.nextSetBit(id + 1)) {
+            action.accept(new Event(type, t, id));
+        }
+    }
+}
@@ -1,19 +1,25 @@
 package nl.tue.oblotsim.Schedulers;
 
 import nl.tue.oblotsim.Simulator.Robot;
+import nl.tue.oblotsim.Simulator.RobotStates;
 import nl.tue.oblotsim.Simulator.State;
 
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 public class SSyncScheduler extends Scheduler {
 
+    private static final long serialVersionUID = 1L;
+
     double minComputeTime;
     double maxComputeTime;
     double minMoveTime;
     double maxMoveTime;
 
-    Random random = new Random();
+    /**
+     * Mixed into the pseudorandom choices, which are otherwise determined by the robots.
+     */
+    long seed = 0;
 
     public SSyncScheduler() {
         this(1, 1, 1, 5);
@@ -39,72 +45,146 @@ public class SSyncScheduler extends Scheduler {
         this.maxMoveTime = maxMoveTime;
     }
 
-    private double makePseudorandomStopTime(Robot r, double minDeltaT, double maxDeltaT) {
-        int seed = Integer.hashCode(r.getId()) * 31 + Double.hashCode(r.getInCurrentStateSince());
-        return (maxDeltaT - minDeltaT) * new Random(seed).nextDouble() + minDeltaT;
+    @Override
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * The time a robot that may be stopped early moves, pseudorandomly determined by the seed, its id and the time it
+     * started moving. This is shared with {@link HeapSSyncScheduler}, so both stop robots at the same times.
+     */
+    static double makePseudorandomStopTime(long seed, int id, double inCurrentStateSince, double minDeltaT, double maxDeltaT) {
+        long hash = Integer.hashCode(id) * 31L + Double.hashCode(inCurrentStateSince);
+        return (maxDeltaT - minDeltaT) * uniform(seed, hash) + minDeltaT;
     }
 
     /**
-     * Pick a random non-empty sublist of the provided list of robots.
+     * A pseudorandom number in [0, 1) determined by the two values, using the SplitMix64 finalizer.
+     * This is called for every moving robot, so it avoids allocating a generator.
+     */
+    private static double uniform(long seed, long value) {
+        long z = seed + value * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z = z ^ (z >>> 31);
+        return (z >>> 11) * 0x1.0p-53;
+    }
+
+    /**
+     * Pick a random non-empty subset of the provided robots.
      * <p>
      * Rng is seeded with the last "in current state since" among the given robots,
      * and should therefore yield the same pic within a round.
      *
-     * @param r The list of robots to pick from.
-     * @return Non-empty pseudo-random sublist of r.
+     * @param r The robots to pick from.
+     * @return The ids of a non-empty pseudo-random subset of r.
      */
-    protected List<Robot> chooseActiveRobots(List<Robot> r) {
+    protected IntStream chooseActiveRobots(RobotStates r) {
 
-        double seedTime = r.stream().mapToDouble(Robot::getInCurrentStateSince).max().orElseThrow(() -> new IllegalArgumentException("Robot list may not be empty!"));
+        double seedTime = IntStream.range(0, r.size()).mapToDouble(r::getInCurrentStateSince).max().orElseThrow(() -> new IllegalArgumentException("Robot list may not be empty!"));
 
-        Random random = new Random(Double.hashCode(seedTime));
-
-        ArrayList<Robot> l = new ArrayList<>(r);
-
-        Collections.shuffle(l, random);
+        int[] ids = new int[r.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = r.getId(i);
+        }
+        return IntStream.of(ids).limit(shuffleActive(ids, seed, seedTime));
+    }
 
-        return l.subList(0, 1 + random.nextInt(l.size() - 1));
+    /**
+     * Shuffle the given values and pick how many of the first ones are active in a round, pseudorandomly determined
+     * by the seed and the time the round is seeded with. This is shared with {@link HeapSSyncScheduler}, so both
+     * pick the same robots.
+     *
+     * @param values the values to shuffle in place
+     * @param seed the seed of the scheduler
+     * @param seedTime the last time any robot changed state before the round
+     * @return the number of active values, at least 1
+     */
+    static int shuffleActive(int[] values, long seed, double seedTime) {
+        Random random = new Random(seed * 31 + Double.hashCode(seedTime));
+        // The same swaps as Collections.shuffle, without boxing the values.
+        for (int i = values.length; i > 1; i--) {
+            int j = random.nextInt(i);
+            int tmp = values[i - 1];
+            values[i - 1] = values[j];
+            values[j] = tmp;
+        }
+        return values.length == 1 ? 1 : 1 + random.nextInt(values.length - 1);
     }
 
     @Override
     public List<Event> getNextEvent(List<Robot> robots, double t, boolean allowEarlyStop) {
+        return getNextEvent(RobotStates.of(robots), t, allowEarlyStop);
+    }
+
+    @Override
+    public List<Event> getNextEvent(RobotStates robots, double t, boolean allowEarlyStop) {
 
-        Robot representative = robots.stream().max(Comparator.comparing(Robot::getInCurrentStateSince))
-                .orElseThrow(() -> new IllegalArgumentException("SSync scheduler not defined for empty robot list."));
-        State currentRobotState = representative.getState();
-        double since = representative.getInCurrentStateSince();
+        int n = robots.size();
+        if (n == 0) {
+            throw new IllegalArgumentException("SSync scheduler not defined for empty robot list.");
+        }
 
-        assert robots.stream().allMatch(robot -> robot.getState() == currentRobotState || robot.getState() == State.SLEEPING);
-        assert robots.stream().allMatch(robot -> robot.getInCurrentStateSince() == since || robot.getState() == State.SLEEPING);
+        // The robots that are active in this round are all computing or moving, those that are not are sleeping.
+        // Active robots that stopped moving early are sleeping as well, so they are not taken as representative.
+        int representative = -1;
+        for (int i = 0; i < n && representative == -1; i++) {
+            if (robots.getState(i) != State.SLEEPING) {
+                representative = i;
+            }
+        }
+        if (representative == -1) {
+            // The first of the robots that changed state last.
+            representative = 0;
+            for (int i = 1; i < n; i++) {
+                if (robots.getInCurrentStateSince(i) > robots.getInCurrentStateSince(representative)) {
+                    representative = i;
+                }
+            }
+        }
+        State currentRobotState = robots.getState(representative);
+        double since = robots.getInCurrentStateSince(representative);
+
+        assert IntStream.range(0, n).allMatch(i -> robots.getState(i) == currentRobotState || robots.getState(i) == State.SLEEPING);
+        assert IntStream.range(0, n).allMatch(i -> robots.getInCurrentStateSince(i) == since || robots.getState(i) == State.SLEEPING);
 
         switch (currentRobotState) {
 
             case COMPUTING:
-                return robots.stream()
+                return RoundEvent.of(EventType.START_MOVING, since + 1.0, IntStream.range(0, n)
                         // Filter, because not all robots are active!
-                        .filter(robot -> robot.getState() == State.COMPUTING)
-                        .map(robot -> new Event(EventType.START_MOVING, since + 1.0, robot.getId()))
-                        .collect(Collectors.toList());
+                        .filter(i -> robots.getState(i) == State.COMPUTING)
+                        .map(robots::getId));
 
             case MOVING:
                 if (allowEarlyStop) {
-                    return robots.stream()
-                            // Filter, because not all robots are active!
-                            .filter(robot -> robot.getState() == State.MOVING)
-                            .map(robot -> new Event(EventType.END_MOVING, since + makePseudorandomStopTime(robot, minMoveTime, maxMoveTime), robot.getId())).collect(Collectors.toList());
+                    // Every robot stops at its own time, and all events returned at once must happen at the same time,
+                    // so only the robots that stop first are returned. The others are returned when asked again.
+                    double firstStopTime = Double.POSITIVE_INFINITY;
+                    for (int i = 0; i < n; i++) {
+                        if (robots.getState(i) == State.MOVING) {
+                            firstStopTime = Math.min(firstStopTime, since + makePseudorandomStopTime(seed, robots.getId(i), robots.getInCurrentStateSince(i), minMoveTime, maxMoveTime));
+                        }
+                    }
+                    double stopTime = firstStopTime;
+                    return RoundEvent.of(EventType.END_MOVING, stopTime, IntStream.range(0, n)
+                            .filter(i -> robots.getState(i) == State.MOVING)
+                            .filter(i -> since + makePseudorandomStopTime(seed, robots.getId(i), robots.getInCurrentStateSince(i), minMoveTime, maxMoveTime) == stopTime)
+                            .map(robots::getId));
                 } else {
-                    double lastStopTime = Math.max(since + minMoveTime, robots.stream().mapToDouble(robot -> robot.willStopBefore().orElse(since)).max().orElse(since));
-                    return robots.stream()
+                    double lastStopTime = since + minMoveTime;
+                    for (int i = 0; i < n; i++) {
+                        lastStopTime = Math.max(lastStopTime, robots.willStopBefore(i).orElse(since));
+                    }
+                    return RoundEvent.of(EventType.END_MOVING, lastStopTime, IntStream.range(0, n)
                             // Filter, because not all robots are active!
-                            .filter(robot -> robot.getState() == State.MOVING)
-                            .map(robot -> new Event(EventType.END_MOVING, lastStopTime, robot.getId()))
-                            .collect(Collectors.toList());
+                            .filter(i -> robots.getState(i) == State.MOVING)
+                            .map(robots::getId));
                 }
 
             case SLEEPING:
-                return chooseActiveRobots(robots).stream()
-                        .map(robot -> new Event(EventType.START_COMPUTE, since + 1.0, robot.getId()))
-                        .collect(Collectors.toList());
+                return RoundEvent.of(EventType.START_COMPUTE, since + 1.0, chooseActiveRobots(robots));
         }
 
         throw new IllegalStateException("Switch should be exhaustive. How did we get here?");
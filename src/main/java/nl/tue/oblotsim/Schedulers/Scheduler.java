@@ -2,13 +2,17 @@ package nl.tue.oblotsim.Schedulers;
 
 
 import nl.tue.oblotsim.Simulator.Robot;
+import nl.tue.oblotsim.Simulator.RobotStates;
 
+import java.io.Serializable;
 import java.util.List;
 
 /**
  * An abstract scheduler. Is able to generate a schedule when given a list of robots.
  */
-public abstract class Scheduler {
+public abstract class Scheduler implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     /**
      * Return all events that are shortest after timestep t, that are strictly greater than t.
@@ -28,4 +32,28 @@ public abstract class Scheduler {
      */
     public abstract List<Event> getNextEvent(List<Robot> robots, double t, boolean allowEarlyStop);
 
+    /**
+     * Like {@link #getNextEvent(List, double, boolean)}, for robots that may not be stored as {@link Robot} instances.
+     * By default, the robots are read from {@link RobotStates#views()}. Schedulers that only need the ids, states and
+     * times of the robots override this, so that no robots have to be created for them.
+     *
+     * @param robots the state of the robots
+     * @param t the current time
+     * @param allowEarlyStop
+     * @return the next event(s), null if there is none or a list if multiple happen on the same timestamp
+     */
+    public List<Event> getNextEvent(RobotStates robots, double t, boolean allowEarlyStop) {
+        return getNextEvent(robots.views(), t, allowEarlyStop);
+    }
+
+    /**
+     * Seed the random choices of this scheduler, so that the same seed results in the same schedule.
+     * A {@link nl.tue.oblotsim.Simulator.Simulation} calls this with a seed derived from its own before asking for events.
+     * Schedulers that make no random choices can ignore it.
+     *
+     * @param seed the seed
+     */
+    public void setSeed(long seed) {
+    }
+
 }
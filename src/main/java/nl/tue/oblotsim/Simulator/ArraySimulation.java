@@ -0,0 +1,298 @@
+package nl.tue.oblotsim.Simulator;
+
+import nl.tue.oblotsim.RobotPaths.RobotPath;
+import nl.tue.oblotsim.Schedulers.CalculatedEvent;
+import nl.tue.oblotsim.Schedulers.Event;
+import nl.tue.oblotsim.Schedulers.Scheduler;
+import nl.tue.oblotsim.Util.Config;
+import nl.tue.oblotsim.Util.UniformGrid;
+import nl.tue.oblotsim.Util.Vector;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * An alternative to {@link Simulation} for large swarms, backed by a {@link RobotStateStore}.
+ *
+ * Instead of creating a new {@link Robot} for every robot on every event, the state is updated in place in primitive arrays.
+ * Schedulers read the state from the arrays as {@link RobotStates}, so those that override
+ * {@link Scheduler#getNextEvent(RobotStates, double, boolean)} do not need a {@link Robot} for every robot either.
+ * The downside is that no history is kept: only the state after the last event is available.
+ * {@link CalculatedEvent} and {@link Robot} views of that state can be created on demand.
+ *
+ * Given the same robots, scheduler type and seed, the simulation produces the same events as {@link Simulation}.
+ */
+public class ArraySimulation {
+
+    /**
+     * The {@link Config} for this simulator. Can be changed on the fly.
+     */
+    public Config config;
+
+    /**
+     * The {@link Scheduler} that regulates which robots activate when.
+     */
+    public Scheduler scheduler;
+
+    private final RobotStateStore store;
+
+    /**
+     * The positions of the robots at the current event, interleaved: the x and y of robot i are at 2i and 2i + 1.
+     * They are overwritten in place before every event, and robots with infinite visibility compute from them.
+     */
+    private final double[] coordinates;
+
+    /**
+     * The same positions, for the spatial index of robots with limited visibility.
+     * The vectors are overwritten in place before every event.
+     */
+    private final Vector[] snapshot;
+
+    /**
+     * The spatial index of the snapshot with limited visibility, built when the first robot of an event computes.
+     */
+    private UniformGrid visibilityGrid;
+
+    /**
+     * Scratch space for interpolating positions without creating vectors.
+     */
+    private final double[] xy = new double[2];
+
+    private double currentTime = 0.0;
+    private List<Event> lastEvents = List.of();
+    private List<Event> upcomingEvents;
+    private final QuiescenceDetector quiescence;
+
+    private final long seed;
+
+    /**
+     * Create a simulation with a random seed, which does not seed the scheduler, so it keeps its own random choices.
+     * @param c the configuration
+     * @param robots the robots at time 0
+     * @param scheduler the scheduler to use
+     */
+    public ArraySimulation(Config c, Collection<Robot> robots, Scheduler scheduler) {
+        this(c, robots, scheduler, new SplittableRandom().nextLong(), false);
+    }
+
+    /**
+     * Create a simulation whose random choices are derived from the given seed, in the same way as {@link Simulation}.
+     * @param c the configuration
+     * @param robots the robots at time 0
+     * @param scheduler the scheduler to use, which is seeded by the simulation
+     * @param seed the seed
+     */
+    public ArraySimulation(Config c, Collection<Robot> robots, Scheduler scheduler, long seed) {
+        this(c, robots, scheduler, seed, true);
+    }
+
+    private ArraySimulation(Config c, Collection<Robot> robots, Scheduler scheduler, long seed, boolean seedScheduler) {
+        this.config = c;
+        this.scheduler = scheduler;
+        this.seed = seed;
+        if (seedScheduler) {
+            scheduler.setSeed(new SplittableRandom(seed).nextLong());
+        }
+        this.store = new RobotStateStore(robots);
+        this.quiescence = new QuiescenceDetector(robots);
+        this.coordinates = new double[2 * store.size];
+        this.snapshot = new Vector[store.size];
+        for (int i = 0; i < store.size; i++) {
+            snapshot[i] = new Vector(store.x[i], store.y[i]);
+        }
+        upcomingEvents = scheduler.getNextEvent(store, 0.0, c.interuptable);
+    }
+
+    /**
+     * The seed from which all random choices of this simulation are derived, to reproduce it.
+     * If the simulation was created without a seed, this is a random seed that does not determine the choices of the scheduler.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * The timestamp of the last event that was applied.
+     */
+    public double getCurrentTime() {
+        return currentTime;
+    }
+
+    /**
+     * The underlying state of the robots after the last event.
+     */
+    public RobotStateStore getStore() {
+        return store;
+    }
+
+    /**
+     * Whether the simulation was stopped because the robots converged, see {@link Simulation#hasConverged()}.
+     */
+    public boolean hasConverged() {
+        return quiescence.isQuiescent();
+    }
+
+    /**
+     * Find out how much time of the simulation has been computed so far.
+     * <p>
+     * This may be infinite if nothing needs to be computed anymore according to the current scheduler,
+     * or because the robots have converged, see {@link #hasConverged()}.
+     */
+    public double computedTimelineUntil() {
+        return upcomingEvents != null ? currentTime : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Provide the highest-known lower bound on the termination time of the simulation.
+     * Termination, here, is defined as no more events occurring and no more robots moving.
+     */
+    public double highestKnownLastEventTimeLowerBound() {
+        if (upcomingEvents != null) {
+            return upcomingEvents.get(0).getT();
+        }
+        double lastStop = currentTime;
+        for (int i = 0; i < store.size; i++) {
+            if (store.state[i] == RobotStateStore.MOVING) {
+                lastStop = Math.max(lastStop, store.paths[i].getEndTime(store.since[i], store.speed[i]));
+            }
+        }
+        return lastStop;
+    }
+
+    /**
+     * Apply events until the computed timeline covers at least the given time t.
+     *
+     * @return the number of events that were applied
+     */
+    public int simulateTillTimestamp(double t) {
+        int count = 0;
+        while (computedTimelineUntil() < t && simulateTillNextEvent()) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Apply the next upcoming events to the robots.
+     *
+     * @return Whether new events were actually applied (as opposed to no new events being available)
+     */
+    public boolean simulateTillNextEvent() {
+        if (upcomingEvents == null) {
+            return false;
+        }
+
+        double eventsTime = upcomingEvents.get(0).getT();
+
+        fillPositionsAt(eventsTime, store.x, store.y);
+        for (int i = 0; i < store.size; i++) {
+            coordinates[2 * i] = store.x[i];
+            coordinates[2 * i + 1] = store.y[i];
+            snapshot[i].x = store.x[i];
+            snapshot[i].y = store.y[i];
+        }
+        visibilityGrid = null;
+
+        for (Event event : upcomingEvents) {
+            applyEvent(event, store.indexOf(event.getTargetId()));
+        }
+
+        currentTime = eventsTime;
+        lastEvents = upcomingEvents;
+
+        if (quiescence.isQuiescent()) {
+            upcomingEvents = null;
+        } else {
+            upcomingEvents = scheduler.getNextEvent(store, eventsTime, config.interuptable);
+            assert upcomingEvents == null || upcomingEvents.get(0).getT() > eventsTime;
+        }
+
+        return true;
+    }
+
+    /**
+     * Let the robot at the given index compute its path from the positions it can see, in global coordinates.
+     * With infinite visibility, the positions are converted to its local coordinate system in one pass over
+     * the coordinates, see {@link Robot#calculate(double[], java.util.function.Supplier)}.
+     */
+    private RobotPath calculate(int i) {
+        Vector origin = new Vector(store.x[i], store.y[i]);
+        if (config.hasInfiniteVisibility()) {
+            return Robot.calculate(store.algorithms[i], store.transformations[i], origin, coordinates, store.size, null);
+        }
+        if (visibilityGrid == null) {
+            visibilityGrid = new UniformGrid(snapshot, config.visibility > 0 ? config.visibility : 1.0);
+        }
+        return Robot.calculate(store.algorithms[i], store.transformations[i], origin, visibilityGrid.within(origin, config.visibility));
+    }
+
+    private void applyEvent(Event event, int i) {
+        switch (event.getType()) {
+            case START_COMPUTE:
+                assert store.state[i] == RobotStateStore.SLEEPING;
+                RobotPath path = calculate(i);
+                assert path != null;
+                quiescence.computed(store.ids[i], path);
+                store.paths[i] = path;
+                store.state[i] = RobotStateStore.COMPUTING;
+                break;
+            case START_MOVING:
+                assert store.state[i] == RobotStateStore.COMPUTING;
+                assert store.paths[i] != null;
+                store.state[i] = RobotStateStore.MOVING;
+                break;
+            case END_MOVING:
+                assert store.state[i] == RobotStateStore.MOVING;
+                quiescence.stoppedMoving(store.paths[i]);
+                store.paths[i] = null;
+                store.state[i] = RobotStateStore.SLEEPING;
+                break;
+            default:
+                throw new IllegalStateException("Switch is supposed to be exhaustive.");
+        }
+        store.since[i] = event.getT();
+    }
+
+    /**
+     * Write the positions of all robots at a time at or after the last event into the given arrays,
+     * assuming no further events happen. The arrays are indexed in the same way as the {@link RobotStateStore}.
+     *
+     * @param timestamp the time to compute the positions at
+     * @param xs the array to write the x coordinates to
+     * @param ys the array to write the y coordinates to
+     */
+    public void fillPositionsAt(double timestamp, double[] xs, double[] ys) {
+        for (int i = 0; i < store.size; i++) {
+            if (store.state[i] == RobotStateStore.MOVING) {
+                RobotPath path = store.paths[i];
+                double movementEndTime = path.getEndTime(store.since[i], store.speed[i]);
+                if (timestamp > movementEndTime) {
+                    xs[i] = path.getEnd().x;
+                    ys[i] = path.getEnd().y;
+                } else {
+                    path.interpolateInto(store.since[i], movementEndTime, timestamp, xy, 0);
+                    xs[i] = xy[0];
+                    ys[i] = xy[1];
+                }
+            } else {
+                xs[i] = store.x[i];
+                ys[i] = store.y[i];
+            }
+        }
+    }
+
+    /**
+     * Create immutable {@link Robot} instances with the state after the last event.
+     */
+    public List<Robot> getRobots() {
+        return List.copyOf(store.views());
+    }
+
+    /**
+     * Create a {@link CalculatedEvent} describing the last event, as {@link Simulation} would have stored it.
+     */
+    public CalculatedEvent toCalculatedEvent() {
+        return new CalculatedEvent(currentTime, lastEvents, getRobots());
+    }
+}
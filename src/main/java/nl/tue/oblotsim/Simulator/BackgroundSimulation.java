@@ -0,0 +1,248 @@
+package nl.tue.oblotsim.Simulator;
+
+import nl.tue.oblotsim.Schedulers.CalculatedEvent;
+import nl.tue.oblotsim.Util.SpscRingBuffer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+
+/**
+ * Computes a {@link Simulation} on a background thread, ahead of the time that is being looked at,
+ * so that a slow algorithm or a large swarm does not block the thread that shows the simulation, such as the GUI thread.
+ * <p>
+ * The background thread extends the simulation until it is {@link #getLookAhead()} ahead of the last time passed to
+ * {@link #simulateTillTimestamp(double)}, and hands every computed event to the viewing thread through a
+ * {@link SpscRingBuffer}. The methods of {@link SimulationView} never wait for the simulation: they only reveal the
+ * events that have been computed so far, and {@link #highestKnownLastEventTimeLowerBound()} tells up to which time the
+ * robots are known.
+ * <p>
+ * Once started, the simulation belongs to the background thread and should not be used directly anymore.
+ * The methods of this class should all be called from the same viewing thread, except for {@link #setLookAhead(double)}.
+ * When a {@link RetentionPolicy} is used, it should keep more history than the look-ahead,
+ * otherwise the events being looked at may be evicted.
+ */
+public class BackgroundSimulation implements SimulationView, AutoCloseable {
+
+    public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+    /**
+     * How long the background thread sleeps when it is far enough ahead or the queue is full, unless it is woken up.
+     */
+    private static final long PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    /**
+     * An event as handed over to the viewing thread, with the state of the simulation right after computing it.
+     */
+    private static class Computed {
+        final CalculatedEvent event;
+        final double knownUntil;
+        final double historyStart;
+
+        Computed(CalculatedEvent event, double knownUntil, double historyStart) {
+            this.event = event;
+            this.knownUntil = knownUntil;
+            this.historyStart = historyStart;
+        }
+    }
+
+    private final Simulation simulation;
+    private final SpscRingBuffer<Computed> queue;
+    private final Thread producer;
+
+    private volatile double playhead;
+    private volatile double lookAhead;
+    private volatile boolean closed = false;
+    private volatile RuntimeException failure = null;
+
+    /**
+     * The events revealed to the viewing thread. Only used by the viewing thread.
+     */
+    private final NavigableMap<Double, CalculatedEvent> revealed = new TreeMap<>();
+    private double knownUntil;
+    private double historyStart;
+
+    /**
+     * Prepare to compute the given simulation in the background. Call {@link #start()} to start computing.
+     * @param simulation the simulation to compute, which should not be used by anything else anymore
+     * @param lookAhead how much simulated time to compute ahead of the time being looked at
+     * @param queueCapacity the maximum number of computed events waiting to be revealed
+     */
+    public BackgroundSimulation(Simulation simulation, double lookAhead, int queueCapacity) {
+        if (!(lookAhead >= 0)) {
+            throw new IllegalArgumentException("lookAhead should be at least 0");
+        }
+        this.simulation = simulation;
+        this.lookAhead = lookAhead;
+        this.queue = new SpscRingBuffer<>(queueCapacity);
+        for (CalculatedEvent event : simulation.getComputedEvents()) {
+            revealed.put(event.getTimestamp(), event);
+        }
+        this.knownUntil = simulation.highestKnownLastEventTimeLowerBound();
+        this.historyStart = simulation.getHistoryStart();
+        this.playhead = historyStart;
+        this.producer = new Thread(this::produce, "simulation-producer");
+        this.producer.setDaemon(true);
+    }
+
+    public BackgroundSimulation(Simulation simulation, double lookAhead) {
+        this(simulation, lookAhead, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * Start computing in the background.
+     */
+    public void start() {
+        producer.start();
+    }
+
+    /**
+     * Stop computing in the background and wait for the background thread to finish.
+     * The events computed so far can still be looked at.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(producer);
+        if (producer.isAlive() && Thread.currentThread() != producer) {
+            try {
+                producer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * The simulation computed in the background, which can be used again once this is {@link #close() closed},
+     * for instance to {@link Simulation#forkAt fork} it.
+     *
+     * @throws IllegalStateException if this is still computing in the background
+     */
+    public Simulation getSimulation() {
+        if (producer.isAlive()) {
+            throw new IllegalStateException("The simulation is still being computed in the background");
+        }
+        return simulation;
+    }
+
+    /**
+     * How much simulated time is computed ahead of the time being looked at.
+     */
+    public double getLookAhead() {
+        return lookAhead;
+    }
+
+    /**
+     * Change how much simulated time is computed ahead of the time being looked at,
+     * for instance to match the playback speed. Can be called from any thread.
+     */
+    public void setLookAhead(double lookAhead) {
+        if (!(lookAhead >= 0)) {
+            throw new IllegalArgumentException("lookAhead should be at least 0");
+        }
+        this.lookAhead = lookAhead;
+        LockSupport.unpark(producer);
+    }
+
+    private void produce() {
+        try {
+            while (!closed) {
+                if (simulation.computedTimelineUntil() >= playhead + lookAhead) {
+                    LockSupport.parkNanos(this, PARK_NANOS);
+                    continue;
+                }
+                Optional<CalculatedEvent> event = simulation.simulateTillNextEvent();
+                if (event.isEmpty()) {
+                    continue;
+                }
+                Computed computed = new Computed(event.get(), simulation.highestKnownLastEventTimeLowerBound(), simulation.getHistoryStart());
+                while (!queue.offer(computed)) {
+                    if (closed) {
+                        return;
+                    }
+                    LockSupport.parkNanos(this, PARK_NANOS);
+                }
+            }
+        } catch (RuntimeException e) {
+            // Reported on the viewing thread, since nobody is looking at this one.
+            failure = e;
+        }
+    }
+
+    /**
+     * Reveal the events that have been computed in the background so far, and let the background thread compute
+     * ahead of the given time. Unlike {@link Simulation#simulateTillTimestamp(double)}, this does not wait until
+     * the events up to the given time are computed.
+     *
+     * @return the events that were revealed by this call
+     * @throws IllegalStateException if computing the simulation failed
+     */
+    @Override
+    public List<CalculatedEvent> simulateTillTimestamp(double t) {
+        if (t > playhead) {
+            playhead = t;
+            LockSupport.unpark(producer);
+        }
+        if (failure != null) {
+            throw new IllegalStateException("Computing the simulation failed", failure);
+        }
+
+        List<CalculatedEvent> events = new ArrayList<>();
+        queue.drain(computed -> {
+            revealed.put(computed.event.getTimestamp(), computed.event);
+            events.add(computed.event);
+            knownUntil = computed.knownUntil;
+            historyStart = computed.historyStart;
+        });
+        if (!events.isEmpty()) {
+            // The queue was emptied, so there may be room to compute more.
+            LockSupport.unpark(producer);
+        }
+        revealed.headMap(historyStart, false).clear();
+        return events;
+    }
+
+    /**
+     * The robots at the given time, as far as they are known: the events after
+     * {@link #highestKnownLastEventTimeLowerBound()} may not have been revealed yet.
+     */
+    @Override
+    public List<Robot> robotsAtTime(double timestamp) {
+        simulateTillTimestamp(timestamp);
+        if (timestamp < historyStart) {
+            throw new IllegalArgumentException("The history before t = " + historyStart + " is not available, requested t = " + timestamp);
+        }
+        Map<Integer, Robot> snapshot = revealed.floorEntry(timestamp).getValue().getSnapshot();
+        return snapshot.values().stream()
+                .map(robot -> robot.movedTo(robot.positionAtTimeWithoutStateChange(timestamp)))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * The time up to which the robots are known, which is the time of the next event the simulation has not revealed yet,
+     * or the time the simulation ends if all events have been revealed.
+     */
+    @Override
+    public double highestKnownLastEventTimeLowerBound() {
+        return knownUntil;
+    }
+
+    @Override
+    public double getHistoryStart() {
+        return historyStart;
+    }
+
+    @Override
+    public Collection<CalculatedEvent> getComputedEvents() {
+        return Collections.unmodifiableCollection(revealed.values());
+    }
+}
@@ -0,0 +1,143 @@
+package nl.tue.oblotsim.Simulator;
+
+import nl.tue.oblotsim.Util.Circle;
+import nl.tue.oblotsim.Util.SmallestEnclosingCircle;
+import nl.tue.oblotsim.Util.Vector;
+
+import java.io.Serializable;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Maintains the smallest enclosing circle of all robots in the global coordinate system across consecutive events.
+ *
+ * The circle is determined by its support points: the robots on its boundary. As long as none of them moved and
+ * no robot left the circle, the circle is still the smallest enclosing circle, so it does not need to be recomputed.
+ * Whenever a support point moves, even inwards, or is removed, or any robot lies outside the circle, the circle is
+ * recomputed from scratch. Every update checks all robots for containment, so it still takes O(n) time; what is saved
+ * is the recomputation. Under an asynchronous scheduler only few robots move between events, so the support points
+ * usually stay where they are.
+ */
+public class EnclosingCircleService implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Relative tolerance within which a robot is considered to lie on the boundary of the circle.
+     */
+    private static final double SUPPORT_TOLERANCE = 1e-9;
+
+    private Circle circle = null;
+    private int[] supportIds = new int[0];
+    private Vector[] supportPositions = new Vector[0];
+
+    private long reuses = 0;
+    private long recomputations = 0;
+
+    /**
+     * Shuffles the points when the circle is recomputed.
+     */
+    private final Random random;
+
+    /**
+     * Create a service that recomputes the circle using the given random number generator,
+     * so the last bits of the circle are reproducible.
+     * @param random the generator to shuffle the points with, which should not be shared with other threads
+     */
+    public EnclosingCircleService(Random random) {
+        this.random = random;
+    }
+
+    /**
+     * Bring the circle up to date with the given robots, recomputing it only if needed.
+     * @param robots the robots by id, at their current positions
+     * @return the smallest enclosing circle of the robots, null if there are none
+     */
+    public Circle update(Map<Integer, Robot> robots) {
+        if (circle != null && supportUnchanged(robots) && containsAll(robots)) {
+            reuses++;
+            return circle;
+        }
+        recompute(robots);
+        recomputations++;
+        return circle;
+    }
+
+    /**
+     * The circle as of the last update, null if there was no update yet.
+     */
+    public Circle getCircle() {
+        return circle;
+    }
+
+    /**
+     * The number of updates for which the previous circle could be kept.
+     */
+    public long getReuses() {
+        return reuses;
+    }
+
+    /**
+     * The number of updates for which the circle had to be computed from scratch.
+     */
+    public long getRecomputations() {
+        return recomputations;
+    }
+
+    private boolean supportUnchanged(Map<Integer, Robot> robots) {
+        for (int i = 0; i < supportIds.length; i++) {
+            Robot robot = robots.get(supportIds[i]);
+            // Compare exactly: even a tiny move inwards may shrink the circle.
+            if (robot == null || robot.getPos().x != supportPositions[i].x || robot.getPos().y != supportPositions[i].y) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean containsAll(Map<Integer, Robot> robots) {
+        for (Robot robot : robots.values()) {
+            if (!circle.contains(robot.getPos())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void recompute(Map<Integer, Robot> robots) {
+        int n = robots.size();
+        int[] ids = new int[n];
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        int i = 0;
+        for (Robot robot : robots.values()) {
+            ids[i] = robot.getId();
+            xs[i] = robot.getPos().x;
+            ys[i] = robot.getPos().y;
+            i++;
+        }
+
+        circle = SmallestEnclosingCircle.makeCircle(xs, ys, n, random);
+        if (circle == null) {
+            supportIds = new int[0];
+            supportPositions = new Vector[0];
+            return;
+        }
+
+        // Every robot on the boundary counts as a support point, which may be more than the 2 or 3 that determine it.
+        int supportCount = 0;
+        int[] onBoundary = new int[n];
+        for (i = 0; i < n; i++) {
+            double dist = Math.hypot(xs[i] - circle.c.x, ys[i] - circle.c.y);
+            if (Math.abs(dist - circle.r) <= SUPPORT_TOLERANCE * Math.max(1, circle.r)) {
+                onBoundary[supportCount++] = i;
+            }
+        }
+        supportIds = new int[supportCount];
+        supportPositions = new Vector[supportCount];
+        for (i = 0; i < supportCount; i++) {
+            supportIds[i] = ids[onBoundary[i]];
+            supportPositions[i] = new Vector(xs[onBoundary[i]], ys[onBoundary[i]]);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package nl.tue.oblotsim.Simulator;
+
+import nl.tue.oblotsim.RobotPaths.RobotPath;
+import nl.tue.oblotsim.Util.Config;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Detects that a simulation has converged: every robot has computed a path of zero length since the configuration
+ * last changed, and no robot is still moving along a path of non-zero length.
+ * <p>
+ * From then on, every robot sees the same configuration as in its last computation whenever it activates,
+ * so, as long as the algorithms are deterministic, no robot will ever move again and the simulation can stop.
+ * With non-deterministic algorithms, a converged run may still be stopped too early.
+ */
+public class QuiescenceDetector implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int robotCount;
+
+    /**
+     * The robots that computed a path of zero length while the configuration did not change anymore.
+     */
+    private final Set<Integer> idle = new HashSet<>();
+
+    /**
+     * The number of robots that are computing or moving with a path of non-zero length.
+     * The configuration may still change while this is not 0.
+     */
+    private int pendingMoves = 0;
+
+    /**
+     * Start detecting quiescence from the given robots, which may already be computing or moving.
+     * @param robots all robots in the simulation
+     */
+    public QuiescenceDetector(Collection<Robot> robots) {
+        this.robotCount = robots.size();
+        for (Robot robot : robots) {
+            if (robot.getState() != State.SLEEPING && isMove(robot.getPath())) {
+                pendingMoves++;
+            }
+        }
+    }
+
+    /**
+     * Report that a robot started computing and the path it computed.
+     * @param id the id of the robot
+     * @param path the computed path, in global coordinates
+     */
+    public void computed(int id, RobotPath path) {
+        if (isMove(path)) {
+            // The configuration is going to change, so every robot has to look again.
+            idle.clear();
+            pendingMoves++;
+        } else if (pendingMoves == 0) {
+            idle.add(id);
+        }
+    }
+
+    /**
+     * Report that a robot stopped moving.
+     * @param path the path the robot was moving along
+     */
+    public void stoppedMoving(RobotPath path) {
+        if (isMove(path)) {
+            pendingMoves--;
+        }
+    }
+
+    /**
+     * Whether the configuration has not changed during a full activation cycle in which every robot decided not to move.
+     */
+    public boolean isQuiescent() {
+        return pendingMoves == 0 && idle.size() == robotCount;
+    }
+
+    private static boolean isMove(RobotPath path) {
+        return path != null && path.getLength() > Config.EPSILON;
+    }
+}
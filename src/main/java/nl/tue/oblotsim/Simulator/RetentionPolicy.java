@@ -0,0 +1,97 @@
+package nl.tue.oblotsim.Simulator;
+
+/**
+ * Decides how much of the history of a {@link Simulation} is kept, so that a simulation that runs for a long time,
+ * such as a live display, does not run out of memory.
+ * <p>
+ * The oldest events are evicted from the timeline as long as any of the limits is exceeded, but the last event is always kept.
+ * The limits can be combined with the {@code with...} methods, for example
+ * {@code RetentionPolicy.lastEvents(100000).withHeapBudget(256L << 20)}.
+ */
+public class RetentionPolicy {
+
+    private static final RetentionPolicy UNBOUNDED = new RetentionPolicy(Integer.MAX_VALUE, Double.POSITIVE_INFINITY, Long.MAX_VALUE);
+
+    private final int maxEvents;
+    private final double maxDuration;
+    private final long maxBytes;
+
+    private RetentionPolicy(int maxEvents, double maxDuration, long maxBytes) {
+        if (maxEvents < 1) {
+            throw new IllegalArgumentException("At least one event has to be kept");
+        }
+        if (!(maxDuration >= 0)) {
+            throw new IllegalArgumentException("The duration to keep should be at least 0");
+        }
+        if (maxBytes < 0) {
+            throw new IllegalArgumentException("The heap budget should be at least 0");
+        }
+        this.maxEvents = maxEvents;
+        this.maxDuration = maxDuration;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Keep the whole history, which is the default.
+     */
+    public static RetentionPolicy unbounded() {
+        return UNBOUNDED;
+    }
+
+    /**
+     * Keep only the given number of most recent events.
+     */
+    public static RetentionPolicy lastEvents(int maxEvents) {
+        return UNBOUNDED.withMaxEvents(maxEvents);
+    }
+
+    /**
+     * Keep only the events needed to look up the robots within the given amount of simulated time before the last event.
+     */
+    public static RetentionPolicy lastDuration(double maxDuration) {
+        return UNBOUNDED.withMaxDuration(maxDuration);
+    }
+
+    /**
+     * Keep only as many of the most recent events as fit in about the given number of bytes of heap.
+     * The memory use of the history is estimated, so this is not exact.
+     */
+    public static RetentionPolicy heapBudget(long maxBytes) {
+        return UNBOUNDED.withHeapBudget(maxBytes);
+    }
+
+    public RetentionPolicy withMaxEvents(int maxEvents) {
+        return new RetentionPolicy(maxEvents, maxDuration, maxBytes);
+    }
+
+    public RetentionPolicy withMaxDuration(double maxDuration) {
+        return new RetentionPolicy(maxEvents, maxDuration, maxBytes);
+    }
+
+    public RetentionPolicy withHeapBudget(long maxBytes) {
+        return new RetentionPolicy(maxEvents, maxDuration, maxBytes);
+    }
+
+    public int getMaxEvents() {
+        return maxEvents;
+    }
+
+    public double getMaxDuration() {
+        return maxDuration;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * Whether the oldest event should be evicted from a history with the given properties.
+     * @param events the number of events in the history
+     * @param covered the simulated time that the history would still cover without its oldest event,
+     *                that is, the time between the second-oldest and the last event
+     * @param bytes the estimated memory use of the history
+     */
+    boolean exceeded(int events, double covered, long bytes) {
+        return events > maxEvents || covered >= maxDuration || bytes > maxBytes;
+    }
+}
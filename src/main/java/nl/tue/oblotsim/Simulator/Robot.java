@@ -1,14 +1,21 @@
 package nl.tue.oblotsim.Simulator;
 
 import nl.tue.oblotsim.algorithms.Algorithm;
+import nl.tue.oblotsim.algorithms.AlgorithmResultCache;
+import nl.tue.oblotsim.algorithms.LocalSnapshot;
+import nl.tue.oblotsim.algorithms.PrimitiveSnapshot;
+import nl.tue.oblotsim.algorithms.TransformedSnapshot;
 import nl.tue.oblotsim.positiontransformations.PositionTransformation;
+import nl.tue.oblotsim.RobotPaths.PathDescription;
 import nl.tue.oblotsim.RobotPaths.RobotPath;
+import nl.tue.oblotsim.Util.Circle;
 import nl.tue.oblotsim.Util.Vector;
 
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.PrintWriter;
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.OptionalDouble;
@@ -20,7 +27,15 @@ import java.util.function.Supplier;
  *
  * Immutable: it is safe to store references to this.
  */
-public class Robot {
+public class Robot implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Reused by algorithms that compute from primitive snapshots, one per thread since robots compute in parallel.
+     */
+    private static final ThreadLocal<PrimitiveSnapshot> PRIMITIVE_SNAPSHOT = ThreadLocal.withInitial(PrimitiveSnapshot::new);
+    private static final ThreadLocal<PathDescription> PATH_DESCRIPTION = ThreadLocal.withInitial(PathDescription::new);
 
     private int id;
     private Vector pos;
@@ -83,12 +98,143 @@ public class Robot {
      * @return A list of positions the robot wants to go to.
      */
     public RobotPath calculate(Vector[] snapshot) {
-        Vector[] localSnapshot = getTrans().globalToLocal(snapshot, getPos());
-        RobotPath calculatedPath = getAlgo().doAlgorithm(localSnapshot);
-        calculatedPath.convertFromLocalToGlobal(this.getTrans(), this.getPos());
+        return calculateFrom(new TransformedSnapshot(snapshot, getTrans(), getPos(), null), null);
+    }
+
+    /**
+     * Calculate where the robot wants to go, using an already known smallest enclosing circle of the snapshot.
+     * @param snapshot a snapshot of the positions of the robots at a certain timestamp in the global coordinate system
+     * @param smallestEnclosingCircle supplies the smallest enclosing circle of the snapshot in the global coordinate system
+     * @return A list of positions the robot wants to go to.
+     */
+    public RobotPath calculate(Vector[] snapshot, Supplier<Circle> smallestEnclosingCircle) {
+        return calculateFrom(new TransformedSnapshot(snapshot, getTrans(), getPos(), toLocal(smallestEnclosingCircle)), null);
+    }
+
+    /**
+     * Calculate where the robot wants to go, reusing the result for the same local snapshot from the cache
+     * if the algorithm is {@link Algorithm#isDeterministic() deterministic}.
+     * @param snapshot a snapshot of the positions of the robots at a certain timestamp in the global coordinate system
+     * @param cache the cache to look up and remember the result in
+     * @return A list of positions the robot wants to go to.
+     */
+    public RobotPath calculate(Vector[] snapshot, AlgorithmResultCache cache) {
+        return calculateFrom(new TransformedSnapshot(snapshot, getTrans(), getPos(), null), cache);
+    }
+
+    /**
+     * Calculate where the robot wants to go, using an already known smallest enclosing circle of the snapshot and
+     * reusing the result for the same local snapshot from the cache if the algorithm is
+     * {@link Algorithm#isDeterministic() deterministic}.
+     * @param snapshot a snapshot of the positions of the robots at a certain timestamp in the global coordinate system
+     * @param smallestEnclosingCircle supplies the smallest enclosing circle of the snapshot in the global coordinate system
+     * @param cache the cache to look up and remember the result in
+     * @return A list of positions the robot wants to go to.
+     */
+    public RobotPath calculate(Vector[] snapshot, Supplier<Circle> smallestEnclosingCircle, AlgorithmResultCache cache) {
+        return calculateFrom(new TransformedSnapshot(snapshot, getTrans(), getPos(), toLocal(smallestEnclosingCircle)), cache);
+    }
+
+    /**
+     * Calculate where the robot wants to go, like {@link #calculate(Vector[], Supplier)}, from the positions of the
+     * robots as interleaved coordinates: the x and y of robot i are at 2i and 2i + 1. When the algorithm needs all of
+     * them, the arithmetic of converting them to the local coordinate system is done in one pass over the array.
+     * Algorithms that read a {@link nl.tue.oblotsim.algorithms.PrimitiveSnapshot} get the converted array as is;
+     * other algorithms still get a vector for every robot.
+     * @param snapshot the interleaved positions of the robots in the global coordinate system, which are not changed
+     * @param smallestEnclosingCircle supplies the smallest enclosing circle of the snapshot in the global coordinate system
+     * @return A list of positions the robot wants to go to.
+     */
+    public RobotPath calculate(double[] snapshot, Supplier<Circle> smallestEnclosingCircle) {
+        if (getAlgo().usesPrimitiveSnapshot()) {
+            return calculatePrimitive(getAlgo(), getTrans(), getPos(), snapshot, snapshot.length / 2, smallestEnclosingCircle, null);
+        }
+        return calculateFrom(new TransformedSnapshot(snapshot, getTrans(), getPos(), toLocal(smallestEnclosingCircle)), null);
+    }
+
+    /**
+     * Calculate where the robot wants to go from the interleaved positions of the robots, like
+     * {@link #calculate(double[], Supplier)}, reusing the result for the same local snapshot from the cache
+     * if the algorithm is {@link Algorithm#isDeterministic() deterministic}.
+     * @param snapshot the interleaved positions of the robots in the global coordinate system, which are not changed
+     * @param smallestEnclosingCircle supplies the smallest enclosing circle of the snapshot in the global coordinate system
+     * @param cache the cache to look up and remember the result in
+     * @return A list of positions the robot wants to go to.
+     */
+    public RobotPath calculate(double[] snapshot, Supplier<Circle> smallestEnclosingCircle, AlgorithmResultCache cache) {
+        if (getAlgo().usesPrimitiveSnapshot()) {
+            return calculatePrimitive(getAlgo(), getTrans(), getPos(), snapshot, snapshot.length / 2, smallestEnclosingCircle, cache);
+        }
+        return calculateFrom(new TransformedSnapshot(snapshot, getTrans(), getPos(), toLocal(smallestEnclosingCircle)), cache);
+    }
+
+    /**
+     * Let the algorithm compute a path from the view of this robot and convert it to global coordinates.
+     * The positions in the view are only converted to local coordinates as far as the algorithm or the cache needs them.
+     */
+    private RobotPath calculateFrom(LocalSnapshot localSnapshot, AlgorithmResultCache cache) {
+        return calculateFrom(getAlgo(), getTrans(), getPos(), localSnapshot, cache);
+    }
+
+    /**
+     * Calculate where a robot with the given algorithm, transformation and position wants to go from the interleaved
+     * positions of the robots, like {@link #calculate(double[], Supplier)}, for robots that are not stored as instances
+     * of this class, see {@link ArraySimulation}.
+     * @param n the number of robots in the snapshot
+     */
+    static RobotPath calculate(Algorithm algo, PositionTransformation trans, Vector pos, double[] snapshot, int n, Supplier<Circle> smallestEnclosingCircle) {
+        if (algo.usesPrimitiveSnapshot()) {
+            return calculatePrimitive(algo, trans, pos, snapshot, n, smallestEnclosingCircle, null);
+        }
+        return calculateFrom(algo, trans, pos, new TransformedSnapshot(snapshot, trans, pos, toLocal(trans, pos, smallestEnclosingCircle)), null);
+    }
+
+    /**
+     * Calculate where a robot with the given algorithm, transformation and position wants to go, like
+     * {@link #calculate(Vector[])}, for robots that are not stored as instances of this class.
+     */
+    static RobotPath calculate(Algorithm algo, PositionTransformation trans, Vector pos, Vector[] snapshot) {
+        return calculateFrom(algo, trans, pos, new TransformedSnapshot(snapshot, trans, pos, null), null);
+    }
+
+    private static RobotPath calculateFrom(Algorithm algo, PositionTransformation trans, Vector pos, LocalSnapshot localSnapshot, AlgorithmResultCache cache) {
+        RobotPath calculatedPath = cache == null
+                ? algo.doAlgorithm(localSnapshot)
+                : cache.calculate(algo, localSnapshot, () -> algo.doAlgorithm(localSnapshot));
+        calculatedPath.convertFromLocalToGlobal(trans, pos);
+        return calculatedPath;
+    }
+
+    /**
+     * Let an algorithm that {@link Algorithm#usesPrimitiveSnapshot() uses primitive snapshots} compute a path from the
+     * view of a robot, in the snapshot and path description of this thread, so that nothing is allocated until the
+     * described path is created.
+     */
+    private static RobotPath calculatePrimitive(Algorithm algo, PositionTransformation trans, Vector pos, double[] snapshot, int n, Supplier<Circle> smallestEnclosingCircle, AlgorithmResultCache cache) {
+        PrimitiveSnapshot localSnapshot = PRIMITIVE_SNAPSHOT.get().load(snapshot, n, trans, pos, smallestEnclosingCircle);
+        PathDescription description = PATH_DESCRIPTION.get();
+        RobotPath calculatedPath;
+        if (cache == null) {
+            algo.doAlgorithm(localSnapshot, description.clear());
+            calculatedPath = description.toPath();
+        } else {
+            calculatedPath = cache.calculate(algo, localSnapshot, () -> {
+                algo.doAlgorithm(localSnapshot, description.clear());
+                return description.toPath();
+            });
+        }
+        calculatedPath.convertFromLocalToGlobal(trans, pos);
         return calculatedPath;
     }
 
+    private Supplier<Circle> toLocal(Supplier<Circle> smallestEnclosingCircle) {
+        return toLocal(getTrans(), getPos(), smallestEnclosingCircle);
+    }
+
+    private static Supplier<Circle> toLocal(PositionTransformation trans, Vector pos, Supplier<Circle> smallestEnclosingCircle) {
+        return smallestEnclosingCircle == null ? null : () -> trans.globalToLocal(smallestEnclosingCircle.get(), pos);
+    }
+
     @Override
     public String toString() {
         return "Robot: " + getId() + " state: "+ getState();
@@ -203,6 +349,25 @@ public class Robot {
         }
     }
 
+    /**
+     * Write the position this robot has at the given time if nothing happens in the meantime into
+     * {@code xy[offset]} and {@code xy[offset + 1]}, like {@link #positionAtTimeWithoutStateChange(double)}
+     * but without creating a vector for most paths.
+     */
+    public void fillPositionAt(double timestamp, double[] xy, int offset) {
+        Vector position = this.pos;
+        if (state == State.MOVING) {
+            double movementEndTime = path.getEndTime(inCurrentStateSince, speed);
+            if (timestamp <= movementEndTime) {
+                path.interpolateInto(inCurrentStateSince, movementEndTime, timestamp, xy, offset);
+                return;
+            }
+            position = path.getEnd();
+        }
+        xy[offset] = position.x;
+        xy[offset + 1] = position.y;
+    }
+
     public Robot extrapolatedToTime(double timestamp) {
         return new Robot(id, algo, positionAtTimeWithoutStateChange(timestamp), trans, path, state, speed, inCurrentStateSince);
     }
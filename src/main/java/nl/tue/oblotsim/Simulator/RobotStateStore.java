@@ -0,0 +1,187 @@
+package nl.tue.oblotsim.Simulator;
+
+import nl.tue.oblotsim.RobotPaths.RobotPath;
+import nl.tue.oblotsim.Util.Vector;
+import nl.tue.oblotsim.algorithms.Algorithm;
+import nl.tue.oblotsim.positiontransformations.PositionTransformation;
+
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalDouble;
+
+/**
+ * Mutable structure-of-arrays storage for the state of a group of robots.
+ *
+ * Where {@link Robot} is immutable and a new instance is created for every change, this class stores every field
+ * in a primitive array indexed by the position of the robot in the store, and updates them in place.
+ * {@link Robot} instances are only created when asked for through {@link #view(int)}. Schedulers that read the
+ * store as {@link RobotStates} get the state and times from the arrays directly.
+ *
+ * Not thread-safe.
+ */
+public class RobotStateStore implements RobotStates {
+
+    /**
+     * Byte encoding of {@link State#SLEEPING}, {@link State#COMPUTING} and {@link State#MOVING} respectively.
+     */
+    public static final byte SLEEPING = 0, COMPUTING = 1, MOVING = 2;
+
+    private static final State[] STATES = {State.SLEEPING, State.COMPUTING, State.MOVING};
+
+    final int size;
+    final int[] ids;
+    final double[] x;
+    final double[] y;
+    final byte[] state;
+    final double[] since;
+    final double[] speed;
+
+    /**
+     * Path handle table: the slot of a robot holds its current path, or null if it has none.
+     * Invariant: non-null if state == MOVING.
+     */
+    final RobotPath[] paths;
+
+    final Algorithm[] algorithms;
+    final PositionTransformation[] transformations;
+
+    /**
+     * Maps robot ids to indices, null if the ids are exactly 0 .. size-1 in order.
+     */
+    private final Map<Integer, Integer> idToIndex;
+
+    /**
+     * Creates a store containing the given robots, in iteration order.
+     * @param robots the robots to copy the state of
+     */
+    public RobotStateStore(Collection<Robot> robots) {
+        size = robots.size();
+        ids = new int[size];
+        x = new double[size];
+        y = new double[size];
+        state = new byte[size];
+        since = new double[size];
+        speed = new double[size];
+        paths = new RobotPath[size];
+        algorithms = new Algorithm[size];
+        transformations = new PositionTransformation[size];
+
+        boolean dense = true;
+        int i = 0;
+        for (Robot robot : robots) {
+            ids[i] = robot.getId();
+            x[i] = robot.getPos().x;
+            y[i] = robot.getPos().y;
+            state[i] = encode(robot.getState());
+            since[i] = robot.getInCurrentStateSince();
+            speed[i] = robot.getSpeed();
+            paths[i] = robot.getPath();
+            algorithms[i] = robot.getAlgo();
+            transformations[i] = robot.getTrans();
+            dense &= robot.getId() == i;
+            i++;
+        }
+
+        if (dense) {
+            idToIndex = null;
+        } else {
+            idToIndex = new HashMap<>(size * 2);
+            for (int j = 0; j < size; j++) {
+                idToIndex.put(ids[j], j);
+            }
+        }
+    }
+
+    /**
+     * The number of robots in this store.
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Find the index at which the robot with the given id is stored.
+     * @param id the id of the robot
+     * @return the index of the robot
+     */
+    public int indexOf(int id) {
+        if (idToIndex == null) {
+            return id;
+        }
+        Integer index = idToIndex.get(id);
+        if (index == null) {
+            throw new IllegalArgumentException("No robot with id " + id);
+        }
+        return index;
+    }
+
+    @Override
+    public int getId(int index) {
+        return ids[index];
+    }
+
+    /**
+     * The state of the robot at the given index.
+     */
+    @Override
+    public State getState(int index) {
+        return STATES[state[index]];
+    }
+
+    @Override
+    public double getInCurrentStateSince(int index) {
+        return since[index];
+    }
+
+    @Override
+    public OptionalDouble willStopBefore(int index) {
+        return state[index] == MOVING ? OptionalDouble.of(paths[index].getEndTime(since[index], speed[index])) : OptionalDouble.empty();
+    }
+
+    /**
+     * Create an immutable {@link Robot} with the current state of the robot at the given index.
+     * @param index the index of the robot
+     * @return a new robot
+     */
+    public Robot view(int index) {
+        return new Robot(ids[index], algorithms[index], new Vector(x[index], y[index]), transformations[index],
+                paths[index], STATES[state[index]], speed[index], since[index]);
+    }
+
+    /**
+     * A list that creates {@link Robot} instances as they are accessed.
+     * The list reflects the state of the store at the moment an element is read,
+     * so it should not be kept around while the store changes.
+     */
+    @Override
+    public List<Robot> views() {
+        return new AbstractList<>() {
+            @Override
+            public Robot get(int index) {
+                return view(index);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    static byte encode(State s) {
+        switch (s) {
+            case SLEEPING:
+                return SLEEPING;
+            case COMPUTING:
+                return COMPUTING;
+            case MOVING:
+                return MOVING;
+            default:
+                throw new IllegalStateException("Switch is supposed to be exhaustive.");
+        }
+    }
+}
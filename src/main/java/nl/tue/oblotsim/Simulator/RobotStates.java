@@ -0,0 +1,78 @@
+package nl.tue.oblotsim.Simulator;
+
+import java.util.List;
+import java.util.OptionalDouble;
+
+/**
+ * Read access by index to the state of a group of robots, which is what schedulers need to decide on the next events.
+ * Unlike a list of {@link Robot}s, this can be backed directly by primitive arrays, see {@link RobotStateStore}.
+ */
+public interface RobotStates {
+
+    /**
+     * The number of robots.
+     */
+    int size();
+
+    /**
+     * The id of the robot at the given index.
+     */
+    int getId(int index);
+
+    /**
+     * The state of the robot at the given index.
+     */
+    State getState(int index);
+
+    /**
+     * The timestamp of the last change in state of the robot at the given index.
+     */
+    double getInCurrentStateSince(int index);
+
+    /**
+     * Timestamp after which the robot at the given index is sure to have stopped moving, like {@link Robot#willStopBefore()}.
+     */
+    OptionalDouble willStopBefore(int index);
+
+    /**
+     * The robots as {@link Robot} instances, in the same order, for code that needs all of their state.
+     */
+    List<Robot> views();
+
+    /**
+     * The state of the robots in a list, which is read from the list on every access.
+     */
+    static RobotStates of(List<Robot> robots) {
+        return new RobotStates() {
+            @Override
+            public int size() {
+                return robots.size();
+            }
+
+            @Override
+            public int getId(int index) {
+                return robots.get(index).getId();
+            }
+
+            @Override
+            public State getState(int index) {
+                return robots.get(index).getState();
+            }
+
+            @Override
+            public double getInCurrentStateSince(int index) {
+                return robots.get(index).getInCurrentStateSince();
+            }
+
+            @Override
+            public OptionalDouble willStopBefore(int index) {
+                return robots.get(index).willStopBefore();
+            }
+
+            @Override
+            public List<Robot> views() {
+                return robots;
+            }
+        };
+    }
+}
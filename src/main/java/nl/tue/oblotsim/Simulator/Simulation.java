@@ -2,11 +2,25 @@ package nl.tue.oblotsim.Simulator;
 
 import nl.tue.oblotsim.RobotPaths.RobotPath;
 import nl.tue.oblotsim.Schedulers.*;
+import nl.tue.oblotsim.Util.Circle;
 import nl.tue.oblotsim.Util.Config;
+import nl.tue.oblotsim.Util.LruCache;
+import nl.tue.oblotsim.Util.UniformGrid;
 import nl.tue.oblotsim.Util.Vector;
+import nl.tue.oblotsim.algorithms.AlgorithmResultCache;
 
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * The main simulator. Works by extracting an event list of the schedule,
@@ -16,7 +30,7 @@ import java.util.stream.Collectors;
  * A simulation is effectively stateless, the only stateful component about it is that it is computed gradually,
  * which effectively corresponds to a lazily-loaded sequence of simulation data.
  */
-public class Simulation implements Iterable<CalculatedEvent> {
+public class Simulation implements Iterable<CalculatedEvent>, SimulationView {
     /**
      * The {@link Config} for this simulator. Can be changed on the fly.
      */
@@ -29,26 +43,284 @@ public class Simulation implements Iterable<CalculatedEvent> {
      */
     private NavigableMap<Double, CalculatedEvent> timeline = new TreeMap<>();
 
+    /**
+     * Stores the snapshots of the events in the timeline, which are only rebuilt when requested.
+     */
+    private final TimelineStore store;
+
+    /**
+     * Decides how many of the oldest events are evicted from the timeline.
+     */
+    private RetentionPolicy retention = RetentionPolicy.unbounded();
+
+    /**
+     * The index in the store of the frame of the first event in the timeline that is stored in this simulation's store.
+     */
+    private int firstFrame = 0;
+
+    /**
+     * The number of events at the start of the timeline that are shared with the simulation this one was forked from,
+     * whose snapshots are in the store of that simulation.
+     */
+    private int sharedPrefix = 0;
+
+    /**
+     * The simulation this one was forked from while the timeline still starts with events shared with it, or null.
+     */
+    private Simulation parent = null;
+
+    /**
+     * Rough estimate of the memory used by an event in the timeline besides its frame in the store.
+     */
+    private static final long TIMELINE_ENTRY_BYTES = 128;
+
+    public static final int FRAME_CACHE_SIZE = 16;
+
+    /**
+     * The robots at the most recently requested times, since the GUI requests the same times over and over
+     * while paused or scrubbing. The robots at a time never change once the timeline covers that time.
+     * Like the rest of the simulation, it is only used from one thread at a time, so it is not synchronized.
+     */
+    private final LruCache<Double, List<Robot>> frameCache = new LruCache<>(FRAME_CACHE_SIZE);
+
+    /**
+     * The robots of the event used by the last call to {@link #fillPositionsAt(double, double[])} in order of id,
+     * and the times between which that event is the last one.
+     */
+    private Robot[] positionsRobots;
+    private double positionsFrom = Double.NaN;
+    private double positionsUntil = Double.NaN;
+
+    /**
+     * The state of all robots as of the last event in the timeline.
+     */
+    private Map<Integer, Robot> currentRobots;
+
+    /**
+     * The events the scheduler chose next, or null if the simulation has terminated.
+     */
     private List<Event> upcomingEvents;
 
+    /**
+     * Stops the simulation once the robots have converged, see {@link QuiescenceDetector}.
+     */
+    private final QuiescenceDetector quiescence;
+
+    /**
+     * The executor on which robots that start computing at the same time compute in parallel.
+     * If null, they compute one after the other on the calling thread.
+     */
+    private Executor computeExecutor = null;
+
+    /**
+     * Where the paths of deterministic algorithms are remembered, or null to always compute them.
+     */
+    private AlgorithmResultCache resultCache = null;
+
+    /**
+     * Keeps track of the smallest enclosing circle of all robots, so robots don't each have to compute it.
+     */
+    private final EnclosingCircleService enclosingCircle;
+
+    /**
+     * Get notified of every event that is added to the timeline.
+     */
+    private final List<SimulationListener> listeners = new ArrayList<>();
+
     /**
      * The {@link Scheduler} that regulates which robots activate when.
      */
     public Scheduler scheduler;
 
+    /**
+     * The seed from which all random choices of this simulation are derived.
+     */
+    private final long seed;
+
+    /**
+     * Create a simulation with a random seed, which does not seed the scheduler, so it keeps its own random choices.
+     * @param c the configuration
+     * @param robots the robots at time 0
+     * @param scheduler the scheduler to use
+     */
     public Simulation(Config c, Collection<Robot> robots, Scheduler scheduler) {
+        this(c, robots, scheduler, new TimelineStore());
+    }
+
+    /**
+     * Create a simulation whose random choices are derived from the given seed,
+     * so running it again with the same seed, robots and scheduler type results in the same events.
+     * @param c the configuration
+     * @param robots the robots at time 0
+     * @param scheduler the scheduler to use, which is seeded by the simulation
+     * @param seed the seed
+     */
+    public Simulation(Config c, Collection<Robot> robots, Scheduler scheduler, long seed) {
+        this(c, robots, scheduler, new TimelineStore(), seed);
+    }
+
+    /**
+     * Create a simulation that stores its timeline in the given store.
+     * @param c the configuration
+     * @param robots the robots at time 0
+     * @param scheduler the scheduler to use
+     * @param store an empty store, which determines the memory/speed trade-off of looking up past snapshots
+     */
+    public Simulation(Config c, Collection<Robot> robots, Scheduler scheduler, TimelineStore store) {
+        this(c, robots, scheduler, store, new SplittableRandom().nextLong(), false);
+    }
+
+    /**
+     * Create a simulation that stores its timeline in the given store, with random choices derived from the given seed.
+     * @param c the configuration
+     * @param robots the robots at time 0
+     * @param scheduler the scheduler to use, which is seeded by the simulation
+     * @param store an empty store, which determines the memory/speed trade-off of looking up past snapshots
+     * @param seed the seed
+     */
+    public Simulation(Config c, Collection<Robot> robots, Scheduler scheduler, TimelineStore store, long seed) {
+        this(c, robots, scheduler, store, seed, true);
+    }
+
+    private Simulation(Config c, Collection<Robot> robots, Scheduler scheduler, TimelineStore store, long seed, boolean seedScheduler) {
+        if (store.size() != 0) {
+            throw new IllegalArgumentException("The timeline store must be empty");
+        }
         this.config = c;
         this.scheduler = scheduler;
+        this.store = store;
+        this.seed = seed;
+        // Every component gets its own generator, split off from the root, so they do not share any state.
+        SplittableRandom root = new SplittableRandom(seed);
+        long schedulerSeed = root.nextLong();
+        if (seedScheduler) {
+            scheduler.setSeed(schedulerSeed);
+        }
+        this.enclosingCircle = new EnclosingCircleService(new Random(root.nextLong()));
         // Making assumption: No events at time 0. Dangerous?
         final List<Robot> snapshot = List.copyOf(robots);
-        timeline.put(0.0 , new CalculatedEvent(0.0, List.of(), snapshot));
+        currentRobots = snapshot.stream().collect(Collectors.toMap(Robot::getId, robot -> robot));
+        quiescence = new QuiescenceDetector(snapshot);
+        appendToTimeline(0.0, List.of(), snapshot);
         upcomingEvents = scheduler.getNextEvent(Collections.unmodifiableList(snapshot), 0.0, c.interuptable);
     }
 
+    /**
+     * Continue a simulation from a checkpoint, see {@link #restore(Path)}.
+     */
+    private Simulation(Checkpoint checkpoint, TimelineStore store) {
+        this.config = checkpoint.config;
+        this.scheduler = checkpoint.scheduler;
+        this.store = store;
+        this.enclosingCircle = checkpoint.enclosingCircle;
+        this.seed = checkpoint.seed;
+        this.quiescence = checkpoint.quiescence;
+        // Same map type and insertion order as before, so the robots are iterated in the same order.
+        currentRobots = checkpoint.robots.stream().collect(Collectors.toMap(Robot::getId, robot -> robot));
+        appendToTimeline(checkpoint.time, checkpoint.events, checkpoint.robots);
+        upcomingEvents = checkpoint.upcomingEvents;
+    }
+
+    /**
+     * Continue a simulation right after one of its events with another scheduler, config and robots, see {@link #forkAt}.
+     */
+    private Simulation(Simulation parent, double forkTime, Scheduler scheduler, Config config, Collection<Robot> robots, long seed) {
+        this.config = config;
+        this.scheduler = scheduler;
+        this.store = new TimelineStore();
+        this.seed = seed;
+        SplittableRandom root = new SplittableRandom(seed);
+        scheduler.setSeed(root.nextLong());
+        this.enclosingCircle = new EnclosingCircleService(new Random(root.nextLong()));
+        this.resultCache = parent.resultCache;
+
+        // The events before the fork are immutable, so they are shared together with their snapshots in the parent's store.
+        timeline = new TreeMap<>(parent.timeline.headMap(forkTime, false));
+        sharedPrefix = timeline.size();
+        this.parent = sharedPrefix > 0 ? parent : null;
+
+        final List<Robot> snapshot = List.copyOf(robots);
+        if (snapshot.stream().mapToInt(Robot::getId).distinct().count() != snapshot.size()) {
+            throw new IllegalArgumentException("The robots of a fork must have distinct ids");
+        }
+        currentRobots = snapshot.stream().collect(Collectors.toMap(Robot::getId, robot -> robot));
+        quiescence = new QuiescenceDetector(snapshot);
+        // Only the events of robots that are still there.
+        List<Event> forkEvents = parent.timeline.get(forkTime).getEvents().stream()
+                .filter(event -> currentRobots.containsKey(event.getTargetId()))
+                .collect(Collectors.toList());
+        appendToTimeline(forkTime, forkEvents, snapshot);
+        upcomingEvents = scheduler.getNextEvent(Collections.unmodifiableList(snapshot), forkTime, config.interuptable);
+    }
+
+    /**
+     * Create a new simulation that is the same as this one up to the given time, but continues with another
+     * scheduler and config, to see what would have happened otherwise.
+     * <p>
+     * The fork continues right after the last event at or before the given time, from the robots as they were after
+     * that event, as if the scheduler and config had been changed at that moment. The events before it are shared with
+     * this simulation instead of being simulated again, so forking only costs the events after it.
+     * The scheduler has to be able to continue from the states the robots are in at that moment: a synchronous
+     * scheduler can only continue at the end of a round, when all robots are {@link State#SLEEPING sleeping}.
+     * This simulation is extended up to the given time first if needed, and is not changed otherwise.
+     * <p>
+     * The fork shares the snapshots of the earlier events with this simulation, so if this simulation evicts them
+     * because of its {@link RetentionPolicy}, they are evicted from the fork as well.
+     * The fork keeps its whole history until it is given a retention policy itself, and uses the same result cache.
+     *
+     * @param t the time to fork at, at or after {@link #getHistoryStart()}
+     * @param scheduler the scheduler for the fork, which should not be used by another simulation
+     * @param config the config for the fork
+     * @return the fork, whose seed is derived from the seed of this simulation and the time of the fork
+     */
+    public Simulation forkAt(double t, Scheduler scheduler, Config config) {
+        return forkAt(t, scheduler, config, null);
+    }
+
+    /**
+     * Like {@link #forkAt(double, Scheduler, Config)}, but the fork continues from the given robots instead of the
+     * robots as they were after the last event at or before the given time, for example to add or remove a robot.
+     * The scheduler has to be able to continue from the states of the given robots.
+     *
+     * @param t the time to fork at, at or after {@link #getHistoryStart()}
+     * @param scheduler the scheduler for the fork, which should not be used by another simulation
+     * @param config the config for the fork
+     * @param robots the robots to continue from, with distinct ids, or null for the robots at the time of the fork
+     * @return the fork, whose seed is derived from the seed of this simulation and the time of the fork
+     */
+    public Simulation forkAt(double t, Scheduler scheduler, Config config, Collection<Robot> robots) {
+        if (t < getHistoryStart()) {
+            throw new IllegalArgumentException("The history before t = " + getHistoryStart() + " is not available, requested t = " + t);
+        }
+        simulateTillTimestamp(t);
+        double forkTime = timeline.floorKey(t);
+        if (robots == null) {
+            robots = timeline.get(forkTime).getSnapshot().values();
+        }
+        return new Simulation(this, forkTime, scheduler, config, robots, new SplittableRandom(seed ^ Double.doubleToLongBits(forkTime)).nextLong());
+    }
+
+    /**
+     * The seed from which all random choices of this simulation are derived, to reproduce it.
+     * If the simulation was created without a seed, this is a random seed that does not determine the choices of the scheduler.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Whether the simulation was stopped because the robots converged: every robot decided not to move
+     * during a full activation cycle in which the configuration did not change, so no robot will move again.
+     */
+    public boolean hasConverged() {
+        return quiescence.isQuiescent();
+    }
+
     /**
      * Find out how much time of the simulation has been computed so far.
      * <p>
-     * This may be infinite if nothing needs to be computed anymore according to the current scheduler.
+     * This may be infinite if nothing needs to be computed anymore according to the current scheduler,
+     * or because the robots have converged, see {@link #hasConverged()}.
      */
     public double computedTimelineUntil() {
         if (upcomingEvents != null) {
@@ -63,6 +335,7 @@ public class Simulation implements Iterable<CalculatedEvent> {
      *
      * Returns a list of all events that occurred.
      */
+    @Override
     public List<CalculatedEvent> simulateTillTimestamp(double t) {
         List<CalculatedEvent> resultingEvents = new ArrayList<>();
         while (computedTimelineUntil() < t) {
@@ -75,6 +348,7 @@ public class Simulation implements Iterable<CalculatedEvent> {
      * Provide the highest-known lower bound on the termination time of the simulation.
      * Termination, here, is defined as no more events occurring and no more robots moving.
      */
+    @Override
     public double highestKnownLastEventTimeLowerBound() {
         return upcomingEvents == null ? timeline.lastEntry().getValue().timeUntilAllStop() : upcomingEvents.get(0).getT();
     }
@@ -94,37 +368,377 @@ public class Simulation implements Iterable<CalculatedEvent> {
         // Get the time at which the events will occur.
         double eventsTime = upcomingEvents.get(0).getT();
 
-        Map<Integer, Robot> robots = timeline.lastEntry().getValue().getSnapshot().values().stream()
+        Map<Integer, Robot> robots = currentRobots.values().stream()
                 .map(robot -> robot.extrapolatedToTime(eventsTime))
                 .collect(Collectors.toMap(Robot::getId, robot -> robot));
 
         Vector[] snapshot = robots.values().stream().map(robot -> robot.getPos()).toArray(Vector[]::new);
 
-        for (Event event : upcomingEvents) {
-            robots.put(event.getTargetId(), applyEventToRobot(event, robots.get(event.getTargetId()), snapshot));
+        Map<Integer, RobotPath> computedPaths = computePaths(robots, snapshot);
+
+        List<Robot> changed = new ArrayList<>(upcomingEvents.size());
+        if (upcomingEvents instanceof RoundEvent) {
+            // All robots in a round get the same type of event, so there is no need to create an event for each of them.
+            RoundEvent round = (RoundEvent) upcomingEvents;
+            for (int id = round.nextTarget(0); id >= 0; id = round.nextTarget(id + 1)) {
+                changed.add(applyEvent(round.getType(), eventsTime, id, robots, computedPaths));
+            }
+        } else {
+            for (Event event : upcomingEvents) {
+                changed.add(applyEvent(event.getType(), eventsTime, event.getTargetId(), robots, computedPaths));
+            }
         }
 
-        final CalculatedEvent newEvent = new CalculatedEvent(eventsTime, upcomingEvents, robots.values());
+        currentRobots = robots;
         assert !timeline.containsKey(eventsTime);
-        timeline.put(eventsTime, newEvent);
+        final CalculatedEvent newEvent = appendToTimeline(eventsTime, upcomingEvents, changed);
 
-        //noinspection Convert2MethodRef
-        upcomingEvents = scheduler.getNextEvent(List.copyOf(robots.values()), eventsTime, config.interuptable);
-        assert upcomingEvents.get(0).getT() > eventsTime;
+        if (quiescence.isQuiescent()) {
+            // No robot will ever move again, so there is nothing left to simulate.
+            upcomingEvents = null;
+        } else {
+            upcomingEvents = scheduler.getNextEvent(List.copyOf(robots.values()), eventsTime, config.interuptable);
+            assert upcomingEvents == null || upcomingEvents.get(0).getT() > eventsTime;
+        }
 
+        // Only now the simulation is consistent again, so a listener that throws does not leave it half updated.
+        for (SimulationListener listener : List.copyOf(listeners)) {
+            listener.eventComputed(newEvent, changed);
+        }
         return Optional.of(newEvent);
     }
 
-    private Robot applyEventToRobot(Event event, Robot robot, Vector[] snapshot) {
-        assert event.getTargetId() == robot.getId();
+    /**
+     * Store the current robots in the timeline store and add an event referring to them to the timeline.
+     */
+    private CalculatedEvent appendToTimeline(double eventsTime, List<Event> events, Collection<Robot> changed) {
+        final int frame = store.append(eventsTime, currentRobots, changed);
+        final CalculatedEvent newEvent = new CalculatedEvent(eventsTime, events, () -> store.snapshot(frame));
+        timeline.put(eventsTime, newEvent);
+        evictHistory();
+        return newEvent;
+    }
+
+    /**
+     * Evict the oldest events from the timeline as long as the retention policy says so.
+     */
+    private void evictHistory() {
+        dropEvictedSharedPrefix();
+        while (timeline.size() > 1 && retention.exceeded(timeline.size(),
+                timeline.lastKey() - timeline.higherKey(timeline.firstKey()),
+                store.estimatedBytes() + timeline.size() * TIMELINE_ENTRY_BYTES)) {
+            timeline.pollFirstEntry();
+            if (sharedPrefix > 0) {
+                // Its snapshot is in the store of the simulation this one was forked from.
+                sharedPrefix--;
+            } else {
+                firstFrame++;
+                store.evictBefore(firstFrame);
+            }
+        }
+    }
+
+    /**
+     * Limit how much of the history is kept from now on, evicting the oldest events right away if needed.
+     * Events that are evicted can not be looked up anymore, see {@link #getHistoryStart()}.
+     */
+    public void setRetentionPolicy(RetentionPolicy retention) {
+        this.retention = retention;
+        evictHistory();
+    }
+
+    public RetentionPolicy getRetentionPolicy() {
+        return retention;
+    }
+
+    /**
+     * The time of the oldest event that is still in the timeline. This is the start of the simulation,
+     * unless older events have been evicted according to the {@link RetentionPolicy}, or, for a fork,
+     * by the simulation it was forked from.
+     */
+    @Override
+    public double getHistoryStart() {
+        dropEvictedSharedPrefix();
+        return timeline.firstKey();
+    }
+
+    /**
+     * Remove the events shared with the simulation this one was forked from that it has evicted since,
+     * because their snapshots can not be looked up anymore.
+     */
+    private void dropEvictedSharedPrefix() {
+        if (parent == null) {
+            return;
+        }
+        double parentStart = parent.getHistoryStart();
+        while (sharedPrefix > 0 && timeline.firstKey() < parentStart) {
+            timeline.pollFirstEntry();
+            sharedPrefix--;
+        }
+        if (sharedPrefix == 0) {
+            parent = null;
+        }
+    }
+
+    /**
+     * Get notified of every event that is added to the timeline from now on.
+     */
+    public void addListener(SimulationListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(SimulationListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * The state of all robots as of the last event in the timeline, at their positions at the time of that event.
+     */
+    public Collection<Robot> getCurrentRobots() {
+        return Collections.unmodifiableCollection(currentRobots.values());
+    }
+
+    /**
+     * Set the executor to use for computing the paths of robots that start computing at the same time,
+     * such as all active robots in a round of a synchronous scheduler.
+     * All of them see the same snapshot, so the computations are independent. The resulting timeline is the same
+     * as when computing serially, as long as the algorithms are thread-safe.
+     *
+     * @param executor the executor to compute on, or null to compute serially on the calling thread (the default)
+     */
+    public void setComputeExecutor(Executor executor) {
+        this.computeExecutor = executor;
+    }
+
+    /**
+     * Set the cache in which the paths computed by {@link nl.tue.oblotsim.algorithms.Algorithm#isDeterministic()
+     * deterministic} algorithms are remembered, so they are reused when a robot sees the same local snapshot again.
+     * The cache can be shared with other simulations, for instance of a batch that start from the same configuration.
+     *
+     * @param cache the cache to use, or null to always compute the paths (the default)
+     */
+    public void setResultCache(AlgorithmResultCache cache) {
+        this.resultCache = cache;
+    }
+
+    public AlgorithmResultCache getResultCache() {
+        return resultCache;
+    }
+
+    /**
+     * Everything needed to continue a simulation after its last computed event.
+     */
+    private static class Checkpoint implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        Config config;
+        long seed;
+        Scheduler scheduler;
+        EnclosingCircleService enclosingCircle;
+        double time;
+        List<Event> events;
+        List<Robot> robots;
+        List<Event> upcomingEvents;
+        QuiescenceDetector quiescence;
+    }
 
+    private static final int CHECKPOINT_MAGIC = 0x4F424C43; // "OBLC"
+    private static final int CHECKPOINT_VERSION = 1;
+
+    /**
+     * Save the state of the simulation after its last computed event to a compressed file, to continue it later
+     * with {@link #restore(Path)}.
+     * <p>
+     * This saves the robots including their algorithms and transformations, the scheduler including its random number
+     * generator, the upcoming events and the config, using Java serialization. So all of these should be serializable.
+     * The timeline before the last event, the listeners, the retention policy and the compute executor are not saved.
+     *
+     * @param file the file to write to, which is overwritten if it exists
+     * @throws IOException if the file could not be written, or a component of the simulation is not serializable
+     */
+    public void checkpoint(Path file) throws IOException {
+        Checkpoint checkpoint = new Checkpoint();
+        checkpoint.config = config;
+        checkpoint.seed = seed;
+        checkpoint.scheduler = scheduler;
+        checkpoint.enclosingCircle = enclosingCircle;
+        checkpoint.time = timeline.lastKey();
+        checkpoint.events = timeline.lastEntry().getValue().getEvents();
+        checkpoint.robots = new ArrayList<>(currentRobots.values());
+        checkpoint.upcomingEvents = upcomingEvents == null || upcomingEvents instanceof RoundEvent ? upcomingEvents : new ArrayList<>(upcomingEvents);
+        checkpoint.quiescence = quiescence;
+
+        try (ObjectOutputStream out = new ObjectOutputStream(new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(file))))) {
+            out.writeInt(CHECKPOINT_MAGIC);
+            out.writeInt(CHECKPOINT_VERSION);
+            out.writeObject(checkpoint);
+        }
+    }
+
+    /**
+     * Continue a simulation from a checkpoint written by {@link #checkpoint(Path)}.
+     * <p>
+     * The timeline of the restored simulation starts at the last event before the checkpoint, and the events after it
+     * are exactly the same as those the original simulation would have computed,
+     * as long as the algorithms and scheduler are deterministic given their saved state.
+     *
+     * @param file the checkpoint to read
+     * @return the restored simulation, without listeners and computing serially
+     * @throws IOException if the file could not be read or is not a checkpoint
+     */
+    public static Simulation restore(Path file) throws IOException {
+        Checkpoint checkpoint;
+        try (ObjectInputStream in = new ObjectInputStream(new GZIPInputStream(new BufferedInputStream(Files.newInputStream(file))))) {
+            if (in.readInt() != CHECKPOINT_MAGIC) {
+                throw new IOException("Not a checkpoint: " + file);
+            }
+            int version = in.readInt();
+            if (version != CHECKPOINT_VERSION) {
+                throw new IOException("Unsupported checkpoint version: " + version);
+            }
+            checkpoint = (Checkpoint) in.readObject();
+        } catch (ClassNotFoundException e) {
+            throw new IOException("The checkpoint refers to a class that is not available: " + e.getMessage(), e);
+        }
+        return new Simulation(checkpoint, new TimelineStore());
+    }
+
+    /**
+     * Compute the paths of all robots that start computing in the upcoming events.
+     *
+     * @param robots the robots, extrapolated to the time of the upcoming events
+     * @param snapshot the positions of all robots at that time
+     * @return a map from robot id to the path that robot computed
+     */
+    private Map<Integer, RobotPath> computePaths(Map<Integer, Robot> robots, Vector[] snapshot) {
+        List<Robot> computing;
+        if (upcomingEvents instanceof RoundEvent) {
+            RoundEvent round = (RoundEvent) upcomingEvents;
+            computing = round.getType() != EventType.START_COMPUTE ? List.of() : round.targetIds()
+                    .mapToObj(robots::get)
+                    .collect(Collectors.toList());
+        } else {
+            computing = upcomingEvents.stream()
+                    .filter(event -> event.getType() == EventType.START_COMPUTE)
+                    .map(event -> robots.get(event.getTargetId()))
+                    .collect(Collectors.toList());
+        }
+
+        Map<Integer, RobotPath> paths = new HashMap<>();
+        if (computing.isEmpty()) {
+            return paths;
+        }
+
+        Function<Robot, RobotPath> calculate;
+        double visibility = config.visibility;
+        if (!config.hasInfiniteVisibility()) {
+            // Every robot only sees the robots within its visibility, which the grid finds without looking at all of them.
+            UniformGrid grid = new UniformGrid(snapshot, visibility > 0 ? visibility : 1.0);
+            AlgorithmResultCache cache = resultCache;
+            calculate = cache == null
+                    ? robot -> robot.calculate(grid.within(robot.getPos(), visibility))
+                    : robot -> robot.calculate(grid.within(robot.getPos(), visibility), cache);
+        } else {
+            Supplier<Circle> circle = enclosingCircleOf(robots);
+            AlgorithmResultCache cache = resultCache;
+            // Every robot sees all robots, so interleave the positions once and let each robot convert them in one pass.
+            double[] coordinates = new double[2 * snapshot.length];
+            for (int i = 0; i < snapshot.length; i++) {
+                coordinates[2 * i] = snapshot[i].x;
+                coordinates[2 * i + 1] = snapshot[i].y;
+            }
+            calculate = cache == null
+                    ? robot -> robot.calculate(coordinates, circle)
+                    : robot -> robot.calculate(coordinates, circle, cache);
+        }
+
+        if (computeExecutor == null || computing.size() < 2) {
+            for (Robot robot : computing) {
+                paths.put(robot.getId(), calculate.apply(robot));
+            }
+        } else {
+            List<CompletableFuture<RobotPath>> futures = computing.stream()
+                    .map(robot -> CompletableFuture.supplyAsync(() -> calculate.apply(robot), computeExecutor))
+                    .collect(Collectors.toList());
+
+            // Merge in the order of the events, so the outcome does not depend on which computation finished first.
+            for (int i = 0; i < computing.size(); i++) {
+                try {
+                    paths.put(computing.get(i).getId(), futures.get(i).join());
+                } catch (CompletionException e) {
+                    // Rethrow what the algorithm threw, as would have happened when computing serially.
+                    if (e.getCause() instanceof RuntimeException) {
+                        throw (RuntimeException) e.getCause();
+                    } else if (e.getCause() instanceof Error) {
+                        throw (Error) e.getCause();
+                    }
+                    throw e;
+                }
+            }
+        }
+
+        return paths;
+    }
+
+    /**
+     * Get the smallest enclosing circle of the robots from the {@link EnclosingCircleService}, once it is needed.
+     * Only with infinite visibility every robot sees all others, so only then the circle is the same for everybody.
+     *
+     * @param robots the robots, extrapolated to the time of the upcoming events
+     * @return a thread-safe supplier of the circle in global coordinates
+     */
+    private Supplier<Circle> enclosingCircleOf(Map<Integer, Robot> robots) {
+        return new Supplier<>() {
+            private Circle circle = null;
+
+            @Override
+            public synchronized Circle get() {
+                if (circle == null) {
+                    circle = enclosingCircle.update(robots);
+                }
+                return circle;
+            }
+        };
+    }
+
+    /**
+     * The service that keeps track of the smallest enclosing circle of all robots across events.
+     */
+    public EnclosingCircleService getEnclosingCircleService() {
+        return enclosingCircle;
+    }
+
+    /**
+     * Apply an event to a robot in the given map, and return the updated robot.
+     *
+     * @param type the type of the event
+     * @param t the time of the event
+     * @param id the id of the robot the event targets
+     * @param robots the robots as of the time of the event, by id, in which the robot is replaced
+     * @param computedPaths the paths the robots computed, by id, used if this is a START_COMPUTE event
+     * @return the robot after the event
+     */
+    private Robot applyEvent(EventType type, double t, int id, Map<Integer, Robot> robots, Map<Integer, RobotPath> computedPaths) {
+        Robot robot = robots.get(id);
+        if (type == EventType.START_COMPUTE) {
+            quiescence.computed(id, computedPaths.get(id));
+        } else if (type == EventType.END_MOVING) {
+            quiescence.stoppedMoving(robot.getPath());
+        }
+        Robot updated = applyEventToRobot(type, t, robot, computedPaths.get(id));
+        robots.put(id, updated);
+        return updated;
+    }
+
+    private Robot applyEventToRobot(EventType type, double t, Robot robot, RobotPath computedPath) {
         State newState;
         RobotPath newPath;
 
-        switch (event.getType()) {
+        switch (type) {
             case START_COMPUTE:
                 assert robot.getState() == State.SLEEPING;
-                newPath = robot.calculate(snapshot);
+                newPath = computedPath;
                 assert newPath != null;
                 newState = State.COMPUTING;
                 break;
@@ -150,30 +764,110 @@ public class Simulation implements Iterable<CalculatedEvent> {
                 newPath,
                 newState,
                 robot.getSpeed(),
-                event.getT());
+                t);
     }
 
     /**
      * Returns the list of calculated events
+     * <p>
+     * This only contains the events since {@link #getHistoryStart()}. The snapshots of events that have been evicted
+     * from it can not be requested anymore.
      *
      * @return the list of calculated events
      */
     public NavigableMap<Double, CalculatedEvent> getTimeline() {
+        dropEvictedSharedPrefix();
         return Collections.unmodifiableNavigableMap(timeline);
     }
 
+    /**
+     * The events computed so far, in order of time.
+     */
+    @Override
+    public Collection<CalculatedEvent> getComputedEvents() {
+        dropEvictedSharedPrefix();
+        return Collections.unmodifiableCollection(timeline.values());
+    }
+
+    @Override
     public List<Robot> robotsAtTime(double timestamp) {
 
+        if (timestamp < getHistoryStart()) {
+            throw new IllegalArgumentException("The history before t = " + getHistoryStart() + " is not available, requested t = " + timestamp);
+        }
+
+        List<Robot> cached = frameCache.get(timestamp);
+        if (cached != null) {
+            return cached;
+        }
+
         simulateTillTimestamp(timestamp);
 
         final CalculatedEvent evt = timeline.floorEntry(timestamp).getValue();
 
-        return evt.getSnapshot().values().stream().map(robot -> robot.movedTo(robot.positionAtTimeWithoutStateChange(timestamp))).collect(Collectors.toList());
+        List<Robot> robots = Collections.unmodifiableList(evt.getSnapshot().values().stream().map(robot -> robot.movedTo(robot.positionAtTimeWithoutStateChange(timestamp))).collect(Collectors.toList()));
+        frameCache.put(timestamp, robots);
+        return robots;
+    }
+
+    /**
+     * Write the positions of all robots at some time into an array, without creating objects for the robots
+     * as {@link #robotsAtTime(double)} does. This is meant for drawing many frames, reusing the same array.
+     * <p>
+     * The x and y coordinates of the i-th robot in order of id, see {@link #getRobotIds()}, are written to
+     * {@code xy[2 * i]} and {@code xy[2 * i + 1]}. The timeline is extended to the given time if needed.
+     * As long as the time stays between the same two events, no objects are created at all.
+     *
+     * @param timestamp the time to get the positions at
+     * @param xy the array to write to, of length at least twice the number of robots
+     * @return the number of robots
+     * @throws IllegalArgumentException if the time is before {@link #getHistoryStart()} or the array is too short
+     */
+    public int fillPositionsAt(double timestamp, double[] xy) {
+        if (timestamp < getHistoryStart()) {
+            throw new IllegalArgumentException("The history before t = " + getHistoryStart() + " is not available, requested t = " + timestamp);
+        }
+
+        if (!(timestamp >= positionsFrom && timestamp < positionsUntil)) {
+            simulateTillTimestamp(timestamp);
+            Map.Entry<Double, CalculatedEvent> entry = timeline.floorEntry(timestamp);
+            Double next = timeline.higherKey(entry.getKey());
+            positionsRobots = entry.getValue().getSnapshot().values().stream()
+                    .sorted(Comparator.comparingInt(Robot::getId))
+                    .toArray(Robot[]::new);
+            positionsFrom = entry.getKey();
+            if (next != null) {
+                positionsUntil = next;
+            } else {
+                // The next event that is computed happens at the time of the upcoming events.
+                positionsUntil = upcomingEvents == null ? Double.POSITIVE_INFINITY : upcomingEvents.get(0).getT();
+            }
+        }
+
+        if (xy.length < 2 * positionsRobots.length) {
+            throw new IllegalArgumentException("The array should have room for " + positionsRobots.length + " robots");
+        }
+        for (int i = 0; i < positionsRobots.length; i++) {
+            positionsRobots[i].fillPositionAt(timestamp, xy, 2 * i);
+        }
+        return positionsRobots.length;
     }
 
+    /**
+     * The ids of all robots in increasing order, which is the order in which {@link #fillPositionsAt(double, double[])}
+     * writes their positions.
+     */
+    public int[] getRobotIds() {
+        return currentRobots.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+    }
+
+    /**
+     * Goes through all events, computing them as needed. Events that are evicted from the timeline
+     * before the iterator gets to them are skipped.
+     */
     class SimulationIterator implements Iterator<CalculatedEvent> {
 
-        CalculatedEvent next = timeline.isEmpty() ? simulateTillNextEvent().orElse(null) : timeline.firstEntry().getValue();
+        CalculatedEvent next = timeline.isEmpty() ? simulateTillNextEvent().orElse(null) : timeline.get(getHistoryStart());
 
         @Override
         public boolean hasNext() {
@@ -0,0 +1,21 @@
+package nl.tue.oblotsim.Simulator;
+
+import nl.tue.oblotsim.Schedulers.CalculatedEvent;
+
+import java.util.Collection;
+
+/**
+ * Gets notified by a {@link Simulation} whenever it adds an event to its timeline.
+ */
+@FunctionalInterface
+public interface SimulationListener {
+
+    /**
+     * Called on the thread that computed the event, once it was added to the timeline and the simulation is ready to
+     * compute the next one. An exception thrown here is passed on to the caller that asked for the event,
+     * and the simulation can still be continued afterwards.
+     * @param event the event that was computed
+     * @param changed the robots targeted by the event, as they are after the event
+     */
+    void eventComputed(CalculatedEvent event, Collection<Robot> changed);
+}
@@ -0,0 +1,44 @@
+package nl.tue.oblotsim.Simulator;
+
+import nl.tue.oblotsim.Schedulers.CalculatedEvent;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A read-only view on a timeline of events, which is revealed gradually.
+ * This is what the GUI needs to play back a simulation, whether it is being computed by a {@link Simulation}
+ * or read back from a trace.
+ */
+public interface SimulationView {
+
+    /**
+     * The positions of all robots at some time, revealing the timeline up to that time if needed.
+     * @param timestamp the time to get the robots at
+     * @return the robots, moved to their position at that time
+     * @throws IllegalArgumentException if the time is before {@link #getHistoryStart()}
+     */
+    List<Robot> robotsAtTime(double timestamp);
+
+    /**
+     * The earliest time that can be looked up. Later than the start of the simulation if older events were discarded.
+     */
+    double getHistoryStart();
+
+    /**
+     * Reveal the timeline until it covers at least the given time t.
+     * @return the events that were revealed by this call
+     */
+    List<CalculatedEvent> simulateTillTimestamp(double t);
+
+    /**
+     * Provide the highest-known lower bound on the termination time of the simulation.
+     * Termination, here, is defined as no more events occurring and no more robots moving.
+     */
+    double highestKnownLastEventTimeLowerBound();
+
+    /**
+     * All events that have been revealed so far, in order of time.
+     */
+    Collection<CalculatedEvent> getComputedEvents();
+}
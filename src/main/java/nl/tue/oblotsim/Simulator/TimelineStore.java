@@ -0,0 +1,241 @@
+package nl.tue.oblotsim.Simulator;
+
+import nl.tue.oblotsim.Util.PersistentIntMap;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compact storage for the robot snapshots belonging to the events of a timeline.
+ *
+ * Storing a full snapshot for every event costs O(events * robots) memory, even though most events only change
+ * a few robots. Instead, every frame stores the robots in a {@link PersistentIntMap} that shares everything with the
+ * map of the frame before it, except for the paths to the robots that received an event in this frame.
+ * A frame therefore costs O(changed robots * log(robots)) memory, and its snapshot is available right away.
+ * Robots that are moving without receiving an event don't need to be stored again, since their position follows
+ * from their path: snapshots are views that position them at the time of the frame when they are looked up.
+ *
+ * The frames are kept in a ring buffer, so the oldest frames can be evicted with {@link #evictBefore(int)}
+ * without copying the others. Frames keep their index when older frames are evicted.
+ *
+ * All methods are synchronized, so snapshots can be requested from another thread than the one computing the simulation,
+ * such as the GUI thread while a {@link BackgroundSimulation} computes ahead.
+ */
+public class TimelineStore {
+
+    private static class Frame {
+        final double timestamp;
+        // The robots as of their last event at or before this frame.
+        final PersistentIntMap<Robot> robots;
+        // The number of robots that received an event in this frame, or all robots for the first frame.
+        final int changed;
+
+        Frame(double timestamp, PersistentIntMap<Robot> robots, int changed) {
+            this.timestamp = timestamp;
+            this.robots = robots;
+            this.changed = changed;
+        }
+    }
+
+    /**
+     * Rough estimates of the memory used by a frame, by a robot, and by a node of a map that is copied for a changed
+     * robot, for {@link #estimatedBytes()}. Nodes shared by the paths of several changed robots are counted for each.
+     */
+    private static final long FRAME_BYTES = 48;
+    private static final long ROBOT_BYTES = 56;
+    private static final long NODE_BYTES = 96;
+
+    /**
+     * The frames, starting at position head and wrapping around. The frame at head has index firstIndex.
+     */
+    private Frame[] frames = new Frame[16];
+    private int head = 0;
+    private int count = 0;
+    private int firstIndex = 0;
+
+    /**
+     * The robots of the last frame appended, which are kept when all frames are evicted.
+     */
+    private PersistentIntMap<Robot> last = null;
+
+    private long estimatedBytes = 0;
+
+    /**
+     * Creates a new, empty store.
+     */
+    public TimelineStore() {
+    }
+
+    /**
+     * The number of frames stored.
+     */
+    public synchronized int size() {
+        return count;
+    }
+
+    /**
+     * The index of the oldest frame that is still stored, which is 0 unless frames have been evicted.
+     */
+    public synchronized int getFirstIndex() {
+        return firstIndex;
+    }
+
+    /**
+     * A rough estimate of the number of bytes of heap used by the stored frames, not counting the cache.
+     */
+    public synchronized long estimatedBytes() {
+        return estimatedBytes;
+    }
+
+    private Frame frame(int index) {
+        if (index < firstIndex || index >= firstIndex + count) {
+            throw new IllegalArgumentException("Frame " + index + " is not stored, the stored frames are "
+                    + firstIndex + " up to " + (firstIndex + count));
+        }
+        return frames[(head + index - firstIndex) % frames.length];
+    }
+
+    private static long bytesOf(Frame frame) {
+        // Every level of the trie takes 5 bits of the robot ids.
+        int levels = 1;
+        for (int size = frame.robots.size(); size > 32; size >>>= 5) {
+            levels++;
+        }
+        return FRAME_BYTES + frame.changed * (ROBOT_BYTES + levels * NODE_BYTES);
+    }
+
+    /**
+     * Add a frame at the end of the store.
+     *
+     * @param timestamp the time of the frame. Must be greater than that of all previous frames.
+     * @param robots the full state of all robots at this time
+     * @param changed the robots that received an event in this frame. Must be the same instances as in robots.
+     * @return the index of the new frame, to be passed to {@link #snapshot(int)}
+     */
+    public synchronized int append(double timestamp, Map<Integer, Robot> robots, Collection<Robot> changed) {
+        assert count == 0 || frame(firstIndex + count - 1).timestamp < timestamp;
+
+        if (count == frames.length) {
+            Frame[] grown = new Frame[frames.length * 2];
+            for (int i = 0; i < count; i++) {
+                grown[i] = frames[(head + i) % frames.length];
+            }
+            frames = grown;
+            head = 0;
+        }
+
+        Frame frame;
+        if (last == null || last.size() != robots.size()) {
+            // The first frame, or robots were added or removed, so the changed robots are not all that changed.
+            PersistentIntMap.Builder<Robot> builder = PersistentIntMap.<Robot>empty().toBuilder();
+            robots.forEach(builder::put);
+            frame = new Frame(timestamp, builder.build(), robots.size());
+        } else {
+            PersistentIntMap.Builder<Robot> builder = last.toBuilder();
+            for (Robot robot : changed) {
+                builder.put(robot.getId(), robot);
+            }
+            frame = new Frame(timestamp, builder.build(), changed.size());
+        }
+        last = frame.robots;
+
+        int index = firstIndex + count;
+        frames[(head + count) % frames.length] = frame;
+        count++;
+        estimatedBytes += bytesOf(frame);
+        return index;
+    }
+
+    /**
+     * Evict the frames before the given frame. Their snapshots can not be requested anymore,
+     * but those of the given frame and the frames after it do not depend on them.
+     *
+     * @param index the oldest frame to keep, which should be stored
+     */
+    public synchronized void evictBefore(int index) {
+        frame(index); // Throws if the frame is not stored.
+        while (firstIndex < index) {
+            estimatedBytes -= bytesOf(frames[head]);
+            frames[head] = null;
+            head = (head + 1) % frames.length;
+            firstIndex++;
+            count--;
+        }
+    }
+
+    /**
+     * Get the snapshot of the robots at the given frame. This only creates a view of the frame.
+     *
+     * @param index the index of the frame, as returned by {@link #append}
+     * @return an immutable map from robot id to robot, with the robots positioned at the time of the frame
+     * @throws IllegalArgumentException if the frame has been evicted
+     */
+    public synchronized Map<Integer, Robot> snapshot(int index) {
+        Frame frame = frame(index);
+        return new Snapshot(frame.robots, frame.timestamp);
+    }
+
+    /**
+     * The robots of a frame, where moving robots that did not receive an event are positioned at the time of the frame
+     * when they are looked up, since their stored position is as of their last event.
+     */
+    private static class Snapshot extends AbstractMap<Integer, Robot> {
+        private final PersistentIntMap<Robot> robots;
+        private final double timestamp;
+
+        Snapshot(PersistentIntMap<Robot> robots, double timestamp) {
+            this.robots = robots;
+            this.timestamp = timestamp;
+        }
+
+        private Robot atFrame(Robot robot) {
+            return robot == null || robot.getState() != State.MOVING ? robot : robot.extrapolatedToTime(timestamp);
+        }
+
+        @Override
+        public int size() {
+            return robots.size();
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof Integer && robots.containsKey((Integer) key);
+        }
+
+        @Override
+        public Robot get(Object key) {
+            return key instanceof Integer ? atFrame(robots.get((Integer) key)) : null;
+        }
+
+        @Override
+        public Set<Entry<Integer, Robot>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<Integer, Robot>> iterator() {
+                    Iterator<Entry<Integer, Robot>> entries = robots.asMap().entrySet().iterator();
+                    return new Iterator<>() {
+                        @Override
+                        public boolean hasNext() {
+                            return entries.hasNext();
+                        }
+
+                        @Override
+                        public Entry<Integer, Robot> next() {
+                            Entry<Integer, Robot> entry = entries.next();
+                            return Map.entry(entry.getKey(), atFrame(entry.getValue()));
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return robots.size();
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,364 @@
+package nl.tue.oblotsim.Util;
+
+import java.util.Arrays;
+
+/**
+ * The canonical form of a configuration of points up to translation, rotation, uniform scale and reflection,
+ * which is exactly the freedom a {@link nl.tue.oblotsim.positiontransformations.PositionTransformation} gives every robot.
+ * Two configurations that are similar in that sense have (nearly) the same canonical positions and the same hash,
+ * so the hash can be used to recognize configurations that were seen before, for instance to cache computations,
+ * to detect cycles or to remove duplicates across runs.
+ * <p>
+ * The configuration is first normalized by its smallest enclosing circle: its center becomes the origin and its radius
+ * the unit length. The points are then sorted by angle around the center and grouped into rays of points at the same
+ * angle. The rays form a cyclic string of the distances of their points to the center and the angle to the next ray.
+ * Rotations of the configuration are rotations of that string and reflections reverse it, so the lexicographically
+ * smallest rotation of the string and its reverse, found with Booth's algorithm, is the same for all similar
+ * configurations. Computing it takes O(n log n) time for sorting the points.
+ * <p>
+ * While computing the canonical form, distances and angles are compared with a tolerance in units of the radius,
+ * {@link #DEFAULT_TOLERANCE} by default. That is coarser than {@link Config#EPSILON}, because normalizing by a computed
+ * circle already causes rounding errors of around 1e-12. The canonical positions are then rounded to {@link #HASH_QUANTUM},
+ * which is much coarser than the tolerance, so that rounding errors almost never change them. {@link #equals(Object)} and
+ * the hashes both use the rounded positions, so equal configurations have equal hashes and equality is transitive.
+ * Configurations that only differ by rounding errors are still unequal in the rare case that a position lies right
+ * between two multiples of the quantum.
+ */
+public final class CanonicalConfiguration {
+
+    public static final double DEFAULT_TOLERANCE = 1e-9;
+
+    /**
+     * The precision to which the canonical positions are rounded for comparing and hashing them.
+     */
+    public static final double HASH_QUANTUM = 1e-5;
+
+    private static final CanonicalConfiguration EMPTY = new CanonicalConfiguration(new double[0]);
+
+    /**
+     * The canonical positions, x and y interleaved: first the points at the center,
+     * then the points of every ray in the canonical order, each ray from the center outward.
+     */
+    private final double[] coordinates;
+    private final long hash;
+    private final long hash2;
+
+    private CanonicalConfiguration(double[] coordinates) {
+        this.coordinates = coordinates;
+
+        long h1 = coordinates.length;
+        long h2 = ~coordinates.length;
+        for (double coordinate : coordinates) {
+            long q = quantize(coordinate);
+            h1 = mix(h1 ^ q * 0x9E3779B97F4A7C15L);
+            h2 = mix(h2 + q * 0xC2B2AE3D27D4EB4FL);
+        }
+        this.hash = h1;
+        this.hash2 = h2;
+    }
+
+    private static long quantize(double coordinate) {
+        return Math.round(coordinate / HASH_QUANTUM);
+    }
+
+    /**
+     * The finalizer of SplitMix64, to spread every coordinate over all bits of the hash.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Compute the canonical form of a configuration, comparing distances and angles up to {@link #DEFAULT_TOLERANCE}.
+     * @param snapshot the positions of the robots, in any coordinate system
+     * @return the canonical form
+     */
+    public static CanonicalConfiguration of(Vector[] snapshot) {
+        return of(snapshot, DEFAULT_TOLERANCE);
+    }
+
+    /**
+     * Compute the canonical form of a configuration.
+     * @param snapshot the positions of the robots, in any coordinate system
+     * @param tolerance how much distances and angles may differ to still be considered the same, in units of the
+     *                  radius of the smallest enclosing circle and in radians
+     * @return the canonical form
+     */
+    public static CanonicalConfiguration of(Vector[] snapshot, double tolerance) {
+        if (!(tolerance >= 0)) {
+            throw new IllegalArgumentException("tolerance should be at least 0");
+        }
+        int n = snapshot.length;
+        if (n == 0) {
+            return EMPTY;
+        }
+
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        for (int i = 0; i < n; i++) {
+            xs[i] = snapshot[i].x;
+            ys[i] = snapshot[i].y;
+        }
+        Circle sec = SmallestEnclosingCircle.makeCircle(xs, ys, n);
+        if (sec.r <= tolerance) {
+            // All points coincide, so they are all at the center.
+            return new CanonicalConfiguration(new double[2 * n]);
+        }
+
+        // Polar coordinates around the center of the circle, with the radius as unit length.
+        double[] rho = new double[n];
+        double[] theta = new double[n];
+        int centered = 0;
+        int around = 0;
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            double dx = (xs[i] - sec.c.x) / sec.r;
+            double dy = (ys[i] - sec.c.y) / sec.r;
+            rho[i] = Math.hypot(dx, dy);
+            theta[i] = Math.atan2(dy, dx);
+            if (rho[i] <= tolerance) {
+                centered++;
+            } else {
+                order[around++] = i;
+            }
+        }
+        double[] coordinates = new double[2 * n];
+        if (around == 0) {
+            return new CanonicalConfiguration(coordinates);
+        }
+        Arrays.sort(order, 0, around, (a, b) -> Double.compare(theta[a], theta[b]));
+
+        Rays rays = new Rays(order, around, rho, theta, tolerance);
+        int forward = rays.leastRotation(false);
+        int reflected = rays.leastRotation(true);
+        boolean reflect = rays.compareRotations(reflected, true, forward, false) < 0;
+        int start = reflect ? reflected : forward;
+
+        // The points at the center come first and stay at the origin. The first ray is put on the positive x axis.
+        int index = 2 * centered;
+        double startAngle = rays.angle[rays.rayAt(start, reflect)];
+        for (int p = 0; p < rays.count; p++) {
+            int ray = rays.rayAt((start + p) % rays.count, reflect);
+            double angle = reflect ? startAngle - rays.angle[ray] : rays.angle[ray] - startAngle;
+            if (angle < 0) {
+                angle += 2 * Math.PI;
+            }
+            for (int member = rays.start[ray]; member < rays.start[ray + 1]; member++) {
+                coordinates[index++] = rays.rho[member] * Math.cos(angle);
+                coordinates[index++] = rays.rho[member] * Math.sin(angle);
+            }
+        }
+        return new CanonicalConfiguration(coordinates);
+    }
+
+    /**
+     * The points around the center, grouped into rays of points at the same angle, in counterclockwise order.
+     * The rays are read either counterclockwise or, for the reflection, clockwise.
+     */
+    private static final class Rays {
+        final int count;
+        // The points of ray r are at start[r] up to start[r + 1] in rho, from the center outward.
+        final int[] start;
+        final double[] rho;
+        // The angle of the first point of ray r, increasing with r.
+        final double[] angle;
+        // The angle from ray r to the next ray counterclockwise.
+        final double[] gap;
+        final double tolerance;
+
+        Rays(Integer[] order, int n, double[] rhoOf, double[] thetaOf, double tolerance) {
+            this.tolerance = tolerance;
+            // Start at a point that is not at the same angle as the one before it, so no ray wraps around.
+            int first = 0;
+            for (int i = 0; i < n; i++) {
+                double before = thetaOf[order[(i + n - 1) % n]] - (i == 0 ? 2 * Math.PI : 0);
+                if (thetaOf[order[i]] - before > tolerance) {
+                    first = i;
+                    break;
+                }
+            }
+
+            int[] starts = new int[n + 1];
+            double[] angles = new double[n];
+            rho = new double[n];
+            int rays = 0;
+            double previous = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < n; i++) {
+                int point = order[(first + i) % n];
+                // Angles after the wrap around are 2 pi further, so they keep increasing.
+                double angle = thetaOf[point] + (first + i >= n ? 2 * Math.PI : 0);
+                if (angle - previous > tolerance) {
+                    starts[rays] = i;
+                    angles[rays] = angle;
+                    rays++;
+                }
+                previous = angle;
+                rho[i] = rhoOf[point];
+            }
+            starts[rays] = n;
+            for (int r = 0; r < rays; r++) {
+                Arrays.sort(rho, starts[r], starts[r + 1]);
+            }
+
+            this.count = rays;
+            this.start = Arrays.copyOf(starts, rays + 1);
+            this.angle = Arrays.copyOf(angles, rays);
+            this.gap = new double[rays];
+            for (int r = 0; r < rays; r++) {
+                gap[r] = r + 1 < rays ? angles[r + 1] - angles[r] : angles[0] + 2 * Math.PI - angles[r];
+            }
+        }
+
+        /**
+         * The ray at the given position of the string, read clockwise if reflected.
+         */
+        int rayAt(int position, boolean reflected) {
+            return reflected ? count - 1 - position : position;
+        }
+
+        /**
+         * The angle from the ray at the given position of the string to the next one.
+         */
+        double gapAt(int position, boolean reflected) {
+            return reflected ? gap[(2 * count - 2 - position) % count] : gap[position];
+        }
+
+        int compareElements(int a, boolean reflectedA, int b, boolean reflectedB) {
+            int rayA = rayAt(a % count, reflectedA);
+            int rayB = rayAt(b % count, reflectedB);
+            int sizeA = start[rayA + 1] - start[rayA];
+            int sizeB = start[rayB + 1] - start[rayB];
+            if (sizeA != sizeB) {
+                return Integer.compare(sizeA, sizeB);
+            }
+            for (int i = 0; i < sizeA; i++) {
+                int c = compare(rho[start[rayA] + i], rho[start[rayB] + i]);
+                if (c != 0) {
+                    return c;
+                }
+            }
+            return compare(gapAt(a % count, reflectedA), gapAt(b % count, reflectedB));
+        }
+
+        int compare(double a, double b) {
+            return Math.abs(a - b) <= tolerance ? 0 : Double.compare(a, b);
+        }
+
+        /**
+         * Compare the string read from two positions, both in the given direction.
+         */
+        int compareRotations(int a, boolean reflectedA, int b, boolean reflectedB) {
+            for (int i = 0; i < count; i++) {
+                int c = compareElements(a + i, reflectedA, b + i, reflectedB);
+                if (c != 0) {
+                    return c;
+                }
+            }
+            return 0;
+        }
+
+        /**
+         * The position from which the string is lexicographically smallest, found with Booth's algorithm in O(count)
+         * comparisons of elements.
+         */
+        int leastRotation(boolean reflected) {
+            int[] failure = new int[2 * count];
+            Arrays.fill(failure, -1);
+            int k = 0;
+            for (int j = 1; j < 2 * count; j++) {
+                int i = failure[j - k - 1];
+                int c = compareElements(j, reflected, k + i + 1, reflected);
+                while (i != -1 && c != 0) {
+                    if (c < 0) {
+                        k = j - i - 1;
+                    }
+                    i = failure[i];
+                    c = compareElements(j, reflected, k + i + 1, reflected);
+                }
+                if (c != 0) {
+                    // Here i is -1, so the element was compared with the one at k.
+                    if (c < 0) {
+                        k = j;
+                    }
+                    failure[j - k] = -1;
+                } else {
+                    failure[j - k] = i + 1;
+                }
+            }
+            return k % count;
+        }
+    }
+
+    /**
+     * The number of points in the configuration.
+     */
+    public int size() {
+        return coordinates.length / 2;
+    }
+
+    /**
+     * The canonical positions of the points, with the center of the smallest enclosing circle at the origin and
+     * its radius as unit length. The points at the center come first.
+     */
+    public Vector[] getPositions() {
+        Vector[] positions = new Vector[size()];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = new Vector(coordinates[2 * i], coordinates[2 * i + 1]);
+        }
+        return positions;
+    }
+
+    /**
+     * A 64-bit hash of the configuration, the same for similar configurations.
+     */
+    public long hash64() {
+        return hash;
+    }
+
+    /**
+     * A 128-bit hash of the configuration, the same for similar configurations, as two longs.
+     * The first one is {@link #hash64()}, the second one is computed independently of it.
+     */
+    public long[] hash128() {
+        return new long[]{hash, hash2};
+    }
+
+    /**
+     * Whether the other configuration is similar to this one, that is, whether their canonical positions are the same
+     * when rounded to {@link #HASH_QUANTUM}.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (!(obj instanceof CanonicalConfiguration)) {
+            return false;
+        }
+        CanonicalConfiguration other = (CanonicalConfiguration) obj;
+        if (coordinates.length != other.coordinates.length) {
+            return false;
+        }
+        if (hash != other.hash || hash2 != other.hash2) {
+            return false;
+        }
+        for (int i = 0; i < coordinates.length; i++) {
+            if (quantize(coordinates[i]) != quantize(other.coordinates[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(hash);
+    }
+
+    @Override
+    public String toString() {
+        return "CanonicalConfiguration of " + size() + " points, hash " + Long.toHexString(hash);
+    }
+}
@@ -1,11 +1,14 @@
 package nl.tue.oblotsim.Util;
 
+import java.io.Serializable;
 import java.util.Collection;
 
 /**
  * A circle, to use in the smallest enclosing circle algorithm.
  */
-public class Circle {
+public class Circle implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     public final Vector c;   // Center
     public final double r;  // Radius
@@ -1,9 +1,13 @@
 package nl.tue.oblotsim.Util;
 
+import java.io.Serializable;
+
 /**
  * A class containing parameters for the {@link nl.tue.oblotsim.Simulator}
  */
-public class Config {
+public class Config implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     public Config(boolean multiplicity, double visibility, boolean interuptable) {
         this.multiplicity = multiplicity;
@@ -24,6 +28,13 @@ public class Config {
      */
     public boolean interuptable;
 
+    /**
+     * Whether or not the robots can see all other robots, which is the case for a negative or infinite visibility.
+     */
+    public boolean hasInfiniteVisibility() {
+        return visibility < 0 || Double.isInfinite(visibility);
+    }
+
     /**
      * If two floats differ less than this value, they are considered to be equal.
      */
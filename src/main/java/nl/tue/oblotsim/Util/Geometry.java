@@ -0,0 +1,79 @@
+package nl.tue.oblotsim.Util;
+
+/**
+ * The geometry of {@link Vector} and {@link Circle} on plain coordinates, for code that should not create any objects,
+ * such as algorithms that use a {@link nl.tue.oblotsim.algorithms.PrimitiveSnapshot}.
+ * The results are the same as those of the corresponding methods on vectors and circles.
+ * Points are computed one coordinate at a time, so that no array or vector is needed to return them.
+ */
+public final class Geometry {
+
+    private Geometry() {
+    }
+
+    /**
+     * The distance between (ax, ay) and (bx, by), like {@link Vector#dist(Vector, Vector)}.
+     */
+    public static double dist(double ax, double ay, double bx, double by) {
+        double distX = ax - bx;
+        double distY = ay - by;
+        return Math.sqrt(distX * distX + distY * distY);
+    }
+
+    /**
+     * The squared distance between (ax, ay) and (bx, by), which is cheaper to compare than the distance.
+     */
+    public static double distSquared(double ax, double ay, double bx, double by) {
+        double distX = ax - bx;
+        double distY = ay - by;
+        return distX * distX + distY * distY;
+    }
+
+    /**
+     * The smallest angle between the vectors (ax, ay) and (bx, by), like {@link Vector#angle(Vector, Vector)}.
+     * @return the angle, positive if anticlockwise, negative if clockwise
+     */
+    public static double angle(double ax, double ay, double bx, double by) {
+        double dot = ax * bx + ay * by;
+        double det = ax * by - ay * bx;
+        return Math.atan2(det, dot);
+    }
+
+    /**
+     * The angle abc between the line segments ba and bc, like {@link Vector#angle(Vector, Vector, Vector)}.
+     * @return the angle, positive if anticlockwise, negative if clockwise
+     */
+    public static double angle(double ax, double ay, double bx, double by, double cx, double cy) {
+        return angle(ax - bx, ay - by, cx - bx, cy - by);
+    }
+
+    /**
+     * Whether (px, py) is on the circle around (cx, cy) with radius r, like {@link Circle#on(Vector)}.
+     */
+    public static boolean onCircle(double cx, double cy, double r, double px, double py) {
+        double dist = dist(px, py, cx, cy);
+        return dist < r * (1 + Config.EPSILON) && dist > r * (1 - Config.EPSILON);
+    }
+
+    /**
+     * The x coordinate of the point on the circle around (cx, cy) with radius r that is closest to (px, py),
+     * like {@link Circle#getPointOnCircle(Vector)}.
+     */
+    public static double pointOnCircleX(double cx, double cy, double r, double px, double py) {
+        if (onCircle(cx, cy, r, px, py)) {
+            return px;
+        }
+        return (px - cx) * (r / dist(px, py, cx, cy)) + cx;
+    }
+
+    /**
+     * The y coordinate of the point on the circle around (cx, cy) with radius r that is closest to (px, py),
+     * like {@link Circle#getPointOnCircle(Vector)}.
+     */
+    public static double pointOnCircleY(double cx, double cy, double r, double px, double py) {
+        if (onCircle(cx, cy, r, px, py)) {
+            return py;
+        }
+        return (py - cy) * (r / dist(px, py, cx, cy)) + cy;
+    }
+}
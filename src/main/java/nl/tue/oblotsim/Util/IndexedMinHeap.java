@@ -0,0 +1,208 @@
+package nl.tue.oblotsim.Util;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A binary min-heap of the indices 0 to capacity - 1, ordered by a double key per index.
+ *
+ * Unlike a {@link java.util.PriorityQueue}, the key of an index already in the heap can be changed or removed in
+ * O(log n), because the heap keeps track of where every index is. Indices with equal keys are ordered by index,
+ * so the order in which they come out does not depend on the order in which they were added.
+ */
+public class IndexedMinHeap implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The indices, in heap order.
+     */
+    private final int[] heap;
+
+    /**
+     * For every index, its position in the heap, or -1 if it is not in the heap.
+     */
+    private final int[] position;
+
+    /**
+     * For every index, its key.
+     */
+    private final double[] keys;
+
+    private int size = 0;
+
+    /**
+     * Create an empty heap.
+     * @param capacity the number of indices that can be stored: 0 up to (excluding) capacity
+     */
+    public IndexedMinHeap(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("capacity should be at least 0");
+        }
+        heap = new int[capacity];
+        position = new int[capacity];
+        keys = new double[capacity];
+        Arrays.fill(position, -1);
+    }
+
+    /**
+     * The number of indices in the heap.
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * The number of indices that can be stored.
+     */
+    public int capacity() {
+        return heap.length;
+    }
+
+    /**
+     * Find out whether an index is in the heap.
+     */
+    public boolean contains(int index) {
+        return position[index] >= 0;
+    }
+
+    /**
+     * The key of an index in the heap.
+     */
+    public double getKey(int index) {
+        if (!contains(index)) {
+            throw new NoSuchElementException("Index " + index + " is not in the heap");
+        }
+        return keys[index];
+    }
+
+    /**
+     * Add an index to the heap, or change its key if it is already in there.
+     * @param index the index
+     * @param key the new key of the index
+     */
+    public void set(int index, double key) {
+        if (Double.isNaN(key)) {
+            throw new IllegalArgumentException("The key should be a number");
+        }
+        if (contains(index)) {
+            double oldKey = keys[index];
+            keys[index] = key;
+            if (key < oldKey) {
+                siftUp(position[index]);
+            } else {
+                siftDown(position[index]);
+            }
+        } else {
+            keys[index] = key;
+            heap[size] = index;
+            position[index] = size;
+            size++;
+            siftUp(size - 1);
+        }
+    }
+
+    /**
+     * Remove an index from the heap, if it is in there.
+     */
+    public void remove(int index) {
+        if (!contains(index)) {
+            return;
+        }
+        int i = position[index];
+        size--;
+        swap(i, size);
+        position[index] = -1;
+        if (i < size) {
+            siftUp(i);
+            siftDown(i);
+        }
+    }
+
+    /**
+     * The index with the smallest key.
+     */
+    public int peek() {
+        if (size == 0) {
+            throw new NoSuchElementException("The heap is empty");
+        }
+        return heap[0];
+    }
+
+    /**
+     * The smallest key.
+     */
+    public double peekKey() {
+        return keys[peek()];
+    }
+
+    /**
+     * Remove the index with the smallest key from the heap.
+     * @return the removed index
+     */
+    public int poll() {
+        int index = peek();
+        remove(index);
+        return index;
+    }
+
+    /**
+     * Remove all indices from the heap.
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            position[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    private boolean less(int i, int j) {
+        int a = heap[i];
+        int b = heap[j];
+        return keys[a] < keys[b] || (keys[a] == keys[b] && a < b);
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (!less(i, parent)) {
+                return;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int smallest = i;
+            int left = 2 * i + 1;
+            int right = left + 1;
+            if (left < size && less(left, smallest)) {
+                smallest = left;
+            }
+            if (right < size && less(right, smallest)) {
+                smallest = right;
+            }
+            if (smallest == i) {
+                return;
+            }
+            swap(i, smallest);
+            i = smallest;
+        }
+    }
+
+    private void swap(int i, int j) {
+        int a = heap[i];
+        int b = heap[j];
+        heap[i] = b;
+        heap[j] = a;
+        position[b] = i;
+        position[a] = j;
+    }
+}
@@ -0,0 +1,44 @@
+package nl.tue.oblotsim.Util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A map with a maximum size that evicts the least-recently accessed entry when it grows beyond that size.
+ *
+ * Not thread-safe: even {@link #get(Object)} modifies the access order. A cache should either be used from a single
+ * thread, or every access should be synchronized on a common lock, as {@link nl.tue.oblotsim.algorithms.AlgorithmResultCache} does.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+public class LruCache<K, V> extends LinkedHashMap<K, V> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int maxSize;
+
+    /**
+     * Creates a new, empty cache.
+     * @param maxSize the maximum number of entries to keep
+     */
+    public LruCache(int maxSize) {
+        super(16, 0.75f, true);
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize should be strictly greater than 0");
+        }
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * The maximum number of entries this cache holds.
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+        return size() > maxSize;
+    }
+}
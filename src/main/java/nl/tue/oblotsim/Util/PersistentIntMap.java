@@ -0,0 +1,428 @@
+package nl.tue.oblotsim.Util;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * An immutable map from int keys to values, where changing a few entries creates a new map that shares
+ * everything else with the old one.
+ * <p>
+ * The map is a hash array mapped trie that uses the key itself as the hash: every level of the trie is indexed by
+ * 5 bits of the key, so a lookup visits at most 7 nodes and a {@link #put} or {@link #remove} copies only the
+ * nodes on the path to the key, which is O(log n) memory instead of the O(n) of copying a {@link java.util.HashMap}.
+ * Entries are kept inline in their nodes until two keys share a path, and a removal pulls a lone entry back up,
+ * so the shape of the trie only depends on the keys in it.
+ * <p>
+ * Many changes at once can be made with a {@link Builder}, which changes the nodes it copied in place instead of
+ * copying them again for every change.
+ *
+ * @param <V> the type of the values, which may not be null
+ */
+public final class PersistentIntMap<V> {
+
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+
+    private static final PersistentIntMap<?> EMPTY = new PersistentIntMap<>(new Node(null, 0, 0, new int[0], new Object[0], new Node[0]), 0);
+
+    /**
+     * A node of the trie. For every 5-bit fragment of a key at this level, either dataMap has the bit set and the
+     * entry is stored in keys and values, or nodeMap has the bit set and the entries are in a child node, or neither.
+     * Entries and children are stored in the order of their fragment.
+     */
+    private static final class Node {
+        // The builder that may change this node in place, null if nobody may.
+        final Object owner;
+        int dataMap;
+        int nodeMap;
+        int[] keys;
+        Object[] values;
+        Node[] children;
+
+        Node(Object owner, int dataMap, int nodeMap, int[] keys, Object[] values, Node[] children) {
+            this.owner = owner;
+            this.dataMap = dataMap;
+            this.nodeMap = nodeMap;
+            this.keys = keys;
+            this.values = values;
+            this.children = children;
+        }
+
+        /**
+         * This node if the owner may change it, or otherwise a copy that it may change, with its own arrays,
+         * since changing the arrays in place would change this node as well.
+         */
+        Node editable(Object owner) {
+            return owner != null && this.owner == owner ? this : new Node(owner, dataMap, nodeMap, keys.clone(), values.clone(), children.clone());
+        }
+
+        /**
+         * The node for exactly two entries whose keys agree up to the given level.
+         */
+        static Node pair(Object owner, int key1, Object value1, int key2, Object value2, int shift) {
+            int fragment1 = fragment(key1, shift);
+            int fragment2 = fragment(key2, shift);
+            if (fragment1 == fragment2) {
+                Node child = pair(owner, key1, value1, key2, value2, shift + BITS);
+                return new Node(owner, 0, 1 << fragment1, new int[0], new Object[0], new Node[]{child});
+            } else if (fragment1 < fragment2) {
+                return new Node(owner, (1 << fragment1) | (1 << fragment2), 0, new int[]{key1, key2}, new Object[]{value1, value2}, new Node[0]);
+            } else {
+                return new Node(owner, (1 << fragment1) | (1 << fragment2), 0, new int[]{key2, key1}, new Object[]{value2, value1}, new Node[0]);
+            }
+        }
+
+        Object get(int key, int shift) {
+            Node node = this;
+            while (true) {
+                int bit = 1 << fragment(key, shift);
+                if ((node.dataMap & bit) != 0) {
+                    int index = index(node.dataMap, bit);
+                    return node.keys[index] == key ? node.values[index] : null;
+                }
+                if ((node.nodeMap & bit) == 0) {
+                    return null;
+                }
+                node = node.children[index(node.nodeMap, bit)];
+                shift += BITS;
+            }
+        }
+
+        /**
+         * The node with the given entry added or replaced, which is this node itself if the owner may change it.
+         */
+        Node put(Object owner, int key, Object value, int shift) {
+            int bit = 1 << fragment(key, shift);
+            if ((dataMap & bit) != 0) {
+                int index = index(dataMap, bit);
+                if (keys[index] == key) {
+                    if (values[index] == value) {
+                        return this;
+                    }
+                    Node node = editable(owner);
+                    node.values[index] = value;
+                    return node;
+                }
+                // Two keys with the same fragment, so both move down into a new child.
+                Node child = pair(owner, keys[index], values[index], key, value, shift + BITS);
+                Node node = editable(owner);
+                node.keys = removeAt(keys, index);
+                node.values = removeAt(values, index);
+                node.children = insertAt(children, index(nodeMap, bit), child);
+                node.dataMap = dataMap ^ bit;
+                node.nodeMap = nodeMap | bit;
+                return node;
+            }
+            if ((nodeMap & bit) != 0) {
+                int index = index(nodeMap, bit);
+                Node child = children[index].put(owner, key, value, shift + BITS);
+                if (child == children[index]) {
+                    return this;
+                }
+                Node node = editable(owner);
+                node.children[index] = child;
+                return node;
+            }
+            int index = index(dataMap, bit);
+            Node node = editable(owner);
+            node.keys = insertAt(keys, index, key);
+            node.values = insertAt(values, index, value);
+            node.dataMap = dataMap | bit;
+            return node;
+        }
+
+        /**
+         * The node without the entry for the given key, which is this node itself if there is no such entry
+         * or the owner may change it.
+         */
+        Node remove(Object owner, int key, int shift) {
+            int bit = 1 << fragment(key, shift);
+            if ((dataMap & bit) != 0) {
+                int index = index(dataMap, bit);
+                if (keys[index] != key) {
+                    return this;
+                }
+                Node node = editable(owner);
+                node.keys = removeAt(keys, index);
+                node.values = removeAt(values, index);
+                node.dataMap = dataMap ^ bit;
+                return node;
+            }
+            if ((nodeMap & bit) != 0) {
+                int index = index(nodeMap, bit);
+                Node child = children[index].remove(owner, key, shift + BITS);
+                if (child == children[index] && (owner == null || child.owner != owner)) {
+                    return this;
+                }
+                Node node = editable(owner);
+                if (child.nodeMap == 0 && child.keys.length == 1) {
+                    // A lone entry moves back up, so the trie stays as shallow as it would be without the removed key.
+                    int dataIndex = index(dataMap, bit);
+                    node.keys = insertAt(keys, dataIndex, child.keys[0]);
+                    node.values = insertAt(values, dataIndex, child.values[0]);
+                    node.children = removeAt(children, index);
+                    node.dataMap = dataMap | bit;
+                    node.nodeMap = nodeMap ^ bit;
+                } else {
+                    node.children[index] = child;
+                }
+                return node;
+            }
+            return this;
+        }
+    }
+
+    private final Node root;
+    private final int size;
+
+    private PersistentIntMap(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <V> PersistentIntMap<V> empty() {
+        return (PersistentIntMap<V>) EMPTY;
+    }
+
+    private static int fragment(int key, int shift) {
+        return (key >>> shift) & MASK;
+    }
+
+    private static int index(int map, int bit) {
+        return Integer.bitCount(map & (bit - 1));
+    }
+
+    private static int[] insertAt(int[] array, int index, int element) {
+        int[] result = new int[array.length + 1];
+        System.arraycopy(array, 0, result, 0, index);
+        result[index] = element;
+        System.arraycopy(array, index, result, index + 1, array.length - index);
+        return result;
+    }
+
+    private static int[] removeAt(int[] array, int index) {
+        int[] result = new int[array.length - 1];
+        System.arraycopy(array, 0, result, 0, index);
+        System.arraycopy(array, index + 1, result, index, result.length - index);
+        return result;
+    }
+
+    private static <T> T[] insertAt(T[] array, int index, T element) {
+        T[] result = Arrays.copyOf(array, array.length + 1);
+        System.arraycopy(array, index, result, index + 1, array.length - index);
+        result[index] = element;
+        return result;
+    }
+
+    private static <T> T[] removeAt(T[] array, int index) {
+        T[] result = Arrays.copyOf(array, array.length - 1);
+        System.arraycopy(array, index + 1, result, index, result.length - index);
+        return result;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * The value for the given key, or null if there is none.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        return (V) root.get(key, 0);
+    }
+
+    public boolean containsKey(int key) {
+        return root.get(key, 0) != null;
+    }
+
+    /**
+     * A map with the given entry added, or replaced if there was one for the key already. This map is not changed.
+     */
+    public PersistentIntMap<V> put(int key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("value should not be null");
+        }
+        Node newRoot = root.put(null, key, value, 0);
+        return newRoot == root ? this : new PersistentIntMap<>(newRoot, containsKey(key) ? size : size + 1);
+    }
+
+    /**
+     * A map without the entry for the given key. This map is not changed.
+     */
+    public PersistentIntMap<V> remove(int key) {
+        if (!containsKey(key)) {
+            return this;
+        }
+        return new PersistentIntMap<>(root.remove(null, key, 0), size - 1);
+    }
+
+    /**
+     * Start making changes to a copy of this map.
+     */
+    public Builder<V> toBuilder() {
+        return new Builder<>(this);
+    }
+
+    /**
+     * Call the given consumer for every value, in the order of the trie.
+     */
+    @SuppressWarnings("unchecked")
+    public void forEachValue(Consumer<? super V> consumer) {
+        Deque<Node> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            Node node = stack.pop();
+            for (Object value : node.values) {
+                consumer.accept((V) value);
+            }
+            for (Node child : node.children) {
+                stack.push(child);
+            }
+        }
+    }
+
+    /**
+     * An unmodifiable {@link Map} view of this map. Creating it is free, and lookups go straight to the trie.
+     */
+    public Map<Integer, V> asMap() {
+        return new MapView<>(this);
+    }
+
+    private static final class MapView<V> extends AbstractMap<Integer, V> {
+        private final PersistentIntMap<V> map;
+
+        MapView(PersistentIntMap<V> map) {
+            this.map = map;
+        }
+
+        @Override
+        public int size() {
+            return map.size;
+        }
+
+        @Override
+        public V get(Object key) {
+            return key instanceof Integer ? map.get((Integer) key) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof Integer && map.containsKey((Integer) key);
+        }
+
+        @Override
+        public Set<Entry<Integer, V>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<Integer, V>> iterator() {
+                    return new EntryIterator<>(map.root);
+                }
+
+                @Override
+                public int size() {
+                    return map.size;
+                }
+            };
+        }
+    }
+
+    private static final class EntryIterator<V> implements Iterator<Map.Entry<Integer, V>> {
+        private final Deque<Node> stack = new ArrayDeque<>();
+        private Node node;
+        private int index = 0;
+
+        EntryIterator(Node root) {
+            this.node = root;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (index == node.keys.length) {
+                for (Node child : node.children) {
+                    stack.push(child);
+                }
+                if (stack.isEmpty()) {
+                    return false;
+                }
+                node = stack.pop();
+                index = 0;
+            }
+            return true;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Map.Entry<Integer, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Map.Entry<Integer, V> entry = Map.entry(node.keys[index], (V) node.values[index]);
+            index++;
+            return entry;
+        }
+    }
+
+    /**
+     * Makes many changes to a map at once. The nodes a builder has copied belong to it and are changed in place
+     * by later changes, so a batch of k changes copies every node at most once instead of k times.
+     * A builder should only be used by one thread at a time.
+     *
+     * @param <V> the type of the values
+     */
+    public static final class Builder<V> {
+        private Object owner = new Object();
+        private Node root;
+        private int size;
+
+        private Builder(PersistentIntMap<V> map) {
+            this.root = map.root;
+            this.size = map.size;
+        }
+
+        public Builder<V> put(int key, V value) {
+            if (value == null) {
+                throw new IllegalArgumentException("value should not be null");
+            }
+            if (root.get(key, 0) == null) {
+                size++;
+            }
+            root = root.put(owner, key, value, 0);
+            return this;
+        }
+
+        public Builder<V> remove(int key) {
+            if (root.get(key, 0) != null) {
+                size--;
+                root = root.remove(owner, key, 0);
+            }
+            return this;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        /**
+         * The map with all changes so far. The builder can be used further without changing the returned map.
+         */
+        public PersistentIntMap<V> build() {
+            // The nodes copied so far are part of the returned map now, so later changes have to copy them again.
+            owner = new Object();
+            return new PersistentIntMap<>(root, size);
+        }
+    }
+}
@@ -1,101 +1,179 @@
 package nl.tue.oblotsim.Util;
 
-import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Random;
 
 /**
  * Find the smallest enclosing circle for a set of points in expected O(n) time using Welzl's algorithm
+ *
+ * The algorithm is implemented iteratively on primitive coordinate arrays: after a random shuffle, every point
+ * that falls outside of the current circle is moved to the boundary, which is the move-to-front variant of Welzl.
+ * This needs no recursion, so it works for any number of points.
  */
 public class SmallestEnclosingCircle {
 
     /**
-     * The random object used for the randomized algorithm.
+     * The seed of the shuffle if no random number generator is given.
+     * The last bits of the circle depend on the order of the points, so a fixed seed makes the result reproducible.
+     * Every call gets its own generator, so concurrent calls do not contend on a shared one.
      */
-    private static Random random = new Random();
+    private static final long DEFAULT_SEED = 0x5EC0L;
 
     /**
      * Find the smallest enclosing circle of a set of points in expected O(n) time.
      * @param P the points to find the circle for
-     * @return the smallest enclosing circle
+     * @return the smallest enclosing circle, null if there are no points
      */
     public static Circle makeCircle(List<Vector> P) {
-        //filter duplicates by changing to a set otherwise we do not always have enough when we find three points on the circle
-        P = new ArrayList<>(new HashSet<>(P));
-        return makeCircle(P, new ArrayList<>());
+        return makeCircle(P, new Random(DEFAULT_SEED));
     }
 
     /**
-     * Find the minimum enclosing circle for points P with points R on the boundary
-     * @param P the points for which to find the SEC
-     * @param R the points that we already know are on the boundary
-     * @return the SEC of points P with points R on the boundary
+     * Find the smallest enclosing circle of a set of points in expected O(n) time.
+     * @param P the points to find the circle for
+     * @param rng the random number generator used to shuffle the points
+     * @return the smallest enclosing circle, null if there are no points
      */
-    private static Circle makeCircle(List<Vector> P, List<Vector> R) {
-        if (P.size() == 0 || R.size() == 3) {
-            return trivial(R);
+    public static Circle makeCircle(List<Vector> P, Random rng) {
+        int n = P.size();
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        for (int i = 0; i < n; i++) {
+            Vector p = P.get(i);
+            xs[i] = p.x;
+            ys[i] = p.y;
         }
-        if (R.size() > 3) {
-            throw new IllegalArgumentException("Cannot guarantee a circle through more than 3 points");
+        return makeCircleInPlace(xs, ys, n, rng);
+    }
+
+    /**
+     * Find the smallest enclosing circle of the first n points in the given coordinate arrays in expected O(n) time.
+     * The arrays are not modified.
+     * @param xs the x coordinates of the points
+     * @param ys the y coordinates of the points
+     * @param n the number of points
+     * @return the smallest enclosing circle, null if n is 0
+     */
+    public static Circle makeCircle(double[] xs, double[] ys, int n) {
+        return makeCircle(xs, ys, n, new Random(DEFAULT_SEED));
+    }
+
+    /**
+     * Find the smallest enclosing circle of the first n points in the given coordinate arrays in expected O(n) time.
+     * The arrays are not modified.
+     * @param xs the x coordinates of the points
+     * @param ys the y coordinates of the points
+     * @param n the number of points
+     * @param rng the random number generator used to shuffle the points
+     * @return the smallest enclosing circle, null if n is 0
+     */
+    public static Circle makeCircle(double[] xs, double[] ys, int n, Random rng) {
+        return makeCircleInPlace(xs.clone(), ys.clone(), n, rng);
+    }
+
+    /**
+     * Find the smallest enclosing circle of the first n points in the given coordinate arrays in expected O(n) time,
+     * without allocating anything but the result.
+     * <p>
+     * Warning: the points are shuffled in place, so the order of the first n entries of the arrays is changed.
+     *
+     * @param xs the x coordinates of the points
+     * @param ys the y coordinates of the points
+     * @param n the number of points
+     * @param rng the random number generator used to shuffle the points
+     * @return the smallest enclosing circle, null if n is 0
+     */
+    public static Circle makeCircleInPlace(double[] xs, double[] ys, int n, Random rng) {
+        if (n == 0) {
+            return null;
+        }
+
+        // Shuffle, so the expected running time is linear regardless of the input order.
+        for (int i = n - 1; i > 0; i--) {
+            int j = rng.nextInt(i + 1);
+            double tmp = xs[i];
+            xs[i] = xs[j];
+            xs[j] = tmp;
+            tmp = ys[i];
+            ys[i] = ys[j];
+            ys[j] = tmp;
         }
-        int randomIndex = random.nextInt(P.size());
-        Vector p = P.get(randomIndex);
-        List<Vector> newP = new ArrayList<>(P);
-        newP.remove(randomIndex);
-        Circle D = makeCircle(newP, R);
-        if (D != null && D.contains(p) && !D.on(p)) {
-            return D;
+
+        // The circle is stored as (cx, cy, r) in this array, so the helpers below can update it without allocating.
+        double[] c = {xs[0], ys[0], 0.0};
+
+        for (int i = 1; i < n; i++) {
+            if (contains(c, xs[i], ys[i])) {
+                continue;
+            }
+            // Point i must lie on the boundary of the circle of the first i+1 points.
+            c[0] = xs[i];
+            c[1] = ys[i];
+            c[2] = 0.0;
+            for (int j = 0; j < i; j++) {
+                if (contains(c, xs[j], ys[j])) {
+                    continue;
+                }
+                // Points i and j must both lie on the boundary.
+                circleThrough(c, xs[i], ys[i], xs[j], ys[j]);
+                for (int k = 0; k < j; k++) {
+                    if (!contains(c, xs[k], ys[k])) {
+                        // Points i, j and k all lie on the boundary, which determines the circle.
+                        circleThrough(c, xs[i], ys[i], xs[j], ys[j], xs[k], ys[k]);
+                    }
+                }
+            }
         }
-        List<Vector> newR = new ArrayList<>(R);
-        newR.add(p);
-        return makeCircle(newP, newR);
+
+        return new Circle(new Vector(c[0], c[1]), c[2]);
     }
 
     /**
-     * Finding the SEC for the trivial cases of 0, 1, 2 or 3 points.
-     * @param R the points to find the SEC for
-     * @return the SEC of points R
+     * Find out if a point lies inside or on the circle, with the same tolerance as {@link Circle#contains(Vector)}.
      */
-    private static Circle trivial(List<Vector> R) {
-        switch (R.size()) {
-            case 0:
-                return null;
-            case 1:
-                return new Circle(R.get(0), 0);
-            case 2:
-                return makeCircle(R.get(0), R.get(1));
-            case 3:
-                return makeCircle(R.get(0), R.get(1), R.get(2));
-            default:
-                throw new IllegalArgumentException("Only a circle through 3 or less points is trivial");
-        }
+    private static boolean contains(double[] c, double x, double y) {
+        double dx = x - c[0];
+        double dy = y - c[1];
+        return Math.sqrt(dx * dx + dy * dy) <= c[2] * (1 + Config.EPSILON);
     }
 
     /**
-     * Make the circle through 2 points
-     * @param a first point
-     * @param b second point
-     * @return the circle through 2 points
+     * Store the smallest circle through 2 points in c.
      */
-    private static Circle makeCircle(Vector a, Vector b) {
-        Vector center = a.add(b).mult(1.0/2.0);
-        return new Circle(center, a.dist(b) / 2.0);
+    private static void circleThrough(double[] c, double ax, double ay, double bx, double by) {
+        c[0] = (ax + bx) / 2.0;
+        c[1] = (ay + by) / 2.0;
+        double dx = ax - bx;
+        double dy = ay - by;
+        c[2] = Math.sqrt(dx * dx + dy * dy) / 2.0;
     }
 
     /**
-     * Find the circle through 3 points
-     * @param a first point
-     * @param b second point
-     * @param c third point
-     * @return the circle through 3 points
+     * Store the circle through 3 points in c.
+     * If the points are (nearly) collinear, this is the smallest circle through the two points furthest apart.
      */
-    private static Circle makeCircle(Vector a, Vector b, Vector c) {
-        double d = 2 * (a.x * (b.y - c.y) + b.x * (c.y - a.y) + c.x * (a.y - b.y));
-        double x = ((a.x*a.x + a.y*a.y)*(b.y - c.y) + (b.x*b.x + b.y*b.y)*(c.y - a.y) + (c.x*c.x + c.y*c.y)*(a.y - b.y)) / d;
-        double y = ((a.x*a.x + a.y*a.y)*(c.x - b.x) + (b.x*b.x + b.y*b.y)*(a.x - c.x) + (c.x*c.x + c.y*c.y)*(b.x - a.x)) / d;
-        Vector CoC = new Vector(x, y);
-        double r = CoC.dist(a);
-        return new Circle(CoC, r);
+    private static void circleThrough(double[] c, double ax, double ay, double bx, double by, double cx, double cy) {
+        double d = 2 * (ax * (by - cy) + bx * (cy - ay) + cx * (ay - by));
+        if (d == 0) {
+            double ab = (ax - bx) * (ax - bx) + (ay - by) * (ay - by);
+            double ac = (ax - cx) * (ax - cx) + (ay - cy) * (ay - cy);
+            double bc = (bx - cx) * (bx - cx) + (by - cy) * (by - cy);
+            if (ab >= ac && ab >= bc) {
+                circleThrough(c, ax, ay, bx, by);
+            } else if (ac >= bc) {
+                circleThrough(c, ax, ay, cx, cy);
+            } else {
+                circleThrough(c, bx, by, cx, cy);
+            }
+            return;
+        }
+        double a2 = ax * ax + ay * ay;
+        double b2 = bx * bx + by * by;
+        double c2 = cx * cx + cy * cy;
+        double x = (a2 * (by - cy) + b2 * (cy - ay) + c2 * (ay - by)) / d;
+        double y = (a2 * (cx - bx) + b2 * (ax - cx) + c2 * (bx - ax)) / d;
+        c[0] = x;
+        c[1] = y;
+        c[2] = Math.sqrt((x - ax) * (x - ax) + (y - ay) * (y - ay));
     }
 }
@@ -0,0 +1,114 @@
+package nl.tue.oblotsim.Util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * A bounded queue for handing elements from exactly one producer thread to exactly one consumer thread without locks.
+ * <p>
+ * The producer only writes the tail and the consumer only writes the head, so each side only has to publish its own
+ * counter with release semantics, and neither ever waits for the other. Using it from more than one producer or
+ * more than one consumer thread at a time breaks it.
+ *
+ * @param <E> the type of the elements
+ */
+public class SpscRingBuffer<E> {
+
+    private final Object[] elements;
+    private final int mask;
+
+    /**
+     * The number of elements taken so far. Only written by the consumer.
+     */
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * The number of elements added so far. Only written by the producer.
+     */
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * Creates a new, empty ring buffer.
+     * @param capacity the maximum number of elements, which is rounded up to a power of two
+     */
+    public SpscRingBuffer(int capacity) {
+        if (capacity <= 0 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("capacity should be between 1 and 2^30");
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.elements = new Object[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * The maximum number of elements in the buffer.
+     */
+    public int capacity() {
+        return elements.length;
+    }
+
+    /**
+     * Add an element at the end, if there is room. Only to be called by the producer.
+     * @param element the element to add, not null
+     * @return whether the element was added, false if the buffer is full
+     */
+    public boolean offer(E element) {
+        if (element == null) {
+            throw new IllegalArgumentException("element should not be null");
+        }
+        long t = tail.get();
+        if (t - head.get() == elements.length) {
+            return false;
+        }
+        elements[(int) t & mask] = element;
+        // Publishes the element to the consumer.
+        tail.lazySet(t + 1);
+        return true;
+    }
+
+    /**
+     * Take the element at the front. Only to be called by the consumer.
+     * @return the element, or null if the buffer is empty
+     */
+    @SuppressWarnings("unchecked")
+    public E poll() {
+        long h = head.get();
+        if (h == tail.get()) {
+            return null;
+        }
+        int index = (int) h & mask;
+        E element = (E) elements[index];
+        elements[index] = null;
+        // Hands the slot back to the producer.
+        head.lazySet(h + 1);
+        return element;
+    }
+
+    /**
+     * Take all elements that are in the buffer now, in order. Only to be called by the consumer.
+     * @param consumer called for every element
+     * @return the number of elements taken
+     */
+    public int drain(Consumer<? super E> consumer) {
+        // Elements the producer adds in the meantime are left for the next call, so this always returns.
+        int count = size();
+        for (int i = 0; i < count; i++) {
+            consumer.accept(poll());
+        }
+        return count;
+    }
+
+    /**
+     * The number of elements in the buffer. Only exact when neither side is changing it.
+     */
+    public int size() {
+        return (int) (tail.get() - head.get());
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+}
@@ -0,0 +1,154 @@
+package nl.tue.oblotsim.Util;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A spatial index that buckets points into square cells, to quickly find all points within some distance of a point.
+ *
+ * Building the grid takes O(n). A query within distance d of a point only looks at the cells that intersect the
+ * square around it, so with a cell size of about d it costs time proportional to the number of points nearby.
+ * Only the cells between the lowest and highest occupied cell are looked at, and when those are more than the points,
+ * for example for a very large distance, all points are checked instead, so a query never costs more than O(n).
+ * The grid does not change after it is built, so it can be queried from multiple threads at the same time.
+ */
+public class UniformGrid {
+
+    private final Vector[] points;
+    private final double cellSize;
+
+    /**
+     * The first point in every non-empty cell.
+     */
+    private final Map<Long, Integer> firstInCell;
+
+    /**
+     * For every point, the next point in the same cell, or -1 if it is the last one.
+     */
+    private final int[] nextInCell;
+
+    /**
+     * The range of cells that contain points, so queries do not look beyond it.
+     */
+    private final int minCellX;
+    private final int maxCellX;
+    private final int minCellY;
+    private final int maxCellY;
+
+    /**
+     * Build a grid for the given points.
+     * @param points the points to index, which should not be modified while the grid is in use
+     * @param cellSize the width and height of a cell, ideally about the distance that will be queried
+     */
+    public UniformGrid(Vector[] points, double cellSize) {
+        if (!(cellSize > 0) || Double.isInfinite(cellSize)) {
+            throw new IllegalArgumentException("cellSize should be a positive number");
+        }
+        this.points = points;
+        this.cellSize = cellSize;
+        this.firstInCell = new HashMap<>();
+        this.nextInCell = new int[points.length];
+
+        int minX = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE;
+        int minY = Integer.MAX_VALUE;
+        int maxY = Integer.MIN_VALUE;
+        // Insert in reverse, so every cell lists its points in increasing order.
+        for (int i = points.length - 1; i >= 0; i--) {
+            int x = cell(points[i].x);
+            int y = cell(points[i].y);
+            Integer first = firstInCell.put(key(x, y), i);
+            nextInCell[i] = first == null ? -1 : first;
+            minX = Math.min(minX, x);
+            maxX = Math.max(maxX, x);
+            minY = Math.min(minY, y);
+            maxY = Math.max(maxY, y);
+        }
+        this.minCellX = minX;
+        this.maxCellX = maxX;
+        this.minCellY = minY;
+        this.maxCellY = maxY;
+    }
+
+    /**
+     * Find all points within some distance of a point.
+     * @param center the point to search around
+     * @param distance the maximum distance, inclusive
+     * @return the points within the distance of center, in the same order as they were given to the grid
+     */
+    public Vector[] within(Vector center, double distance) {
+        int[] found = indicesWithin(center, distance);
+        Vector[] result = new Vector[found.length];
+        for (int i = 0; i < found.length; i++) {
+            result[i] = points[found[i]];
+        }
+        return result;
+    }
+
+    /**
+     * Find the indices of all points within some distance of a point.
+     * @param center the point to search around
+     * @param distance the maximum distance, inclusive
+     * @return the indices of the points within the distance of center, in increasing order
+     */
+    public int[] indicesWithin(Vector center, double distance) {
+        // Cells are computed with saturation, so the range is clamped to the occupied cells and looped over as longs.
+        long minX = Math.max(cell(center.x - distance), minCellX);
+        long maxX = Math.min(cell(center.x + distance), maxCellX);
+        long minY = Math.max(cell(center.y - distance), minCellY);
+        long maxY = Math.min(cell(center.y + distance), maxCellY);
+        double distanceSquared = distance * distance;
+        if (minX > maxX || minY > maxY) {
+            return new int[0];
+        }
+
+        int[] found = new int[16];
+        int count = 0;
+        if ((double) (maxX - minX + 1) * (maxY - minY + 1) > points.length) {
+            // More cells than points, so checking every point is cheaper. They are found in increasing order.
+            for (int i = 0; i < points.length; i++) {
+                double dx = points[i].x - center.x;
+                double dy = points[i].y - center.y;
+                if (dx * dx + dy * dy <= distanceSquared) {
+                    if (count == found.length) {
+                        found = Arrays.copyOf(found, 2 * count);
+                    }
+                    found[count++] = i;
+                }
+            }
+            return Arrays.copyOf(found, count);
+        }
+
+        for (long x = minX; x <= maxX; x++) {
+            for (long y = minY; y <= maxY; y++) {
+                Integer first = firstInCell.get(key((int) x, (int) y));
+                if (first == null) {
+                    continue;
+                }
+                for (int i = first; i >= 0; i = nextInCell[i]) {
+                    double dx = points[i].x - center.x;
+                    double dy = points[i].y - center.y;
+                    if (dx * dx + dy * dy <= distanceSquared) {
+                        if (count == found.length) {
+                            found = Arrays.copyOf(found, 2 * count);
+                        }
+                        found[count++] = i;
+                    }
+                }
+            }
+        }
+
+        int[] result = Arrays.copyOf(found, count);
+        Arrays.sort(result);
+        return result;
+    }
+
+    private int cell(double coordinate) {
+        return (int) Math.floor(coordinate / cellSize);
+    }
+
+    private static long key(int x, int y) {
+        return ((long) x << 32) | (y & 0xffffffffL);
+    }
+}
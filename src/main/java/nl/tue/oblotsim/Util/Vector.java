@@ -1,10 +1,15 @@
 package nl.tue.oblotsim.Util;
 
+import java.io.Serializable;
+
 /**
  * A vector containing 2 doubles, used for example as position calculator
  * No function modifies the original vector!
  */
-public class Vector {
+public class Vector implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
     public static final Vector ZERO = new Vector(0.0, 0.0);
     /**
      * The x coordinate of the vector.
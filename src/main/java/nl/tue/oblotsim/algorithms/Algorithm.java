@@ -1,13 +1,35 @@
 package nl.tue.oblotsim.algorithms;
 
+import nl.tue.oblotsim.RobotPaths.PathDescription;
 import nl.tue.oblotsim.RobotPaths.RobotPath;
 import nl.tue.oblotsim.Simulator.Robot;
+import nl.tue.oblotsim.Util.Circle;
 import nl.tue.oblotsim.Util.Vector;
 
+import java.io.Serializable;
+import java.util.function.Supplier;
+
 /**
  * An abstract class that is a template for algorithms run by {@link Robot}
  */
-public abstract class Algorithm {
+public abstract class Algorithm implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Whether a class of algorithms overrides {@link #doAlgorithm(PrimitiveSnapshot, PathDescription)},
+     * found out once per class.
+     */
+    private static final ClassValue<Boolean> USES_PRIMITIVE_SNAPSHOT = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            try {
+                return type.getMethod("doAlgorithm", PrimitiveSnapshot.class, PathDescription.class).getDeclaringClass() != Algorithm.class;
+            } catch (NoSuchMethodException e) {
+                throw new IllegalStateException("Algorithm.doAlgorithm(PrimitiveSnapshot, PathDescription) is missing", e);
+            }
+        }
+    };
 
 //    Vector origin = new Vector(0, 0);
 
@@ -19,4 +41,69 @@ public abstract class Algorithm {
      * @return The position in local space the robot wants to move to
      */
     public abstract RobotPath doAlgorithm(Vector[] snapshot);
+
+    /**
+     * Calculate a list of positions to go to, given a certain snapshot of the robots and a way to get their smallest
+     * enclosing circle without computing it from the snapshot.
+     * Algorithms that need the smallest enclosing circle can override this, the default ignores the circle.
+     * @param snapshot an iterable of all the positions of the robots at the time of the snapshot in the local coordinate
+     *                 system of the robot
+     * @param smallestEnclosingCircle supplies the smallest enclosing circle of the snapshot, in the same local
+     *                                coordinate system
+     * @return The position in local space the robot wants to move to
+     */
+    public RobotPath doAlgorithm(Vector[] snapshot, Supplier<Circle> smallestEnclosingCircle) {
+        return doAlgorithm(snapshot);
+    }
+
+    /**
+     * Calculate a list of positions to go to, given a view of the snapshot that converts the positions to local
+     * coordinates only when they are asked for.
+     * Algorithms that do not need every position, or only need the smallest enclosing circle, can override this to
+     * avoid converting the others. The default converts all of them and calls {@link #doAlgorithm(Vector[], Supplier)}.
+     * @param snapshot the positions of the robots at the time of the snapshot in the local coordinate system of the robot
+     * @return The position in local space the robot wants to move to
+     */
+    public RobotPath doAlgorithm(LocalSnapshot snapshot) {
+        return doAlgorithm(snapshot.toArray(), snapshot::smallestEnclosingCircle);
+    }
+
+    /**
+     * Calculate the path to follow from the positions of the robots as plain coordinates, and describe it in the given
+     * path, without creating any objects. The simulation reuses the snapshot and the path between computations,
+     * so the whole computation does not allocate anything, which matters for large swarms.
+     * Overriding this is enough for the simulation to use it, see {@link #usesPrimitiveSnapshot()}.
+     * The other methods are still used when the snapshot is not available as plain coordinates,
+     * so they should not be implemented by calling this one.
+     * <p>
+     * The default converts the snapshot to vectors, calls {@link #doAlgorithm(Vector[], Supplier)} and describes the
+     * path it returns, which does create objects. The simulation does not call it for algorithms that do not override it.
+     * @param snapshot the positions of the robots at the time of the snapshot in the local coordinate system of the
+     *                 robot, which should only be read
+     * @param path an empty description to add the path to, starting at the origin
+     */
+    public void doAlgorithm(PrimitiveSnapshot snapshot, PathDescription path) {
+        path.append(doAlgorithm(snapshot.toArray(), snapshot::smallestEnclosingCircle));
+    }
+
+    /**
+     * Whether this algorithm overrides {@link #doAlgorithm(PrimitiveSnapshot, PathDescription)}, which the simulation
+     * then uses instead of the other methods whenever it has the snapshot as plain coordinates.
+     * This is found out from the class of the algorithm, once per class.
+     * @return true if the class of this algorithm or one of its superclasses overrides that method
+     */
+    public final boolean usesPrimitiveSnapshot() {
+        return USES_PRIMITIVE_SNAPSHOT.get(getClass());
+    }
+
+    /**
+     * Whether the path this algorithm computes only depends on the set of positions in the snapshot, so that it can be
+     * reused by an {@link AlgorithmResultCache} whenever the same snapshot is seen again.
+     * Robots are oblivious, so this holds for most algorithms, but not for algorithms that use random numbers, keep
+     * state, depend on the order of the positions in the snapshot or differ between instances of the same class.
+     * @return true to allow caching the results of this algorithm, false by default
+     */
+    public boolean isDeterministic() {
+        return false;
+    }
 }
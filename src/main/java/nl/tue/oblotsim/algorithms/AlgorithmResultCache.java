@@ -0,0 +1,201 @@
+package nl.tue.oblotsim.algorithms;
+
+import nl.tue.oblotsim.RobotPaths.RobotPath;
+import nl.tue.oblotsim.Util.LruCache;
+import nl.tue.oblotsim.Util.Vector;
+
+import java.util.Arrays;
+import java.util.function.IntToDoubleFunction;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the paths computed by {@link Algorithm#isDeterministic() deterministic} algorithms for the local snapshots
+ * they were given, so that the same snapshot does not have to be computed again. Under a fully synchronous scheduler,
+ * or when many runs of a batch start from the same configuration, the same snapshots come up again and again.
+ * <p>
+ * Snapshots are compared as sets of positions, with every coordinate rounded to a multiple of the quantum,
+ * so a snapshot that differs from an earlier one by less than that gets the path computed for the earlier one.
+ * Only the most recently used results are kept. A cache can be shared between simulations on several threads.
+ */
+public class AlgorithmResultCache {
+
+    public static final int DEFAULT_MAX_SIZE = 1 << 14;
+    public static final double DEFAULT_QUANTUM = 1e-9;
+
+    /**
+     * A snapshot in canonical form: the rounded coordinates in increasing order of x and then y,
+     * together with the class of the algorithm.
+     */
+    private static final class Key {
+        final Class<?> algorithm;
+        final long[] coordinates;
+        final int hash;
+
+        Key(Class<?> algorithm, long[] coordinates) {
+            this.algorithm = algorithm;
+            this.coordinates = coordinates;
+            this.hash = 31 * algorithm.hashCode() + Arrays.hashCode(coordinates);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return hash == other.hash && algorithm == other.algorithm && Arrays.equals(coordinates, other.coordinates);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private final double quantum;
+    private final LruCache<Key, RobotPath> results;
+    private long hits = 0;
+    private long misses = 0;
+
+    public AlgorithmResultCache() {
+        this(DEFAULT_MAX_SIZE, DEFAULT_QUANTUM);
+    }
+
+    /**
+     * Creates a new, empty cache.
+     * @param maxSize the maximum number of results to keep
+     * @param quantum the precision to which snapshots are compared
+     */
+    public AlgorithmResultCache(int maxSize, double quantum) {
+        if (!(quantum > 0)) {
+            throw new IllegalArgumentException("quantum should be strictly greater than 0");
+        }
+        this.quantum = quantum;
+        this.results = new LruCache<>(maxSize);
+    }
+
+    /**
+     * Get the path the algorithm computes for the given snapshot from the cache, or compute it and remember it.
+     * Algorithms that are not deterministic are always computed.
+     *
+     * @param algorithm the algorithm that computes the path
+     * @param localSnapshot the snapshot in the local coordinate system of the robot
+     * @param compute computes the path for the snapshot if it is not in the cache
+     * @return the path in the local coordinate system, which the caller may change
+     */
+    public RobotPath calculate(Algorithm algorithm, Vector[] localSnapshot, Supplier<RobotPath> compute) {
+        if (!algorithm.isDeterministic()) {
+            return compute.get();
+        }
+        return lookup(algorithm, canonical(localSnapshot.length, i -> localSnapshot[i].x, i -> localSnapshot[i].y), compute);
+    }
+
+    /**
+     * Get the path the algorithm computes for the given primitive snapshot from the cache, like
+     * {@link #calculate(Algorithm, Vector[], Supplier)}.
+     *
+     * @param algorithm the algorithm that computes the path
+     * @param localSnapshot the snapshot in the local coordinate system of the robot
+     * @param compute computes the path for the snapshot if it is not in the cache
+     * @return the path in the local coordinate system, which the caller may change
+     */
+    public RobotPath calculate(Algorithm algorithm, PrimitiveSnapshot localSnapshot, Supplier<RobotPath> compute) {
+        if (!algorithm.isDeterministic()) {
+            return compute.get();
+        }
+        return lookup(algorithm, canonical(localSnapshot.size(), localSnapshot::x, localSnapshot::y), compute);
+    }
+
+    private RobotPath lookup(Algorithm algorithm, long[] coordinates, Supplier<RobotPath> compute) {
+        Key key = new Key(algorithm.getClass(), coordinates);
+        RobotPath cached;
+        synchronized (this) {
+            cached = results.get(key);
+            if (cached != null) {
+                hits++;
+            } else {
+                misses++;
+            }
+        }
+        if (cached != null) {
+            return cached.copy();
+        }
+
+        // Computed outside of the lock, so other threads can use the cache in the meantime.
+        RobotPath path = compute.get();
+        RobotPath stored = path.copy();
+        synchronized (this) {
+            results.put(key, stored);
+        }
+        return path;
+    }
+
+    /**
+     * Get the path the algorithm computes for the given view of a snapshot from the cache, like
+     * {@link #calculate(Algorithm, Vector[], Supplier)}. The view is only converted to local coordinates in full
+     * when the algorithm is deterministic, since all positions are needed to look up the path.
+     *
+     * @param algorithm the algorithm that computes the path
+     * @param localSnapshot the view of the snapshot in the local coordinate system of the robot
+     * @param compute computes the path for the snapshot if it is not in the cache
+     * @return the path in the local coordinate system, which the caller may change
+     */
+    public RobotPath calculate(Algorithm algorithm, LocalSnapshot localSnapshot, Supplier<RobotPath> compute) {
+        if (!algorithm.isDeterministic()) {
+            return compute.get();
+        }
+        return calculate(algorithm, localSnapshot.toArray(), compute);
+    }
+
+    private long[] canonical(int n, IntToDoubleFunction x, IntToDoubleFunction y) {
+        long[][] points = new long[n][];
+        for (int i = 0; i < n; i++) {
+            points[i] = new long[]{Math.round(x.applyAsDouble(i) / quantum), Math.round(y.applyAsDouble(i) / quantum)};
+        }
+        Arrays.sort(points, (a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+
+        long[] coordinates = new long[2 * points.length];
+        for (int i = 0; i < points.length; i++) {
+            coordinates[2 * i] = points[i][0];
+            coordinates[2 * i + 1] = points[i][1];
+        }
+        return coordinates;
+    }
+
+    /**
+     * The number of times a path was found in the cache.
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * The number of times a path of a deterministic algorithm was not found in the cache and had to be computed.
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * The fraction of lookups that were found in the cache, or 0 if there were none.
+     */
+    public synchronized double getHitRate() {
+        return hits + misses == 0 ? 0.0 : (double) hits / (hits + misses);
+    }
+
+    /**
+     * The number of results in the cache.
+     */
+    public synchronized int size() {
+        return results.size();
+    }
+
+    /**
+     * Forget all results and reset the counters.
+     */
+    public synchronized void clear() {
+        results.clear();
+        hits = 0;
+        misses = 0;
+    }
+}
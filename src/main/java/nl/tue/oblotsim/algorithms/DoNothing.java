@@ -9,8 +9,20 @@ import nl.tue.oblotsim.Util.Vector;
  */
 public class DoNothing extends Algorithm {
 
+    private static final long serialVersionUID = 1L;
+
     @Override
     public RobotPath doAlgorithm(Vector[] snapshot) {
         return new LinearPath(Vector.ZERO);
     }
+
+    @Override
+    public RobotPath doAlgorithm(LocalSnapshot snapshot) {
+        return new LinearPath(Vector.ZERO);
+    }
+
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
 }
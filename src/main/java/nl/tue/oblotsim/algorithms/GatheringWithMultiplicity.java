@@ -9,6 +9,7 @@ import nl.tue.oblotsim.Util.Vector;
 
 import java.util.*;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
@@ -16,8 +17,16 @@ import java.util.stream.Collectors;
  * and infinite visibility for an even amount of robots > 2
  */
 public class GatheringWithMultiplicity extends Algorithm {
+
+    private static final long serialVersionUID = 1L;
+
     @Override
     public RobotPath doAlgorithm(Vector[] snapshot) {
+        return doAlgorithm(snapshot, () -> SmallestEnclosingCircle.makeCircle(Arrays.asList(snapshot)));
+    }
+
+    @Override
+    public RobotPath doAlgorithm(Vector[] snapshot, Supplier<Circle> smallestEnclosingCircle) {
         if (snapshot.length == 2) {
             throw new IllegalArgumentException("Gathering with multiplicity does not support 2 robots");
         }
@@ -43,7 +52,7 @@ public class GatheringWithMultiplicity extends Algorithm {
         }
         // there is no dense point, so do the angle thingy.
         // first check if there is a robot at the CoC
-        Circle SEC = SmallestEnclosingCircle.makeCircle(Arrays.asList(snapshot));
+        Circle SEC = smallestEnclosingCircle.get();
         Vector CoC = SEC.c; // the center of the smallest enclosing circle
 
         boolean robotAtCoC = Arrays.asList(snapshot).contains(CoC);
@@ -1,6 +1,7 @@
 package nl.tue.oblotsim.algorithms;
 
 import nl.tue.oblotsim.RobotPaths.LinearPath;
+import nl.tue.oblotsim.RobotPaths.PathDescription;
 import nl.tue.oblotsim.RobotPaths.RobotPath;
 import nl.tue.oblotsim.Util.Vector;
 
@@ -8,12 +9,34 @@ import nl.tue.oblotsim.Util.Vector;
  * An algorithm that computes the center of gravity of all visible robots and goes there.
  */
 public class GoToCoG extends Algorithm {
+
+    private static final long serialVersionUID = 1L;
+
     @Override
     public RobotPath doAlgorithm(Vector[] snapshot) {
-        Vector total = new Vector(0, 0);
+        double totalX = 0;
+        double totalY = 0;
         for (Vector v : snapshot) {
-            total = total.add(v);
+            totalX += v.x;
+            totalY += v.y;
         }
-        return new LinearPath(new Vector(total.x / snapshot.length, total.y / snapshot.length));
+        return new LinearPath(new Vector(totalX / snapshot.length, totalY / snapshot.length));
+    }
+
+    @Override
+    public void doAlgorithm(PrimitiveSnapshot snapshot, PathDescription path) {
+        int n = snapshot.size();
+        double totalX = 0;
+        double totalY = 0;
+        for (int i = 0; i < n; i++) {
+            totalX += snapshot.x(i);
+            totalY += snapshot.y(i);
+        }
+        path.lineTo(totalX / n, totalY / n);
+    }
+
+    @Override
+    public boolean isDeterministic() {
+        return true;
     }
 }
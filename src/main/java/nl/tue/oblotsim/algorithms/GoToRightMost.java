@@ -1,17 +1,44 @@
 package nl.tue.oblotsim.algorithms;
 
 import nl.tue.oblotsim.RobotPaths.LinearPath;
+import nl.tue.oblotsim.RobotPaths.PathDescription;
 import nl.tue.oblotsim.RobotPaths.RobotPath;
 import nl.tue.oblotsim.Util.Vector;
 
-import java.util.Arrays;
-
 /**
- * Algorithm that always moves robots to the rightmost robot.
+ * Algorithm that always moves robots to the rightmost robot, or the topmost of them if there are several.
  */
 public class GoToRightMost extends Algorithm {
+
+    private static final long serialVersionUID = 1L;
+
     @Override
     public RobotPath doAlgorithm(Vector[] snapshot) {
-        return new LinearPath(Arrays.stream(snapshot).max((a, b) -> Double.compare(a.x, b.x)).get());
+        // The topmost of the rightmost robots if there are several, so the result does not depend on their order.
+        Vector rightMost = snapshot[0];
+        for (Vector v : snapshot) {
+            if (v.x > rightMost.x || v.x == rightMost.x && v.y > rightMost.y) {
+                rightMost = v;
+            }
+        }
+        return new LinearPath(rightMost);
+    }
+
+    @Override
+    public void doAlgorithm(PrimitiveSnapshot snapshot, PathDescription path) {
+        // The same robot as for a snapshot of vectors.
+        int rightMost = 0;
+        for (int i = 1; i < snapshot.size(); i++) {
+            if (snapshot.x(i) > snapshot.x(rightMost)
+                    || snapshot.x(i) == snapshot.x(rightMost) && snapshot.y(i) > snapshot.y(rightMost)) {
+                rightMost = i;
+            }
+        }
+        path.lineTo(snapshot.x(rightMost), snapshot.y(rightMost));
+    }
+
+    @Override
+    public boolean isDeterministic() {
+        return true;
     }
 }
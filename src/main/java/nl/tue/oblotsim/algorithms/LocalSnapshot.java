@@ -0,0 +1,85 @@
+package nl.tue.oblotsim.algorithms;
+
+import nl.tue.oblotsim.Util.Circle;
+import nl.tue.oblotsim.Util.Vector;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Supplier;
+
+/**
+ * The positions of the robots as seen by one robot, in its local coordinate system, where it is at the origin.
+ * <p>
+ * Unlike a {@code Vector[]}, a view does not have to convert all positions to local coordinates up front:
+ * an implementation such as {@link TransformedSnapshot} converts a position when it is first asked for and remembers it.
+ * Algorithms that only look at a few robots, or only at the {@link #smallestEnclosingCircle() smallest enclosing circle},
+ * can override {@link Algorithm#doAlgorithm(LocalSnapshot)} to avoid converting the rest.
+ * <p>
+ * The returned vectors may be shared with later calls and should not be changed. A view is meant to be used by the
+ * computation of one robot at a time and is not thread safe.
+ */
+public interface LocalSnapshot extends Iterable<Vector> {
+
+    /**
+     * The number of robots in the snapshot.
+     */
+    int size();
+
+    /**
+     * The position of robot i in local coordinates.
+     * @throws IndexOutOfBoundsException if i is not in [0, size())
+     */
+    Vector get(int i);
+
+    /**
+     * The index of the robot whose view this is, so the robot at the origin, or -1 if it is not part of the snapshot.
+     */
+    int ownIndex();
+
+    /**
+     * The smallest enclosing circle of the snapshot in local coordinates,
+     * which is computed from the positions if it was not already known.
+     */
+    Circle smallestEnclosingCircle();
+
+    /**
+     * All positions in local coordinates, in the order of their indices.
+     * @return a new array, which converts all positions that were not converted yet
+     */
+    default Vector[] toArray() {
+        Vector[] positions = new Vector[size()];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = get(i);
+        }
+        return positions;
+    }
+
+    @Override
+    default Iterator<Vector> iterator() {
+        return new Iterator<>() {
+            private int next = 0;
+
+            @Override
+            public boolean hasNext() {
+                return next < size();
+            }
+
+            @Override
+            public Vector next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return get(next++);
+            }
+        };
+    }
+
+    /**
+     * A view of positions that are already in local coordinates.
+     * @param positions the positions in local coordinates, which are not copied
+     * @param smallestEnclosingCircle supplies their smallest enclosing circle, or null to compute it when needed
+     */
+    static LocalSnapshot of(Vector[] positions, Supplier<Circle> smallestEnclosingCircle) {
+        return new TransformedSnapshot(positions, smallestEnclosingCircle);
+    }
+}
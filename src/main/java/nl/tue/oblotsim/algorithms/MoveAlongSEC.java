@@ -1,25 +1,59 @@
 package nl.tue.oblotsim.algorithms;
 
-import nl.tue.oblotsim.RobotPaths.CircularPath;
-import nl.tue.oblotsim.RobotPaths.CombinedPath;
-import nl.tue.oblotsim.RobotPaths.LinearPath;
+import nl.tue.oblotsim.RobotPaths.PathDescription;
 import nl.tue.oblotsim.RobotPaths.RobotPath;
 import nl.tue.oblotsim.Util.Circle;
+import nl.tue.oblotsim.Util.Geometry;
 import nl.tue.oblotsim.Util.SmallestEnclosingCircle;
 import nl.tue.oblotsim.Util.Vector;
 
 import java.util.Arrays;
-import java.util.List;
+import java.util.function.Supplier;
 
 public class MoveAlongSEC extends Algorithm {
+
+    private static final long serialVersionUID = 1L;
+
     @Override
     public RobotPath doAlgorithm(Vector[] snapshot) {
-        Circle SEC = SmallestEnclosingCircle.makeCircle(Arrays.asList(snapshot));
-        Vector onCircle = SEC.getPointOnCircle(Vector.ZERO);
-        Vector toCenter = SEC.c.sub(onCircle);
-        RobotPath circlePath =  new CircularPath(onCircle, SEC.c, onCircle.add(toCenter).add(toCenter), false);
-        RobotPath linePath = new LinearPath(onCircle);
-        List<RobotPath> paths = Arrays.asList(linePath, circlePath);
-        return new CombinedPath(paths);
+        return doAlgorithm(snapshot, () -> SmallestEnclosingCircle.makeCircle(Arrays.asList(snapshot)));
+    }
+
+    @Override
+    public RobotPath doAlgorithm(Vector[] snapshot, Supplier<Circle> smallestEnclosingCircle) {
+        return doAlgorithm(LocalSnapshot.of(snapshot, smallestEnclosingCircle));
+    }
+
+    /**
+     * Only uses the smallest enclosing circle, so the positions are not converted when the circle is already known.
+     */
+    @Override
+    public RobotPath doAlgorithm(LocalSnapshot snapshot) {
+        Circle SEC = snapshot.smallestEnclosingCircle();
+        PathDescription path = new PathDescription();
+        describe(SEC.c.x, SEC.c.y, SEC.r, path);
+        return path.toPath();
+    }
+
+    @Override
+    public void doAlgorithm(PrimitiveSnapshot snapshot, PathDescription path) {
+        describe(snapshot.circleX(), snapshot.circleY(), snapshot.circleRadius(), path);
+    }
+
+    /**
+     * Move to the closest point on the circle, then half way around it.
+     */
+    private static void describe(double centerX, double centerY, double radius, PathDescription path) {
+        double onCircleX = Geometry.pointOnCircleX(centerX, centerY, radius, 0, 0);
+        double onCircleY = Geometry.pointOnCircleY(centerX, centerY, radius, 0, 0);
+        double toCenterX = centerX - onCircleX;
+        double toCenterY = centerY - onCircleY;
+        path.lineTo(onCircleX, onCircleY)
+                .arcTo(centerX, centerY, onCircleX + toCenterX + toCenterX, onCircleY + toCenterY + toCenterY, false);
+    }
+
+    @Override
+    public boolean isDeterministic() {
+        return true;
     }
 }
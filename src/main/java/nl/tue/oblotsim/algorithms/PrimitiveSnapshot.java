@@ -0,0 +1,222 @@
+package nl.tue.oblotsim.algorithms;
+
+import nl.tue.oblotsim.RobotPaths.PathDescription;
+import nl.tue.oblotsim.Util.Circle;
+import nl.tue.oblotsim.Util.Geometry;
+import nl.tue.oblotsim.Util.SmallestEnclosingCircle;
+import nl.tue.oblotsim.Util.Vector;
+import nl.tue.oblotsim.positiontransformations.PositionTransformation;
+
+import java.util.function.Supplier;
+
+/**
+ * The positions of the robots as seen by one robot, in its local coordinate system, as plain coordinates.
+ * Algorithms that override {@link Algorithm#doAlgorithm(PrimitiveSnapshot, PathDescription)} read the positions with
+ * {@link #x(int)} and {@link #y(int)}, which does not create any objects, unlike a {@code Vector[]}.
+ * <p>
+ * A snapshot is reused for the computations of many robots: {@link #load} replaces its contents and only allocates
+ * when it has to hold more robots than before. Algorithms should therefore not keep a reference to it.
+ * It is not thread safe, the simulation keeps one per thread.
+ *
+ * @see PathDescription
+ * @see Geometry
+ */
+public final class PrimitiveSnapshot {
+
+    /**
+     * The local positions, interleaved: the x and y of robot i are at 2i and 2i + 1.
+     */
+    private double[] coordinates = new double[0];
+    private int size = 0;
+
+    private double[] globalCoordinates;
+    private Vector origin;
+    private int ownIndex;
+
+    private PositionTransformation transformation;
+    private Supplier<Circle> smallestEnclosingCircle;
+    private boolean circleKnown;
+    private double circleX;
+    private double circleY;
+    private double circleRadius;
+    private final double[] circleBuffer = new double[4];
+
+    /**
+     * Load the view of one robot, converting all positions to its local coordinate system in bulk.
+     * @param globalCoordinates the interleaved positions of the robots in global coordinates, which are not changed
+     * @param n the number of robots
+     * @param transformation the transformation of the robot whose view this is
+     * @param origin the position of that robot in global coordinates
+     * @param smallestEnclosingCircle supplies the smallest enclosing circle in global coordinates,
+     *                                or null to compute it when needed
+     * @return this snapshot
+     */
+    public PrimitiveSnapshot load(double[] globalCoordinates, int n, PositionTransformation transformation, Vector origin, Supplier<Circle> smallestEnclosingCircle) {
+        ensureCapacity(n);
+        transformation.globalToLocal(globalCoordinates, coordinates, n, origin);
+        this.size = n;
+        this.globalCoordinates = globalCoordinates;
+        this.origin = origin;
+        this.ownIndex = -2;
+        this.transformation = transformation;
+        this.smallestEnclosingCircle = smallestEnclosingCircle;
+        this.circleKnown = false;
+        return this;
+    }
+
+    /**
+     * Load positions that are already in local coordinates.
+     * @param localPositions the positions in local coordinates, which are copied
+     * @param smallestEnclosingCircle supplies their smallest enclosing circle, or null to compute it when needed
+     * @return this snapshot
+     */
+    public PrimitiveSnapshot load(Vector[] localPositions, Supplier<Circle> smallestEnclosingCircle) {
+        int n = localPositions.length;
+        ensureCapacity(n);
+        for (int i = 0; i < n; i++) {
+            coordinates[2 * i] = localPositions[i].x;
+            coordinates[2 * i + 1] = localPositions[i].y;
+        }
+        this.size = n;
+        this.globalCoordinates = coordinates;
+        this.origin = Vector.ZERO;
+        this.ownIndex = -2;
+        this.transformation = null;
+        this.smallestEnclosingCircle = smallestEnclosingCircle;
+        this.circleKnown = false;
+        return this;
+    }
+
+    private void ensureCapacity(int n) {
+        if (coordinates.length < 2 * n) {
+            coordinates = new double[2 * n];
+        }
+    }
+
+    /**
+     * The number of robots in the snapshot.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * The x coordinate of robot i in local coordinates.
+     */
+    public double x(int i) {
+        if (i >= size) {
+            throw new IndexOutOfBoundsException("Index " + i + " out of bounds for size " + size);
+        }
+        return coordinates[2 * i];
+    }
+
+    /**
+     * The y coordinate of robot i in local coordinates.
+     */
+    public double y(int i) {
+        if (i >= size) {
+            throw new IndexOutOfBoundsException("Index " + i + " out of bounds for size " + size);
+        }
+        return coordinates[2 * i + 1];
+    }
+
+    /**
+     * The index of the robot whose view this is, so the robot at the origin, or -1 if it is not part of the snapshot.
+     */
+    public int ownIndex() {
+        if (ownIndex == -2) {
+            // Compared exactly in the coordinates the positions were given in.
+            ownIndex = -1;
+            for (int i = 0; i < size; i++) {
+                if (globalCoordinates[2 * i] == origin.x && globalCoordinates[2 * i + 1] == origin.y) {
+                    ownIndex = i;
+                    break;
+                }
+            }
+        }
+        return ownIndex;
+    }
+
+    /**
+     * The x coordinate of the center of the smallest enclosing circle of the snapshot in local coordinates.
+     */
+    public double circleX() {
+        ensureCircle();
+        return circleX;
+    }
+
+    /**
+     * The y coordinate of the center of the smallest enclosing circle of the snapshot in local coordinates.
+     */
+    public double circleY() {
+        ensureCircle();
+        return circleY;
+    }
+
+    /**
+     * The radius of the smallest enclosing circle of the snapshot in local coordinates.
+     */
+    public double circleRadius() {
+        ensureCircle();
+        return circleRadius;
+    }
+
+    /**
+     * The smallest enclosing circle of the snapshot in local coordinates, as a new circle.
+     */
+    public Circle smallestEnclosingCircle() {
+        ensureCircle();
+        return new Circle(new Vector(circleX, circleY), circleRadius);
+    }
+
+    /**
+     * All positions in local coordinates, in the order of their indices, for computations that need vectors.
+     * @return a new array with a new vector for every robot
+     */
+    public Vector[] toArray() {
+        Vector[] positions = new Vector[size];
+        for (int i = 0; i < size; i++) {
+            positions[i] = new Vector(coordinates[2 * i], coordinates[2 * i + 1]);
+        }
+        return positions;
+    }
+
+    /**
+     * Convert the known smallest enclosing circle like {@link PositionTransformation#globalToLocal(Circle, Vector)},
+     * but in the reused buffer, or compute it from the local positions if it is not known, which does create objects.
+     */
+    private void ensureCircle() {
+        if (circleKnown) {
+            return;
+        }
+        if (smallestEnclosingCircle == null) {
+            double[] xs = new double[size];
+            double[] ys = new double[size];
+            for (int i = 0; i < size; i++) {
+                xs[i] = coordinates[2 * i];
+                ys[i] = coordinates[2 * i + 1];
+            }
+            Circle circle = SmallestEnclosingCircle.makeCircle(xs, ys, size);
+            circleX = circle.c.x;
+            circleY = circle.c.y;
+            circleRadius = circle.r;
+        } else {
+            Circle circle = smallestEnclosingCircle.get();
+            if (transformation == null) {
+                circleX = circle.c.x;
+                circleY = circle.c.y;
+                circleRadius = circle.r;
+            } else {
+                circleBuffer[0] = circle.c.x;
+                circleBuffer[1] = circle.c.y;
+                circleBuffer[2] = circle.c.x + circle.r;
+                circleBuffer[3] = circle.c.y;
+                transformation.globalToLocal(circleBuffer, circleBuffer, 2, origin);
+                circleX = circleBuffer[0];
+                circleY = circleBuffer[1];
+                circleRadius = Geometry.dist(circleX, circleY, circleBuffer[2], circleBuffer[3]);
+            }
+        }
+        circleKnown = true;
+    }
+}
@@ -0,0 +1,165 @@
+package nl.tue.oblotsim.algorithms;
+
+import nl.tue.oblotsim.Util.Circle;
+import nl.tue.oblotsim.Util.SmallestEnclosingCircle;
+import nl.tue.oblotsim.Util.Vector;
+import nl.tue.oblotsim.positiontransformations.PositionTransformation;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * A {@link LocalSnapshot} that converts the global positions of the robots to the local coordinate system of one robot
+ * when they are asked for, and remembers the converted positions.
+ */
+public final class TransformedSnapshot implements LocalSnapshot {
+
+    /**
+     * Scratch space for converting all positions in bulk, one per thread since robots compute in parallel.
+     */
+    private static final ThreadLocal<double[]> BULK_BUFFER = ThreadLocal.withInitial(() -> new double[0]);
+
+    /**
+     * The global positions, either interleaved or as vectors; the other one is null.
+     * If both are null, the positions are already local and in {@link #local}.
+     */
+    private final double[] globalCoordinates;
+    private final Vector[] globalPositions;
+    private final PositionTransformation transformation;
+    private final Vector origin;
+
+    private final Vector[] local;
+    private int converted = 0;
+    private int ownIndex = -2;
+    private Supplier<Circle> smallestEnclosingCircle;
+    private Circle circle = null;
+
+    /**
+     * A view of interleaved global positions: the x and y of robot i are at 2i and 2i + 1.
+     * @param globalCoordinates the interleaved positions, which are not copied and should not change
+     * @param transformation the transformation of the robot whose view this is
+     * @param origin the position of that robot in global coordinates
+     * @param smallestEnclosingCircle supplies the smallest enclosing circle in local coordinates,
+     *                                or null to compute it when needed
+     */
+    public TransformedSnapshot(double[] globalCoordinates, PositionTransformation transformation, Vector origin, Supplier<Circle> smallestEnclosingCircle) {
+        if (globalCoordinates.length % 2 != 0) {
+            throw new IllegalArgumentException("Interleaved coordinates should have an even length, got " + globalCoordinates.length);
+        }
+        this.globalCoordinates = globalCoordinates;
+        this.globalPositions = null;
+        this.transformation = transformation;
+        this.origin = origin;
+        this.local = new Vector[globalCoordinates.length / 2];
+        this.smallestEnclosingCircle = smallestEnclosingCircle;
+    }
+
+    /**
+     * A view of global positions.
+     * @param globalPositions the positions, which are not copied and should not change
+     * @param transformation the transformation of the robot whose view this is
+     * @param origin the position of that robot in global coordinates
+     * @param smallestEnclosingCircle supplies the smallest enclosing circle in local coordinates,
+     *                                or null to compute it when needed
+     */
+    public TransformedSnapshot(Vector[] globalPositions, PositionTransformation transformation, Vector origin, Supplier<Circle> smallestEnclosingCircle) {
+        this.globalCoordinates = null;
+        this.globalPositions = globalPositions;
+        this.transformation = transformation;
+        this.origin = origin;
+        this.local = new Vector[globalPositions.length];
+        this.smallestEnclosingCircle = smallestEnclosingCircle;
+    }
+
+    /**
+     * A view of positions that are already local, see {@link LocalSnapshot#of(Vector[], Supplier)}.
+     */
+    TransformedSnapshot(Vector[] localPositions, Supplier<Circle> smallestEnclosingCircle) {
+        this.globalCoordinates = null;
+        this.globalPositions = null;
+        this.transformation = null;
+        this.origin = Vector.ZERO;
+        this.local = localPositions;
+        this.converted = localPositions.length;
+        this.smallestEnclosingCircle = smallestEnclosingCircle;
+    }
+
+    @Override
+    public int size() {
+        return local.length;
+    }
+
+    @Override
+    public Vector get(int i) {
+        Vector p = local[i];
+        if (p == null) {
+            p = globalCoordinates != null
+                    ? transformation.globalToLocal(new Vector(globalCoordinates[2 * i], globalCoordinates[2 * i + 1]), origin)
+                    : transformation.globalToLocal(globalPositions[i], origin);
+            local[i] = p;
+            converted++;
+        }
+        return p;
+    }
+
+    @Override
+    public int ownIndex() {
+        if (ownIndex == -2) {
+            ownIndex = -1;
+            for (int i = 0; i < local.length; i++) {
+                if (isOrigin(i)) {
+                    ownIndex = i;
+                    break;
+                }
+            }
+        }
+        return ownIndex;
+    }
+
+    /**
+     * Whether robot i is at the origin, compared exactly in the coordinates the positions were given in,
+     * so without converting them.
+     */
+    private boolean isOrigin(int i) {
+        if (globalCoordinates != null) {
+            return globalCoordinates[2 * i] == origin.x && globalCoordinates[2 * i + 1] == origin.y;
+        }
+        Vector p = globalPositions != null ? globalPositions[i] : local[i];
+        return p.x == origin.x && p.y == origin.y;
+    }
+
+    @Override
+    public Circle smallestEnclosingCircle() {
+        if (circle == null) {
+            circle = smallestEnclosingCircle != null
+                    ? smallestEnclosingCircle.get()
+                    : SmallestEnclosingCircle.makeCircle(Arrays.asList(toArray()));
+            smallestEnclosingCircle = null;
+        }
+        return circle;
+    }
+
+    @Override
+    public Vector[] toArray() {
+        if (converted == 0 && globalCoordinates != null) {
+            // Nothing was asked for yet, so convert everything at once. This batches the arithmetic,
+            // but the result is still a vector per robot.
+            int n = local.length;
+            double[] buffer = BULK_BUFFER.get();
+            if (buffer.length < 2 * n) {
+                buffer = new double[2 * n];
+                BULK_BUFFER.set(buffer);
+            }
+            transformation.globalToLocal(globalCoordinates, buffer, n, origin);
+            for (int i = 0; i < n; i++) {
+                local[i] = new Vector(buffer[2 * i], buffer[2 * i + 1]);
+            }
+            converted = n;
+        } else if (converted < local.length) {
+            for (int i = 0; i < local.length; i++) {
+                get(i);
+            }
+        }
+        return local.clone();
+    }
+}
@@ -0,0 +1,112 @@
+package nl.tue.oblotsim.batch;
+
+import nl.tue.oblotsim.Schedulers.Scheduler;
+import nl.tue.oblotsim.Util.Config;
+import nl.tue.oblotsim.algorithms.Algorithm;
+
+import java.io.File;
+import java.util.SplittableRandom;
+import java.util.function.Supplier;
+
+/**
+ * A single entry of a batch manifest: one starting configuration, run with one algorithm under one scheduler.
+ *
+ * Schedulers are stateful, so a factory is stored rather than an instance. Every run gets a fresh scheduler.
+ */
+public class BatchJob {
+
+    private final File robotFile;
+    private final Class<? extends Algorithm> algorithm;
+    private final String schedulerName;
+    private final Supplier<Scheduler> schedulerFactory;
+    private final Config config;
+    private final double timeCap;
+    private final long seed;
+
+    /**
+     * Creates a new batch job with a random seed.
+     * @param robotFile the file containing the starting positions, in the format read by {@link nl.tue.oblotsim.Simulator.Robot#robotsFromFile}
+     * @param algorithm the algorithm all robots will run. Must have a public no-argument constructor.
+     * @param schedulerName a human-readable name for the scheduler, used in the summary
+     * @param schedulerFactory a factory producing a fresh scheduler for this job
+     * @param config the configuration to run the simulation with
+     * @param timeCap the simulated time after which the run is stopped if it has not terminated by itself
+     */
+    public BatchJob(File robotFile, Class<? extends Algorithm> algorithm, String schedulerName,
+                    Supplier<Scheduler> schedulerFactory, Config config, double timeCap) {
+        this(robotFile, algorithm, schedulerName, schedulerFactory, config, timeCap, new SplittableRandom().nextLong());
+    }
+
+    /**
+     * Creates a new batch job.
+     * @param robotFile the file containing the starting positions, in the format read by {@link nl.tue.oblotsim.Simulator.Robot#robotsFromFile}
+     * @param algorithm the algorithm all robots will run. Must have a public no-argument constructor.
+     * @param schedulerName a human-readable name for the scheduler, used in the summary
+     * @param schedulerFactory a factory producing a fresh scheduler for this job
+     * @param config the configuration to run the simulation with
+     * @param timeCap the simulated time after which the run is stopped if it has not terminated by itself
+     * @param seed the seed of the simulation, which is written to the summary so the run can be reproduced
+     */
+    public BatchJob(File robotFile, Class<? extends Algorithm> algorithm, String schedulerName,
+                    Supplier<Scheduler> schedulerFactory, Config config, double timeCap, long seed) {
+        if (timeCap <= 0) {
+            throw new IllegalArgumentException("timeCap should be strictly greater than 0");
+        }
+        this.robotFile = robotFile;
+        this.algorithm = algorithm;
+        this.schedulerName = schedulerName;
+        this.schedulerFactory = schedulerFactory;
+        this.config = config;
+        this.timeCap = timeCap;
+        this.seed = seed;
+    }
+
+    /**
+     * The file containing the starting positions of the robots.
+     */
+    public File getRobotFile() {
+        return robotFile;
+    }
+
+    /**
+     * The algorithm class all robots run.
+     */
+    public Class<? extends Algorithm> getAlgorithm() {
+        return algorithm;
+    }
+
+    /**
+     * The name of the scheduler, as it appears in the summary.
+     */
+    public String getSchedulerName() {
+        return schedulerName;
+    }
+
+    /**
+     * The factory that produces a fresh scheduler for this job.
+     */
+    public Supplier<Scheduler> getSchedulerFactory() {
+        return schedulerFactory;
+    }
+
+    /**
+     * The configuration the simulation is run with.
+     */
+    public Config getConfig() {
+        return config;
+    }
+
+    /**
+     * The simulated time after which the run is cut off.
+     */
+    public double getTimeCap() {
+        return timeCap;
+    }
+
+    /**
+     * The seed the simulation is run with.
+     */
+    public long getSeed() {
+        return seed;
+    }
+}
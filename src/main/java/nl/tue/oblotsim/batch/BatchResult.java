@@ -0,0 +1,107 @@
+package nl.tue.oblotsim.batch;
+
+import java.util.Locale;
+
+/**
+ * The summary of a single batch run. One of these is written as a row of the batch output.
+ */
+public class BatchResult {
+
+    /**
+     * The column names of the summary, in the order produced by {@link #toCsvRow()}.
+     */
+    public static final String CSV_HEADER = "job, robotFile, algorithm, scheduler, seed, robots, events, simulatedTime, terminated, secRadius, wallTimeMs, error";
+
+    private final int jobIndex;
+    private final BatchJob job;
+    private final int robotCount;
+    private final int eventCount;
+    private final double simulatedTime;
+    private final boolean terminated;
+    private final double secRadius;
+    private final long wallTimeMillis;
+    private final String error;
+
+    /**
+     * Creates a new summary.
+     * @param jobIndex the index of the job in the manifest
+     * @param job the job this is the result of
+     * @param robotCount the number of robots in the run
+     * @param eventCount the number of calculated events
+     * @param simulatedTime the simulated time at which the run was stopped
+     * @param terminated true if the scheduler ran out of events or the robots converged before the time cap was reached
+     * @param secRadius radius of the smallest enclosing circle of the robots at the end of the run. 0 means gathered.
+     * @param wallTimeMillis how long the run took in real time
+     * @param error the message of the exception that aborted the run, null if the run completed
+     */
+    public BatchResult(int jobIndex, BatchJob job, int robotCount, int eventCount, double simulatedTime,
+                       boolean terminated, double secRadius, long wallTimeMillis, String error) {
+        this.jobIndex = jobIndex;
+        this.job = job;
+        this.robotCount = robotCount;
+        this.eventCount = eventCount;
+        this.simulatedTime = simulatedTime;
+        this.terminated = terminated;
+        this.secRadius = secRadius;
+        this.wallTimeMillis = wallTimeMillis;
+        this.error = error;
+    }
+
+    /**
+     * Format this result as a row matching {@link #CSV_HEADER}.
+     */
+    public String toCsvRow() {
+        return String.format(Locale.ROOT, "%d, %s, %s, %s, %d, %d, %d, %f, %b, %f, %d, %s",
+                jobIndex,
+                job.getRobotFile().getPath(),
+                job.getAlgorithm().getSimpleName(),
+                job.getSchedulerName(),
+                job.getSeed(),
+                robotCount,
+                eventCount,
+                simulatedTime,
+                terminated,
+                secRadius,
+                wallTimeMillis,
+                error == null ? "" : error.replace(',', ';').replace('\n', ' '));
+    }
+
+    public int getJobIndex() {
+        return jobIndex;
+    }
+
+    public BatchJob getJob() {
+        return job;
+    }
+
+    public int getRobotCount() {
+        return robotCount;
+    }
+
+    public int getEventCount() {
+        return eventCount;
+    }
+
+    public double getSimulatedTime() {
+        return simulatedTime;
+    }
+
+    public boolean isTerminated() {
+        return terminated;
+    }
+
+    public double getSecRadius() {
+        return secRadius;
+    }
+
+    public long getWallTimeMillis() {
+        return wallTimeMillis;
+    }
+
+    /**
+     * The message of the exception that aborted this run, or null if it completed.
+     */
+    public String getError() {
+        return error;
+    }
+}
@@ -0,0 +1,265 @@
+package nl.tue.oblotsim.batch;
+
+import nl.tue.oblotsim.Schedulers.AsyncScheduler;
+import nl.tue.oblotsim.Schedulers.FSyncScheduler;
+import nl.tue.oblotsim.Schedulers.HeapAsyncScheduler;
+import nl.tue.oblotsim.Schedulers.HeapSSyncScheduler;
+import nl.tue.oblotsim.Schedulers.SSyncScheduler;
+import nl.tue.oblotsim.Schedulers.Scheduler;
+import nl.tue.oblotsim.Simulator.Robot;
+import nl.tue.oblotsim.Simulator.Simulation;
+import nl.tue.oblotsim.Util.Config;
+import nl.tue.oblotsim.Util.SmallestEnclosingCircle;
+import nl.tue.oblotsim.Util.Vector;
+import nl.tue.oblotsim.algorithms.Algorithm;
+import nl.tue.oblotsim.algorithms.AlgorithmResultCache;
+import nl.tue.oblotsim.positiontransformations.RotationTransformation;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Headless engine that runs many simulations in parallel and writes one summary row per run.
+ *
+ * This class never touches the {@link nl.tue.oblotsim.gui} package, so JavaFX is never loaded.
+ *
+ * The manifest is a text file with one job per line, in the following format:<br>
+ * robotFile, algorithmClass, scheduler, multiplicity, visibility, interruptable, timeCap[, seed]<br>
+ * Where scheduler is one of FSYNC, SSYNC, ASYNC, HEAP_SSYNC or HEAP_ASYNC. Empty lines and lines starting with # are ignored.
+ * If the seed is left out, a random one is used. Either way, it is written to the summary so the run can be reproduced.
+ * Relative robot file paths are resolved against the directory of the manifest.
+ */
+public class BatchRunner {
+
+    private final ForkJoinPool pool;
+    private final AlgorithmResultCache resultCache;
+
+    /**
+     * Creates a new batch runner.
+     * @param parallelism the number of simulations to run at the same time
+     */
+    public BatchRunner(int parallelism) {
+        this(parallelism, null);
+    }
+
+    /**
+     * Creates a new batch runner whose simulations share a cache of algorithm results, which saves computing the same
+     * snapshots again when many jobs start from the same configuration.
+     * @param parallelism the number of simulations to run at the same time
+     * @param resultCache the cache to share, or null to not cache results
+     */
+    public BatchRunner(int parallelism, AlgorithmResultCache resultCache) {
+        this.pool = new ForkJoinPool(parallelism);
+        this.resultCache = resultCache;
+    }
+
+    /**
+     * The cache of algorithm results shared by the simulations, for instance to look at its hit rate, or null if there is none.
+     */
+    public AlgorithmResultCache getResultCache() {
+        return resultCache;
+    }
+
+    /**
+     * Run all jobs, writing a summary row for each one to the writer as soon as it completes.
+     * Rows are therefore not necessarily in manifest order, use the job column to correlate them.
+     *
+     * @param jobs the jobs to run
+     * @param out where to write the summary to. The header is written first.
+     * @return the results, in the same order as the jobs
+     */
+    public List<BatchResult> runAll(List<BatchJob> jobs, PrintWriter out) {
+        out.println(BatchResult.CSV_HEADER);
+        out.flush();
+
+        List<ForkJoinTask<BatchResult>> tasks = new ArrayList<>(jobs.size());
+        for (int i = 0; i < jobs.size(); i++) {
+            final int jobIndex = i;
+            tasks.add(pool.submit(() -> {
+                BatchResult result = run(jobIndex, jobs.get(jobIndex), resultCache);
+                synchronized (out) {
+                    out.println(result.toCsvRow());
+                    out.flush();
+                }
+                return result;
+            }));
+        }
+
+        return tasks.stream().map(ForkJoinTask::join).collect(Collectors.toList());
+    }
+
+    /**
+     * Stop accepting new jobs and release the worker threads once running jobs are done.
+     */
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Run a single job until the scheduler runs out of events, or until the time cap is reached.
+     * Exceptions thrown by the algorithm or scheduler are recorded in the result instead of aborting the batch.
+     *
+     * @param jobIndex the index of the job in the manifest
+     * @param job the job to run
+     * @return the summary of the run
+     */
+    public static BatchResult run(int jobIndex, BatchJob job) {
+        return run(jobIndex, job, null);
+    }
+
+    /**
+     * Run a single job like {@link #run(int, BatchJob)}, reusing algorithm results from the given cache.
+     *
+     * @param jobIndex the index of the job in the manifest
+     * @param job the job to run
+     * @param resultCache the cache to use, or null to not cache results
+     * @return the summary of the run
+     */
+    public static BatchResult run(int jobIndex, BatchJob job, AlgorithmResultCache resultCache) {
+        long startTime = System.currentTimeMillis();
+        int robotCount = 0;
+        int eventCount = 0;
+        double simulatedTime = 0.0;
+
+        try {
+            Algorithm algorithm = job.getAlgorithm().getDeclaredConstructor().newInstance();
+            List<Robot> robots = Robot.robotsFromFile(algorithm, RotationTransformation::new, job.getRobotFile());
+            if (robots == null) {
+                throw new IllegalArgumentException("Cannot read robots from " + job.getRobotFile().getPath());
+            }
+            robotCount = robots.size();
+
+            Simulation simulation = new Simulation(job.getConfig(), robots, job.getSchedulerFactory().get(), job.getSeed());
+            simulation.setResultCache(resultCache);
+
+            while (simulation.computedTimelineUntil() < Math.min(job.getTimeCap(), simulation.highestKnownLastEventTimeLowerBound())) {
+                if (simulation.simulateTillNextEvent().isEmpty()) {
+                    break;
+                }
+                eventCount++;
+            }
+
+            boolean terminated = simulation.computedTimelineUntil() == Double.POSITIVE_INFINITY;
+            simulatedTime = Math.min(job.getTimeCap(), simulation.highestKnownLastEventTimeLowerBound());
+
+            List<Vector> finalPositions = simulation.robotsAtTime(simulatedTime).stream().map(Robot::getPos).collect(Collectors.toList());
+            double secRadius = SmallestEnclosingCircle.makeCircle(finalPositions).r;
+
+            return new BatchResult(jobIndex, job, robotCount, eventCount, simulatedTime, terminated, secRadius,
+                    System.currentTimeMillis() - startTime, null);
+        } catch (Exception e) {
+            return new BatchResult(jobIndex, job, robotCount, eventCount, simulatedTime, false, Double.NaN,
+                    System.currentTimeMillis() - startTime, e.getClass().getSimpleName() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Read a manifest in the format described in the class documentation.
+     * @param manifest the file to read
+     * @return the jobs in the manifest, in order
+     * @throws FileNotFoundException if the manifest cannot be found
+     * @throws IllegalArgumentException if a line is not in the correct format
+     */
+    public static List<BatchJob> readManifest(File manifest) throws FileNotFoundException {
+        List<BatchJob> jobs = new ArrayList<>();
+        File baseDir = manifest.getAbsoluteFile().getParentFile();
+
+        try (Scanner scanner = new Scanner(manifest)) {
+            int lineNumber = 0;
+            while (scanner.hasNextLine()) {
+                String line = scanner.nextLine().trim();
+                lineNumber++;
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+
+                String[] fields = line.split(",\\s*");
+                if (fields.length != 7 && fields.length != 8) {
+                    throw new IllegalArgumentException(String.format("Line %d of %s should have 7 or 8 fields, but has %d",
+                            lineNumber, manifest.getPath(), fields.length));
+                }
+
+                File robotFile = new File(fields[0]);
+                if (!robotFile.isAbsolute()) {
+                    robotFile = new File(baseDir, fields[0]);
+                }
+
+                try {
+                    Class<? extends Algorithm> algorithm = Class.forName(fields[1]).asSubclass(Algorithm.class);
+                    Config config = new Config(Boolean.parseBoolean(fields[3]), Double.parseDouble(fields[4]), Boolean.parseBoolean(fields[5]));
+                    double timeCap = Double.parseDouble(fields[6]);
+                    long seed = fields.length == 8 ? Long.parseLong(fields[7]) : new SplittableRandom().nextLong();
+                    jobs.add(new BatchJob(robotFile, algorithm, fields[2], schedulerFactory(fields[2]), config, timeCap, seed));
+                } catch (ClassNotFoundException | ClassCastException e) {
+                    throw new IllegalArgumentException(String.format("Line %d of %s: %s is not an algorithm class",
+                            lineNumber, manifest.getPath(), fields[1]), e);
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException(String.format("Line %d of %s does not have the correct format.",
+                            lineNumber, manifest.getPath()), e);
+                }
+            }
+        }
+        return jobs;
+    }
+
+    /**
+     * Get a factory for one of the built-in schedulers by name.
+     * @param name one of FSYNC, SSYNC, ASYNC, HEAP_SSYNC or HEAP_ASYNC, case insensitive
+     * @return a factory producing fresh schedulers of that type
+     */
+    public static Supplier<Scheduler> schedulerFactory(String name) {
+        switch (name.toUpperCase()) {
+            case "FSYNC":
+                return FSyncScheduler::new;
+            case "SSYNC":
+                return SSyncScheduler::new;
+            case "ASYNC":
+                return AsyncScheduler::new;
+            case "HEAP_SSYNC":
+                return HeapSSyncScheduler::new;
+            case "HEAP_ASYNC":
+                return HeapAsyncScheduler::new;
+            default:
+                throw new IllegalArgumentException("Unknown scheduler: " + name + ". Expected FSYNC, SSYNC, ASYNC, HEAP_SSYNC or HEAP_ASYNC.");
+        }
+    }
+
+    /**
+     * Entry point for running a batch from the command line.
+     * Usage: BatchRunner manifest output.csv [parallelism] [cacheSize]
+     * where cacheSize is the number of algorithm results to share between the runs, 0 (the default) to not cache them.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BatchRunner <manifest> <output.csv> [parallelism] [cacheSize]");
+            System.exit(1);
+        }
+
+        List<BatchJob> jobs = readManifest(new File(args[0]));
+        int parallelism = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        int cacheSize = args.length > 3 ? Integer.parseInt(args[3]) : 0;
+        AlgorithmResultCache cache = cacheSize > 0 ? new AlgorithmResultCache(cacheSize, AlgorithmResultCache.DEFAULT_QUANTUM) : null;
+
+        BatchRunner runner = new BatchRunner(parallelism, cache);
+        try (PrintWriter out = new PrintWriter(new File(args[1]))) {
+            List<BatchResult> results = runner.runAll(jobs, out);
+            long failed = results.stream().filter(result -> result.getError() != null).count();
+            System.out.println(String.format("Ran %d jobs, %d failed.", results.size(), failed));
+            if (cache != null) {
+                System.out.println(String.format("Algorithm results: %d hits, %d misses.", cache.getHits(), cache.getMisses()));
+            }
+        } finally {
+            runner.shutdown();
+        }
+    }
+}
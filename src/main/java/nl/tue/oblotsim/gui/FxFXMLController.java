@@ -6,8 +6,11 @@ import nl.tue.oblotsim.Util.Config;
 import javafx.animation.AnimationTimer;
 import javafx.event.ActionEvent;
 import javafx.event.EventHandler;
+import nl.tue.oblotsim.Simulator.BackgroundSimulation;
 import nl.tue.oblotsim.Simulator.Simulation;
+import nl.tue.oblotsim.Simulator.SimulationView;
 import nl.tue.oblotsim.Simulator.Robot;
+import nl.tue.oblotsim.Simulator.State;
 import javafx.beans.binding.*;
 import javafx.beans.property.*;
 import javafx.fxml.FXML;
@@ -28,6 +31,7 @@ import java.net.URISyntaxException;
 import java.net.URL;
 import java.util.*;
 import java.util.List;
+import java.util.function.ObjDoubleConsumer;
 import java.util.function.Supplier;
 
 /**
@@ -179,11 +183,27 @@ public class FxFXMLController {
     // Keep track of this to stop us from replacing an already-selected schedule.
     private String lastSelectedScheduler;
 
+    /**
+     * Creates a scheduler like the selected one, for when the simulation is forked to add or remove robots.
+     */
+    private Supplier<Scheduler> schedulerSupplier = FSyncScheduler::new;
+
     /**
      * The nl.tue.oblotsim.Simulator currently computing the robot movements.
      */
     private SimulationGuiFacade simulation;
 
+    /**
+     * Computes the simulation ahead of the playhead, so the GUI thread never waits for the algorithms.
+     * Null when playing back something that is not computed, such as a trace.
+     */
+    private BackgroundSimulation background;
+
+    /**
+     * How many seconds of playback are computed ahead, at any playback speed.
+     */
+    private static final double LOOK_AHEAD_SECONDS = 2.0;
+
     //region Binding references to prevent the GC from destroying them.
     @SuppressWarnings("FieldCanBeLocal")
     // NO! IT CANNOT BE LOCAL! JAVAFX IS STUPID AND WILL GARBAGE-COLLECT THE INTERMEDIATE PROPERTY!
@@ -258,6 +278,13 @@ public class FxFXMLController {
 //
         eventList.vvalueProperty().bind(eventList.list.heightProperty());
 
+        // Compute further ahead when playing back faster.
+        playBackSpeed.addListener(observable -> {
+            if (this.background != null) {
+                this.background.setLookAhead(lookAhead());
+            }
+        });
+
 //
 //        isPaused.addListener((observableValue, aBoolean, t1) -> canPickAlgorithm(!t1));
 //        simulatingTillEnd.addListener((observableValue, aBoolean, t1) -> canPickAlgorithm(t1));
@@ -335,32 +362,53 @@ public class FxFXMLController {
 
     /**
      * Remove the given robot from the set of robots.
+     * The simulation continues without it from the last moment all robots were sleeping, and keeps the history before it.
      *
-     * @param toRemove The robot to remove. Must be in this.localRobots.
+     * @param toRemove The robot to remove.
      */
     public void removeRobot(Robot toRemove) {
-//        assert Arrays.stream(this.localRobots).anyMatch(robot -> robot == toRemove);
-//
-//        //noinspection SuspiciousToArrayCall This works, Intellij just complains about it for some reason.
-//        List<Robot> newRobots = Arrays.stream(localRobots).filter(robot -> robot != toRemove).map(robot -> {
-//            robot.state = State.SLEEPING;
-//            return robot;
-//        }).toArray(List<Robot>::new);
-////        simulator.setState(newRobots, new ArrayList<>(), 0);
-//        localRobots = newRobots;
-//        resetSimulation();
-//        dragBarSimulation.setValue(0);
+        forkWithRobots((robots, forkTime) -> robots.removeIf(robot -> robot.getId() == toRemove.getId()));
     }
 
+    /**
+     * Add the given robot to the set of robots.
+     * The simulation continues with it from the last moment all robots were sleeping, and keeps the history before it.
+     *
+     * @param newRobot The robot to add, with an id that is not used by another robot.
+     */
     public void addRobot(Robot newRobot) {
-//        List<Robot> copy = new Robot[localrobots.size() + 1];
-//        System.arraycopy(localRobots, 0, copy, 0, localrobots.size());
-//        copy[copy.length - 1] = newRobot;
-//        localRobots = copy;
-//        Arrays.stream(localRobots).forEach(r -> r.state = State.SLEEPING);
-////        dragBarSimulation.setValue(0);
-//        resetSimulation();
-//        simulator.setState(localRobots, new ArrayList<>(), 0);
+        forkWithRobots((robots, forkTime) -> robots.add(new Robot(newRobot.getId(), newRobot.getAlgo(), newRobot.getPos(),
+                newRobot.getTrans(), null, State.SLEEPING, newRobot.getSpeed(), forkTime)));
+    }
+
+    /**
+     * Continue the simulation from the last moment at or before the visible time at which all robots were sleeping,
+     * where any scheduler can take over, with the robots of that moment changed by the given function.
+     */
+    private void forkWithRobots(ObjDoubleConsumer<List<Robot>> change) {
+        if (background == null) {
+            return;
+        }
+        double t = simulation.getCurrentTime();
+        background.close();
+        Simulation current = background.getSimulation();
+        double forkTime = lastSleepingTime(current, t);
+        List<Robot> robots = new ArrayList<>(current.getTimeline().get(forkTime).getSnapshot().values());
+        change.accept(robots, forkTime);
+        setSimulation(current.forkAt(forkTime, schedulerSupplier.get(), current.config, robots));
+        simulation.currentTimeProperty().set(t);
+    }
+
+    /**
+     * The time of the last event at or before the given time after which all robots were sleeping,
+     * or the start of the history if there is none.
+     */
+    private static double lastSleepingTime(Simulation simulation, double t) {
+        return simulation.getTimeline().headMap(t, true).descendingMap().entrySet().stream()
+                .filter(entry -> entry.getValue().getSnapshot().values().stream().allMatch(robot -> robot.getState() == State.SLEEPING))
+                .mapToDouble(Map.Entry::getKey)
+                .findFirst()
+                .orElse(simulation.getHistoryStart());
     }
 
     /**
@@ -872,8 +920,17 @@ public class FxFXMLController {
         String selectedText = ((RadioMenuItem) actionEvent.getSource()).getText();
         if (!selectedText.equals(lastSelectedScheduler) || force) {
             lastSelectedScheduler = selectedText;
-//            simulator.setScheduler(schedulerSupplier.get());
-            System.out.println("The scheduler changed. This may affect still moving robots and they may be interrupted even if the config says they should not be interrupted.");
+            this.schedulerSupplier = schedulerSupplier;
+            if (background != null) {
+                // Continue with the new scheduler from the last moment all robots were sleeping, where any scheduler
+                // can take over, and keep the history before it.
+                double t = simulation.getCurrentTime();
+                background.close();
+                Simulation current = background.getSimulation();
+                double forkTime = lastSleepingTime(current, t);
+                setSimulation(current.forkAt(forkTime, schedulerSupplier.get(), current.config));
+                simulation.currentTimeProperty().set(t);
+            }
         }
     }
     //endregion
@@ -908,14 +965,34 @@ public class FxFXMLController {
 //        visibilityTextBox.setDisable(infiniteVisibilityToggle.isSelected());
     }
 
-    public void setSimulation(Simulation simulation) {
+    public void setSimulation(SimulationView simulation) {
+        if (this.background != null) {
+            this.background.close();
+            this.background = null;
+        }
+        if (simulation instanceof Simulation) {
+            this.background = new BackgroundSimulation((Simulation) simulation, lookAhead());
+            this.background.start();
+            simulation = this.background;
+        }
+        if (this.simulation != null) {
+            this.simulation.currentTimeProperty().unbindBidirectional(dragBarSimulation.valueProperty());
+        }
         this.simulation = new SimulationGuiFacade(simulation);
         robotView.getRobotsProperty().bind(this.simulation.robotsProperty());
         this.simulation.currentTimeProperty().bindBidirectional(dragBarSimulation.valueProperty());
         dragBarSimulation.maxProperty().bind(this.simulation.boundProperty());
+        dragBarSimulation.minProperty().bind(this.simulation.historyStartProperty());
         eventList.events.bind(this.simulation.eventsProperty());
 
 
     }
+
+    /**
+     * The simulated time to compute ahead of the playhead, which grows with the playback speed.
+     */
+    private double lookAhead() {
+        return LOOK_AHEAD_SECONDS * Math.max(1, Math.abs(playBackSpeed.get()));
+    }
     //endregion
 }
\ No newline at end of file
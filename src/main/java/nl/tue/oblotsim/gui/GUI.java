@@ -1,6 +1,6 @@
 package nl.tue.oblotsim.gui;
 
-import nl.tue.oblotsim.Simulator.Simulation;
+import nl.tue.oblotsim.Simulator.SimulationView;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
@@ -18,7 +18,7 @@ import java.net.URL;
  */
 public class GUI extends Application {
     // only one simulator for every gui. Needs to be static because Application.launch launches a new nl.tue.oblotsim.GUI instance
-    private static Simulation simulation;
+    private static SimulationView simulation;
     private static Class[] algorithms;
 
     public static Stage stage;
@@ -50,9 +50,9 @@ public class GUI extends Application {
     /**
      * Starts the gui. Does not return until the gui is exited.
      * @param args the arguments to start the application
-     * @param simulation the simulator to start the application with
+     * @param simulation the simulator to start the application with, or a trace to play back
      */
-    public static void runGUI(Simulation simulation, Class[] algorithms) {
+    public static void runGUI(SimulationView simulation, Class[] algorithms) {
         GUI.simulation = simulation;
         GUI.algorithms = algorithms;
         Application.launch();
@@ -2,32 +2,39 @@ package nl.tue.oblotsim.gui;
 
 import nl.tue.oblotsim.Schedulers.CalculatedEvent;
 import nl.tue.oblotsim.Simulator.Robot;
-import nl.tue.oblotsim.Simulator.Simulation;
+import nl.tue.oblotsim.Simulator.SimulationView;
 import javafx.beans.property.*;
 import javafx.collections.FXCollections;
 
+import java.util.List;
+
 /**
- * A class that bridges the property-based world of JavaFX and the functionally-immutuable Simulation object.
+ * A class that bridges the property-based world of JavaFX and the functionally-immutuable Simulation object,
+ * or any other {@link SimulationView}, such as a trace being played back.
  */
 public class SimulationGuiFacade {
 
-    final private Simulation simulation;
+    final private SimulationView simulation;
 
     final private ReadOnlyListWrapper<Robot> robots;
     final private ReadOnlyListWrapper<CalculatedEvent> events;
     final private DoubleProperty currentTime = new SimpleDoubleProperty(0.0);
     final private ReadOnlyDoubleWrapper bound = new ReadOnlyDoubleWrapper(0.0);
+    final private ReadOnlyDoubleWrapper historyStart = new ReadOnlyDoubleWrapper(0.0);
 
-    public SimulationGuiFacade(Simulation simulation) {
+    public SimulationGuiFacade(SimulationView simulation) {
         this.simulation = simulation;
-        this.robots = new ReadOnlyListWrapper<>(FXCollections.observableList(simulation.robotsAtTime(0.0)));
-        this.events = new ReadOnlyListWrapper<>(FXCollections.observableArrayList(simulation.getTimeline().values()));
+        this.historyStart.set(simulation.getHistoryStart());
+        this.currentTime.set(simulation.getHistoryStart());
+        this.robots = new ReadOnlyListWrapper<>(FXCollections.observableArrayList(simulation.robotsAtTime(simulation.getHistoryStart())));
+        this.events = new ReadOnlyListWrapper<>(FXCollections.observableArrayList(simulation.getComputedEvents()));
         this.bound.set(simulation.highestKnownLastEventTimeLowerBound());
 
         this.currentTime.addListener(observable -> {
             final double t = this.currentTime.get();
             this.events.get().addAll(simulation.simulateTillTimestamp(t));
             adjustBound();
+            trimHistory();
             this.robots.setAll(simulation.robotsAtTime(this.currentTime.get()));
         });
 
@@ -53,6 +60,29 @@ public class SimulationGuiFacade {
         }
     }
 
+    public ReadOnlyDoubleProperty historyStartProperty() {
+        return historyStart.getReadOnlyProperty();
+    }
+
+    /**
+     * Drop the events the simulation does not keep anymore, so this list does not grow forever either.
+     */
+    private void trimHistory() {
+        final double start = simulation.getHistoryStart();
+        this.historyStart.set(start);
+        final List<CalculatedEvent> list = this.events.get();
+        int evicted = 0;
+        while (evicted < list.size() && list.get(evicted).getTimestamp() < start) {
+            evicted++;
+        }
+        if (evicted > 0) {
+            this.events.get().remove(0, evicted);
+        }
+        if (this.currentTime.get() < start) {
+            this.currentTime.set(start);
+        }
+    }
+
     public ReadOnlyListProperty<Robot> robotsProperty() {
         return robots.getReadOnlyProperty();
     }
@@ -1,11 +1,12 @@
 package nl.tue.oblotsim.positiontransformations;
 
 import nl.tue.oblotsim.Simulator.Robot;
+import nl.tue.oblotsim.Util.Circle;
 import nl.tue.oblotsim.Util.Vector;
 
+import java.io.Serializable;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Random;
 import java.util.stream.Collectors;
 
 /**
@@ -14,12 +15,9 @@ import java.util.stream.Collectors;
  * p == globalToLocal(localToGlobal(p)) && p == localToGlobal(globalToLocal(p))<br>
  * i.e. they are each others inverses.
  */
-public abstract class PositionTransformation {
+public abstract class PositionTransformation implements Serializable {
 
-    /**
-     * A random object used for randomized transformations
-     */
-    protected static Random random = new Random();
+    private static final long serialVersionUID = 1L;
 
     /**
      * Transforms a global coordinate to a local coordinate
@@ -57,6 +55,47 @@ public abstract class PositionTransformation {
         return Arrays.stream(a).map(p -> localToGlobal(p, origin)).toArray(Vector[]::new);
     }
 
+    /**
+     * Convert n coordinates from global to local in one call.
+     * The coordinates are interleaved: the x and y of point i are at 2i and 2i + 1.
+     * This implementation converts them one {@link Vector} at a time; subclasses can do the arithmetic on the arrays directly.
+     * The source and destination may be the same array to convert in place.
+     * @param src the coordinates to convert
+     * @param dst the array to write the corresponding local coordinates to, in the same order
+     * @param n the number of points to convert
+     * @param origin the origin of the local coordinate system
+     */
+    public void globalToLocal(double[] src, double[] dst, int n, Vector origin) {
+        checkBulkArguments(src, dst, n);
+        for (int i = 0; i < 2 * n; i += 2) {
+            Vector p = globalToLocal(new Vector(src[i], src[i + 1]), origin);
+            dst[i] = p.x;
+            dst[i + 1] = p.y;
+        }
+    }
+
+    /**
+     * Convert n interleaved coordinates from local to global, like {@link #globalToLocal(double[], double[], int, Vector)}.
+     * @param src the coordinates to convert
+     * @param dst the array to write the corresponding global coordinates to, in the same order
+     * @param n the number of points to convert
+     * @param origin the origin of the local coordinate system
+     */
+    public void localToGlobal(double[] src, double[] dst, int n, Vector origin) {
+        checkBulkArguments(src, dst, n);
+        for (int i = 0; i < 2 * n; i += 2) {
+            Vector p = localToGlobal(new Vector(src[i], src[i + 1]), origin);
+            dst[i] = p.x;
+            dst[i + 1] = p.y;
+        }
+    }
+
+    protected static void checkBulkArguments(double[] src, double[] dst, int n) {
+        if (n < 0 || src.length < 2 * n || dst.length < 2 * n) {
+            throw new IllegalArgumentException("Cannot convert " + n + " points from an array of length " + src.length + " to one of length " + dst.length);
+        }
+    }
+
     /**
      * Convert a list of coordinates from global to local
      * @param a the list to convert
@@ -76,4 +115,17 @@ public abstract class PositionTransformation {
     public List<Vector> localToGlobal(List<Vector> a, Vector origin) {
         return a.stream().map(p -> localToGlobal(p, origin)).collect(Collectors.toList());
     }
+
+    /**
+     * Convert a circle from global to local coordinates.
+     * This assumes the transformation preserves circles, which holds for rotations, scaling and reflections.
+     * @param c the circle to convert
+     * @param origin the origin of the local coordinate system
+     * @return the corresponding circle in local coordinates
+     */
+    public Circle globalToLocal(Circle c, Vector origin) {
+        Vector center = globalToLocal(c.c, origin);
+        Vector onCircle = globalToLocal(c.c.add(new Vector(c.r, 0)), origin);
+        return new Circle(center, center.dist(onCircle));
+    }
 }
@@ -2,10 +2,17 @@ package nl.tue.oblotsim.positiontransformations;
 
 import nl.tue.oblotsim.Util.Vector;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.util.Random;
+
 /**
  * A transformation that scales and rotates the coordinate system.
  */
 public class RotationTransformation extends PositionTransformation {
+
+    private static final long serialVersionUID = 1L;
+
     /**
      * The rotation with which the local coordinate system is turned.
      */
@@ -21,6 +28,12 @@ public class RotationTransformation extends PositionTransformation {
      */
     private boolean chirality;
 
+    /**
+     * The matrix that converts a global offset from the origin to local coordinates, which combines the scaling,
+     * the rotation and the flip, and its inverse. Derived from the fields above by {@link #updateMatrices()}.
+     */
+    private transient double g00, g01, g10, g11;
+    private transient double l00, l01, l10, l11;
 
     public RotationTransformation(double unitLength, double rotation, boolean chirality) {
         if (unitLength <= 0) {
@@ -32,6 +45,7 @@ public class RotationTransformation extends PositionTransformation {
         this.unitLength = unitLength;
         this.rotation = rotation;
         this.chirality = chirality;
+        updateMatrices();
     }
 
     public RotationTransformation(double rotation) {
@@ -42,22 +56,70 @@ public class RotationTransformation extends PositionTransformation {
         this(0);
     }
 
+    private void updateMatrices() {
+        double cos = Math.cos(rotation);
+        double sin = Math.sin(rotation);
+        double flip = chirality ? -1 : 1;
+        g00 = flip * unitLength * cos;
+        g01 = -flip * unitLength * sin;
+        g10 = unitLength * sin;
+        g11 = unitLength * cos;
+        l00 = flip * cos / unitLength;
+        l01 = sin / unitLength;
+        l10 = -flip * sin / unitLength;
+        l11 = cos / unitLength;
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        updateMatrices();
+    }
+
     @Override
     public Vector globalToLocal(Vector p, Vector origin) {
-        Vector newP = p.sub(origin).mult(unitLength).rotate(rotation);
-        if (chirality) {
-            newP.x = -newP.x;
-        }
-        return newP;
+        double dx = p.x - origin.x;
+        double dy = p.y - origin.y;
+        return new Vector(g00 * dx + g01 * dy, g10 * dx + g11 * dy);
     }
 
     @Override
     public Vector localToGlobal(Vector p, Vector origin) {
-        Vector newP = new Vector(p);
-        if (chirality) {
-            newP.x = -newP.x;
+        return new Vector(l00 * p.x + l01 * p.y + origin.x, l10 * p.x + l11 * p.y + origin.y);
+    }
+
+    @Override
+    public Vector[] globalToLocal(Vector[] a, Vector origin) {
+        Vector[] result = new Vector[a.length];
+        for (int i = 0; i < a.length; i++) {
+            result[i] = globalToLocal(a[i], origin);
+        }
+        return result;
+    }
+
+    @Override
+    public void globalToLocal(double[] src, double[] dst, int n, Vector origin) {
+        checkBulkArguments(src, dst, n);
+        double ox = origin.x, oy = origin.y;
+        double m00 = g00, m01 = g01, m10 = g10, m11 = g11;
+        for (int i = 0; i < 2 * n; i += 2) {
+            double dx = src[i] - ox;
+            double dy = src[i + 1] - oy;
+            dst[i] = m00 * dx + m01 * dy;
+            dst[i + 1] = m10 * dx + m11 * dy;
+        }
+    }
+
+    @Override
+    public void localToGlobal(double[] src, double[] dst, int n, Vector origin) {
+        checkBulkArguments(src, dst, n);
+        double ox = origin.x, oy = origin.y;
+        double m00 = l00, m01 = l01, m10 = l10, m11 = l11;
+        for (int i = 0; i < 2 * n; i += 2) {
+            double x = src[i];
+            double y = src[i + 1];
+            dst[i] = m00 * x + m01 * y + ox;
+            dst[i + 1] = m10 * x + m11 * y + oy;
         }
-        return newP.rotate(-rotation).mult(1/unitLength).add(origin);
     }
 
     /**
@@ -65,12 +127,14 @@ public class RotationTransformation extends PositionTransformation {
      * @param sameChirality whether or not the y axis should all be the same
      * @param sameUnitLength whether or not the unit length should be the same
      * @param sameRotation whether or not the rotation should be te same
+     * @param random the generator to use, seed it to make the transformation reproducible
      * @return the modified transformation
      */
-    public PositionTransformation randomize(boolean sameChirality, boolean sameUnitLength, boolean sameRotation) {
+    public PositionTransformation randomize(boolean sameChirality, boolean sameUnitLength, boolean sameRotation, Random random) {
         this.unitLength = sameUnitLength ? 1 : (random.nextDouble() + 0.5) * 2 - 0.5;
         this.chirality = sameChirality ? false : random.nextBoolean();
         this.rotation = sameRotation ? 0 : (random.nextDouble() * 2 * Math.PI) - Math.PI;
+        updateMatrices();
         return this;
     }
 
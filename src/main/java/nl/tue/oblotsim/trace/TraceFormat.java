@@ -0,0 +1,176 @@
+package nl.tue.oblotsim.trace;
+
+import nl.tue.oblotsim.RobotPaths.CircularPath;
+import nl.tue.oblotsim.RobotPaths.CombinedPath;
+import nl.tue.oblotsim.RobotPaths.LinearPath;
+import nl.tue.oblotsim.RobotPaths.RobotPath;
+import nl.tue.oblotsim.Schedulers.EventType;
+import nl.tue.oblotsim.Simulator.Robot;
+import nl.tue.oblotsim.Simulator.State;
+import nl.tue.oblotsim.Util.Vector;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The binary layout of trace files, shared by the {@link TraceWriter} and the {@link TraceReader}.
+ * <p>
+ * All numbers are big-endian. A trace consists of:
+ * <ul>
+ *     <li>A header of {@link #HEADER_SIZE} bytes: {@link #MAGIC}, {@link #VERSION}, the config (multiplicity as a byte,
+ *     visibility as a double, interruptable as a byte), the start time as a double and the robot count as an int.</li>
+ *     <li>A {@link #KEYFRAME_RECORD} with all robots at the start time.</li>
+ *     <li>An {@link #EVENT_RECORD} for every event: the timestamp as a double, the number of events as an int,
+ *     the type (byte) and target id (int) of every event, the number of changed robots as an int and those robots.</li>
+ *     <li>Every so many events, a {@link #KEYFRAME_RECORD} after the event record: the timestamp as a double,
+ *     the number of robots as an int and all robots as they are after the event.</li>
+ *     <li>An {@link #END_RECORD} once the trace was closed properly, followed by the index of the keyframes:
+ *     their number as an int, the timestamp (double) and offset (long) of every keyframe record, the number of event
+ *     records as a long and the time of the last one as a double. The trace ends with the offset of the index as a
+ *     long and {@link #FOOTER_MAGIC}.</li>
+ * </ul>
+ * A robot is stored as its id (int), x and y (double), state (byte), in current state since (double), speed (double)
+ * and its path, in at most {@link #MAX_ROBOT_SIZE} bytes.
+ * The algorithm and transformation are NOT saved, but these are not required for replay.
+ */
+final class TraceFormat {
+
+    static final int MAGIC = 0x4F424C54; // "OBLT"
+    static final int VERSION = 1;
+    static final int FOOTER_MAGIC = 0x4F424C49; // "OBLI"
+
+    static final int HEADER_SIZE = 4 + 4 + 1 + 8 + 1 + 8 + 4;
+    static final int FOOTER_SIZE = 8 + 4;
+    static final int MAX_ROBOT_SIZE = 1 << 16;
+
+    static final byte END_RECORD = 0;
+    static final byte EVENT_RECORD = 1;
+    static final byte KEYFRAME_RECORD = 2;
+
+    private static final byte NO_PATH = 0;
+    private static final byte LINEAR_PATH = 1;
+    private static final byte CIRCULAR_PATH = 2;
+    private static final byte COMBINED_PATH = 3;
+
+    private TraceFormat() {
+    }
+
+    /**
+     * The number of bytes {@link #putRobot} will write.
+     */
+    static int robotSize(Robot robot) {
+        int size = 4 + 16 + 1 + 8 + 8 + pathSize(robot.getPath());
+        if (size > MAX_ROBOT_SIZE) {
+            throw new IllegalArgumentException("The path of robot " + robot.getId() + " is too large to store");
+        }
+        return size;
+    }
+
+    private static int pathSize(RobotPath path) {
+        if (path == null) {
+            return 1;
+        } else if (path instanceof LinearPath) {
+            return 1 + 32;
+        } else if (path instanceof CircularPath) {
+            return 1 + 48 + 1 + 8;
+        } else if (path instanceof CombinedPath) {
+            int size = 1 + 4;
+            for (RobotPath part : ((CombinedPath) path).getPaths()) {
+                size += pathSize(part);
+            }
+            return size;
+        }
+        throw new IllegalArgumentException("Unsupported path type: " + path.getClass().getName());
+    }
+
+    static void putRobot(ByteBuffer buffer, Robot robot) {
+        buffer.putInt(robot.getId());
+        putVector(buffer, robot.getPos());
+        buffer.put((byte) robot.getState().ordinal());
+        buffer.putDouble(robot.getInCurrentStateSince());
+        buffer.putDouble(robot.getSpeed());
+        putPath(buffer, robot.getPath());
+    }
+
+    static Robot getRobot(ByteBuffer buffer) {
+        int id = buffer.getInt();
+        Vector pos = getVector(buffer);
+        State state = State.values()[buffer.get()];
+        double since = buffer.getDouble();
+        double speed = buffer.getDouble();
+        RobotPath path = getPath(buffer);
+        return new Robot(id, null, pos, null, path, state, speed, since);
+    }
+
+    static void putEventType(ByteBuffer buffer, EventType type) {
+        buffer.put((byte) type.ordinal());
+    }
+
+    static EventType getEventType(ByteBuffer buffer) {
+        return EventType.values()[buffer.get()];
+    }
+
+    private static void putPath(ByteBuffer buffer, RobotPath path) {
+        if (path == null) {
+            buffer.put(NO_PATH);
+        } else if (path instanceof LinearPath) {
+            buffer.put(LINEAR_PATH);
+            putVector(buffer, path.getStart());
+            putVector(buffer, path.getEnd());
+        } else if (path instanceof CircularPath) {
+            CircularPath circular = (CircularPath) path;
+            buffer.put(CIRCULAR_PATH);
+            putVector(buffer, circular.getStart());
+            putVector(buffer, circular.center);
+            putVector(buffer, circular.getEnd());
+            buffer.put((byte) (circular.clockwise ? 1 : 0));
+            buffer.putDouble(circular.angle);
+        } else if (path instanceof CombinedPath) {
+            List<RobotPath> parts = ((CombinedPath) path).getPaths();
+            buffer.put(COMBINED_PATH);
+            buffer.putInt(parts.size());
+            for (RobotPath part : parts) {
+                putPath(buffer, part);
+            }
+        } else {
+            throw new IllegalArgumentException("Unsupported path type: " + path.getClass().getName());
+        }
+    }
+
+    private static RobotPath getPath(ByteBuffer buffer) {
+        byte type = buffer.get();
+        switch (type) {
+            case NO_PATH:
+                return null;
+            case LINEAR_PATH:
+                return new LinearPath(getVector(buffer), getVector(buffer));
+            case CIRCULAR_PATH:
+                Vector start = getVector(buffer);
+                Vector center = getVector(buffer);
+                Vector end = getVector(buffer);
+                boolean clockwise = buffer.get() != 0;
+                return new CircularPath(start, center, end, clockwise, buffer.getDouble());
+            case COMBINED_PATH:
+                int count = buffer.getInt();
+                List<RobotPath> parts = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    parts.add(getPath(buffer));
+                }
+                return new CombinedPath(parts);
+            default:
+                throw new IllegalStateException("Unknown path type in trace: " + type);
+        }
+    }
+
+    private static void putVector(ByteBuffer buffer, Vector v) {
+        buffer.putDouble(v.x);
+        buffer.putDouble(v.y);
+    }
+
+    private static Vector getVector(ByteBuffer buffer) {
+        double x = buffer.getDouble();
+        double y = buffer.getDouble();
+        return new Vector(x, y);
+    }
+}
@@ -0,0 +1,447 @@
+package nl.tue.oblotsim.trace;
+
+import nl.tue.oblotsim.Schedulers.CalculatedEvent;
+import nl.tue.oblotsim.Schedulers.Event;
+import nl.tue.oblotsim.Schedulers.EventType;
+import nl.tue.oblotsim.Simulator.Robot;
+import nl.tue.oblotsim.Util.Config;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
+
+/**
+ * Reads a trace written by a {@link TraceWriter}, see {@link TraceFormat} for the layout.
+ * <p>
+ * The file is memory-mapped in windows of {@link #WINDOW_SIZE} bytes, so traces larger than the heap can be read
+ * and only the parts that are looked at are loaded by the operating system.
+ * Looking up the robots at some time does a binary search in the index of keyframes and replays the events from the
+ * keyframe before it, which costs O(log k) plus at most a keyframe interval of events.
+ * <p>
+ * A trace that was not closed properly, for instance because the simulation crashed, has no index.
+ * Then the index is rebuilt by scanning the trace once, and everything up to the last complete record can be read.
+ * <p>
+ * A reader can be used from multiple threads at the same time.
+ */
+public class TraceReader implements Closeable, Iterable<CalculatedEvent> {
+
+    static final long WINDOW_SIZE = 64L << 20;
+
+    /**
+     * Windows overlap by this many bytes, so every part of a record that is read at once lies within a single window.
+     */
+    private static final int WINDOW_OVERLAP = TraceFormat.MAX_ROBOT_SIZE;
+
+    private final FileChannel channel;
+    private final long size;
+    private final MappedByteBuffer[] windows;
+
+    private final Config config;
+    private final double startTime;
+    private final int robotCount;
+
+    private double[] keyframeTimes = new double[16];
+    private long[] keyframeOffsets = new long[16];
+    private int keyframeCount = 0;
+    private long eventCount = 0;
+    private double endTime;
+
+    /**
+     * The offset of the first byte after the last complete record.
+     */
+    private long dataEnd;
+
+    /**
+     * Open a trace for reading.
+     * @param file the trace to read
+     * @throws IOException if the file could not be read or is not a trace
+     */
+    public TraceReader(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            this.size = channel.size();
+            if (size < TraceFormat.HEADER_SIZE) {
+                throw new IOException("Not a trace: " + file);
+            }
+            this.windows = new MappedByteBuffer[(int) ((size + WINDOW_SIZE - 1) / WINDOW_SIZE)];
+
+            ByteBuffer header = new Cursor(0).ensure(TraceFormat.HEADER_SIZE);
+            if (header.getInt() != TraceFormat.MAGIC) {
+                throw new IOException("Not a trace: " + file);
+            }
+            int version = header.getInt();
+            if (version != TraceFormat.VERSION) {
+                throw new IOException("Unsupported trace version: " + version);
+            }
+            boolean multiplicity = header.get() != 0;
+            double visibility = header.getDouble();
+            boolean interruptable = header.get() != 0;
+            this.config = new Config(multiplicity, visibility, interruptable);
+            this.startTime = header.getDouble();
+            this.robotCount = header.getInt();
+            this.endTime = startTime;
+
+            if (!readIndex()) {
+                scanIndex();
+            }
+            if (keyframeCount == 0) {
+                throw new IOException("The trace does not contain the robots at the start: " + file);
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * The configuration of the simulation that was traced.
+     */
+    public Config getConfig() {
+        return config;
+    }
+
+    /**
+     * The time at which the trace starts.
+     */
+    public double getStartTime() {
+        return startTime;
+    }
+
+    /**
+     * The time of the last event in the trace, or the start time if there are none.
+     */
+    public double getEndTime() {
+        return endTime;
+    }
+
+    public int getRobotCount() {
+        return robotCount;
+    }
+
+    /**
+     * The number of events in the trace, not counting the start.
+     */
+    public long getEventCount() {
+        return eventCount;
+    }
+
+    /**
+     * The number of keyframes in the index.
+     */
+    public int getKeyframeCount() {
+        return keyframeCount;
+    }
+
+    /**
+     * The state of all robots at some time.
+     * @param t a time at or after the start of the trace
+     * @return an immutable map from robot id to robot, with the robots extrapolated to time t
+     */
+    public Map<Integer, Robot> snapshotAt(double t) {
+        Map<Integer, Robot> robots = stateAt(t);
+        robots.replaceAll((id, robot) -> robot.extrapolatedToTime(t));
+        return Collections.unmodifiableMap(robots);
+    }
+
+    /**
+     * The positions of all robots at some time.
+     * @param t a time at or after the start of the trace
+     * @return the robots, moved to their position at time t
+     */
+    public List<Robot> robotsAtTime(double t) {
+        return stateAt(t).values().stream()
+                .map(robot -> robot.movedTo(robot.positionAtTimeWithoutStateChange(t)))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Iterate over all events in the trace, starting with an event without any events at the start time,
+     * like the timeline of a {@link nl.tue.oblotsim.Simulator.Simulation}.
+     */
+    @Override
+    public Iterator<CalculatedEvent> iterator() {
+        return eventsFrom(startTime);
+    }
+
+    /**
+     * Iterate over the events in the trace from some time on.
+     * The snapshots of the events are read from the trace when they are requested.
+     * @param t the time of the first event to return
+     * @return an iterator over all events at or after time t
+     */
+    public Iterator<CalculatedEvent> eventsFrom(double t) {
+        return new EventIterator(t);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * The robots as they are after the last record at or before time t, without extrapolating them.
+     */
+    private Map<Integer, Robot> stateAt(double t) {
+        if (!(t >= startTime)) {
+            throw new IllegalArgumentException("The trace starts at " + startTime + ", which is after " + t);
+        }
+        Cursor cursor = new Cursor(keyframeOffsets[floorKeyframe(t)]);
+        Map<Integer, Robot> robots = new LinkedHashMap<>();
+        while (cursor.position() < dataEnd) {
+            ByteBuffer buffer = cursor.ensure(1 + 8);
+            byte type = buffer.get();
+            if (type == TraceFormat.END_RECORD || buffer.getDouble() > t) {
+                break;
+            }
+            if (type == TraceFormat.KEYFRAME_RECORD) {
+                robots.clear();
+            } else {
+                skipEvents(cursor);
+            }
+            readRobots(cursor, robots);
+        }
+        return robots;
+    }
+
+    /**
+     * The index of the last keyframe at or before time t, or of the first one if there are none.
+     */
+    private int floorKeyframe(double t) {
+        int index = Arrays.binarySearch(keyframeTimes, 0, keyframeCount, t);
+        return index >= 0 ? index : Math.max(0, -index - 2);
+    }
+
+    /**
+     * Read the index at the end of a properly closed trace.
+     * @return whether there was an index
+     */
+    private boolean readIndex() {
+        if (size < TraceFormat.HEADER_SIZE + TraceFormat.FOOTER_SIZE) {
+            return false;
+        }
+        ByteBuffer footer = new Cursor(size - TraceFormat.FOOTER_SIZE).ensure(TraceFormat.FOOTER_SIZE);
+        long indexOffset = footer.getLong();
+        if (footer.getInt() != TraceFormat.FOOTER_MAGIC || indexOffset <= TraceFormat.HEADER_SIZE || indexOffset >= size) {
+            return false;
+        }
+
+        Cursor cursor = new Cursor(indexOffset);
+        int count = cursor.ensure(4).getInt();
+        for (int i = 0; i < count; i++) {
+            ByteBuffer entry = cursor.ensure(8 + 8);
+            addKeyframe(entry.getDouble(), entry.getLong());
+        }
+        ByteBuffer totals = cursor.ensure(8 + 8);
+        eventCount = totals.getLong();
+        endTime = totals.getDouble();
+        // The index starts right after the end record.
+        dataEnd = indexOffset - 1;
+        return true;
+    }
+
+    /**
+     * Rebuild the index by reading all records, up to the last complete one.
+     */
+    private void scanIndex() throws IOException {
+        Cursor cursor = new Cursor(TraceFormat.HEADER_SIZE);
+        Map<Integer, Robot> ignored = new LinkedHashMap<>();
+        dataEnd = cursor.position();
+        try {
+            while (true) {
+                long offset = cursor.position();
+                ByteBuffer buffer = cursor.ensure(1);
+                byte type = buffer.get();
+                if (type == TraceFormat.END_RECORD) {
+                    break;
+                }
+                double t = cursor.ensure(8).getDouble();
+                if (type == TraceFormat.KEYFRAME_RECORD) {
+                    readRobots(cursor, ignored);
+                    addKeyframe(t, offset);
+                } else if (type == TraceFormat.EVENT_RECORD) {
+                    skipEvents(cursor);
+                    readRobots(cursor, ignored);
+                    eventCount++;
+                    endTime = t;
+                } else {
+                    throw new IOException("Unknown record type in trace: " + type);
+                }
+                ignored.clear();
+                dataEnd = cursor.position();
+            }
+        } catch (BufferUnderflowException e) {
+            // The last record was not written completely, everything before it can still be read.
+        }
+    }
+
+    private void addKeyframe(double t, long offset) {
+        if (keyframeCount == keyframeTimes.length) {
+            keyframeTimes = Arrays.copyOf(keyframeTimes, 2 * keyframeCount);
+            keyframeOffsets = Arrays.copyOf(keyframeOffsets, 2 * keyframeCount);
+        }
+        keyframeTimes[keyframeCount] = t;
+        keyframeOffsets[keyframeCount] = offset;
+        keyframeCount++;
+    }
+
+    /**
+     * Skip over the events of an event record, right after its timestamp.
+     */
+    private static void skipEvents(Cursor cursor) {
+        int count = cursor.ensure(4).getInt();
+        cursor.skip(count * (1L + 4));
+    }
+
+    /**
+     * Read the robot count and robots that end a record into the map.
+     */
+    private void readRobots(Cursor cursor, Map<Integer, Robot> into) {
+        int count = cursor.ensure(4).getInt();
+        for (int i = 0; i < count; i++) {
+            Robot robot = TraceFormat.getRobot(cursor.ensureRobot());
+            into.put(robot.getId(), robot);
+        }
+    }
+
+    private synchronized MappedByteBuffer window(int index) {
+        if (windows[index] == null) {
+            long start = index * WINDOW_SIZE;
+            long length = Math.min(size - start, WINDOW_SIZE + WINDOW_OVERLAP);
+            try {
+                windows[index] = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not map the trace", e);
+            }
+        }
+        return windows[index];
+    }
+
+    /**
+     * A position in the trace, which moves on to the next window when it passes the end of the current one.
+     * Every cursor has its own view on the windows, so cursors can be used from different threads.
+     */
+    private final class Cursor {
+        private ByteBuffer buffer;
+        private long base;
+
+        Cursor(long position) {
+            moveTo(position);
+        }
+
+        long position() {
+            return base + buffer.position();
+        }
+
+        /**
+         * Get the buffer to read the next bytes from.
+         * @param bytes the number of bytes that will be read, at most {@link #WINDOW_OVERLAP}
+         * @throws BufferUnderflowException if the trace ends before that
+         */
+        ByteBuffer ensure(int bytes) {
+            long position = position();
+            if (position - base >= WINDOW_SIZE && position < size) {
+                moveTo(position);
+            }
+            if (buffer.remaining() < bytes) {
+                throw new BufferUnderflowException();
+            }
+            return buffer;
+        }
+
+        /**
+         * Get the buffer to read the next robot from.
+         */
+        ByteBuffer ensureRobot() {
+            return ensure((int) Math.min(TraceFormat.MAX_ROBOT_SIZE, size - position()));
+        }
+
+        void skip(long bytes) {
+            long target = position() + bytes;
+            if (target > size) {
+                throw new BufferUnderflowException();
+            }
+            moveTo(target);
+        }
+
+        private void moveTo(long position) {
+            int index = (int) Math.min(position / WINDOW_SIZE, windows.length - 1);
+            base = index * WINDOW_SIZE;
+            buffer = window(index).duplicate();
+            buffer.position((int) (position - base));
+        }
+    }
+
+    private final class EventIterator implements Iterator<CalculatedEvent> {
+        private final Cursor cursor;
+        private final double from;
+        private CalculatedEvent next;
+
+        EventIterator(double from) {
+            this.from = from;
+            if (from <= startTime) {
+                this.cursor = new Cursor(keyframeOffsets[0]);
+                this.next = new CalculatedEvent(startTime, List.of(), () -> snapshotAt(startTime));
+            } else {
+                this.cursor = new Cursor(keyframeOffsets[floorKeyframe(from)]);
+                this.next = readNext();
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public CalculatedEvent next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            CalculatedEvent result = next;
+            next = readNext();
+            return result;
+        }
+
+        private CalculatedEvent readNext() {
+            Map<Integer, Robot> ignored = new LinkedHashMap<>();
+            while (cursor.position() < dataEnd) {
+                ByteBuffer buffer = cursor.ensure(1 + 8);
+                byte type = buffer.get();
+                if (type == TraceFormat.END_RECORD) {
+                    break;
+                }
+                double t = buffer.getDouble();
+                List<Event> events = List.of();
+                if (type == TraceFormat.EVENT_RECORD) {
+                    int count = cursor.ensure(4).getInt();
+                    events = new ArrayList<>(count);
+                    for (int i = 0; i < count; i++) {
+                        ByteBuffer event = cursor.ensure(1 + 4);
+                        EventType eventType = TraceFormat.getEventType(event);
+                        events.add(new Event(eventType, t, event.getInt()));
+                    }
+                }
+                readRobots(cursor, ignored);
+                ignored.clear();
+                if (type == TraceFormat.EVENT_RECORD && t >= from) {
+                    return new CalculatedEvent(t, events, () -> snapshotAt(t));
+                }
+            }
+            return null;
+        }
+    }
+}
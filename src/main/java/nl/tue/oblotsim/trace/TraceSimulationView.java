@@ -0,0 +1,78 @@
+package nl.tue.oblotsim.trace;
+
+import nl.tue.oblotsim.Schedulers.CalculatedEvent;
+import nl.tue.oblotsim.Simulator.Robot;
+import nl.tue.oblotsim.Simulator.SimulationView;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Plays back a trace as if it were a simulation that is being computed, so it can be shown in the GUI.
+ * <p>
+ * Events are revealed as the requested time advances, like a {@link nl.tue.oblotsim.Simulator.Simulation} computes them,
+ * but the robots at any time are looked up in the trace directly, so scrubbing through a long trace is cheap.
+ */
+public class TraceSimulationView implements SimulationView {
+
+    private final TraceReader reader;
+    private final Iterator<CalculatedEvent> unrevealed;
+    private final List<CalculatedEvent> revealed = new ArrayList<>();
+    private final double lastEventTimeLowerBound;
+
+    /**
+     * Create a view on a trace. The reader should stay open as long as the view is used.
+     * @param reader the trace to play back
+     */
+    public TraceSimulationView(TraceReader reader) {
+        this.reader = reader;
+        this.unrevealed = reader.iterator();
+        this.revealed.add(unrevealed.next());
+        this.lastEventTimeLowerBound = reader.snapshotAt(reader.getEndTime()).values().stream()
+                .flatMapToDouble(robot -> robot.willStopBefore().stream())
+                .max()
+                .orElse(reader.getEndTime());
+    }
+
+    @Override
+    public List<Robot> robotsAtTime(double timestamp) {
+        simulateTillTimestamp(timestamp);
+        return reader.robotsAtTime(timestamp);
+    }
+
+    @Override
+    public double getHistoryStart() {
+        return reader.getStartTime();
+    }
+
+    @Override
+    public List<CalculatedEvent> simulateTillTimestamp(double t) {
+        List<CalculatedEvent> resultingEvents = new ArrayList<>();
+        while (revealed.get(revealed.size() - 1).getTimestamp() < t && unrevealed.hasNext()) {
+            CalculatedEvent event = unrevealed.next();
+            revealed.add(event);
+            resultingEvents.add(event);
+        }
+        return resultingEvents;
+    }
+
+    /**
+     * The whole trace is known, so this is the time at which the last robot stops moving.
+     */
+    @Override
+    public double highestKnownLastEventTimeLowerBound() {
+        return lastEventTimeLowerBound;
+    }
+
+    @Override
+    public Collection<CalculatedEvent> getComputedEvents() {
+        return Collections.unmodifiableList(revealed);
+    }
+
+    public TraceReader getReader() {
+        return reader;
+    }
+}
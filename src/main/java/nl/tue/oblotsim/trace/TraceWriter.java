@@ -0,0 +1,273 @@
+package nl.tue.oblotsim.trace;
+
+import nl.tue.oblotsim.Schedulers.CalculatedEvent;
+import nl.tue.oblotsim.Schedulers.Event;
+import nl.tue.oblotsim.Simulator.Robot;
+import nl.tue.oblotsim.Simulator.Simulation;
+import nl.tue.oblotsim.Simulator.SimulationListener;
+import nl.tue.oblotsim.Util.Config;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streams the events of a simulation to a binary trace file, see {@link TraceFormat} for the layout.
+ * <p>
+ * Records are collected in a direct buffer that is written to the file channel whenever it is full,
+ * so the size of the trace is not limited by the heap.
+ * Every {@link #getKeyframeInterval() keyframe interval} events, the state of all robots is written as a keyframe,
+ * which the {@link TraceReader} uses to seek in the trace without replaying it from the start.
+ * Attach it to a {@link Simulation} with {@link #attach(Simulation, Path)} to record the events as they are computed.
+ */
+public class TraceWriter implements SimulationListener, Closeable {
+
+    public static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+    public static final int DEFAULT_KEYFRAME_INTERVAL = 256;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final int keyframeInterval;
+
+    /**
+     * All robots as they are after the last event, to write the keyframes.
+     */
+    private final Map<Integer, Robot> robots = new LinkedHashMap<>();
+
+    private double[] keyframeTimes = new double[16];
+    private long[] keyframeOffsets = new long[16];
+    private int keyframeCount = 0;
+
+    /**
+     * The number of bytes that were written to the channel.
+     */
+    private long written = 0;
+    private long eventCount = 0;
+    private double lastEventTime;
+    private boolean closed = false;
+
+    /**
+     * The simulation this was attached to with {@link #attach(Simulation, Path)}, which it is removed from on close.
+     */
+    private Simulation simulation = null;
+
+    /**
+     * Create a new trace file, overwriting it if it exists, and write the header.
+     * @param file the file to write to
+     * @param config the configuration of the simulation
+     * @param startTime the time at which the trace starts
+     * @param robots all robots at the start time
+     * @throws IOException if the file could not be written
+     */
+    public TraceWriter(Path file, Config config, double startTime, Collection<Robot> robots) throws IOException {
+        this(file, config, startTime, robots, DEFAULT_BUFFER_SIZE, DEFAULT_KEYFRAME_INTERVAL);
+    }
+
+    /**
+     * Create a new trace file, overwriting it if it exists, and write the header.
+     * @param file the file to write to
+     * @param config the configuration of the simulation
+     * @param startTime the time at which the trace starts
+     * @param robots all robots at the start time
+     * @param bufferSize the number of bytes to collect before writing them to the file
+     * @param keyframeInterval the number of events between keyframes; more keyframes make seeking faster but the trace larger
+     * @throws IOException if the file could not be written
+     */
+    public TraceWriter(Path file, Config config, double startTime, Collection<Robot> robots, int bufferSize, int keyframeInterval) throws IOException {
+        if (bufferSize < TraceFormat.MAX_ROBOT_SIZE) {
+            throw new IllegalArgumentException("bufferSize should be at least " + TraceFormat.MAX_ROBOT_SIZE + " bytes");
+        }
+        if (keyframeInterval < 1) {
+            throw new IllegalArgumentException("keyframeInterval should be positive");
+        }
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+        this.keyframeInterval = keyframeInterval;
+        this.lastEventTime = startTime;
+        for (Robot robot : robots) {
+            this.robots.put(robot.getId(), robot);
+        }
+
+        ensureRemaining(TraceFormat.HEADER_SIZE);
+        buffer.putInt(TraceFormat.MAGIC);
+        buffer.putInt(TraceFormat.VERSION);
+        buffer.put((byte) (config.multiplicity ? 1 : 0));
+        buffer.putDouble(config.visibility);
+        buffer.put((byte) (config.interuptable ? 1 : 0));
+        buffer.putDouble(startTime);
+        buffer.putInt(robots.size());
+        writeKeyframe(startTime);
+    }
+
+    /**
+     * Start recording a simulation from its last computed event onwards.
+     * @param simulation the simulation to record
+     * @param file the file to write to
+     * @return the writer, which should be closed when the simulation is done, which also stops recording
+     * @throws IOException if the file could not be written
+     */
+    public static TraceWriter attach(Simulation simulation, Path file) throws IOException {
+        TraceWriter writer = new TraceWriter(file, simulation.config, simulation.getTimeline().lastKey(), simulation.getCurrentRobots());
+        simulation.addListener(writer);
+        writer.simulation = simulation;
+        return writer;
+    }
+
+    /**
+     * Record a computed event. Events computed after the writer was closed are ignored,
+     * so a simulation that still has this as a listener can go on.
+     */
+    @Override
+    public void eventComputed(CalculatedEvent event, Collection<Robot> changed) {
+        if (closed) {
+            return;
+        }
+        try {
+            writeEvent(event.getTimestamp(), event.getEvents(), changed);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write to trace", e);
+        }
+    }
+
+    /**
+     * Append an event record.
+     * @param t the time of the events
+     * @param events the events that happened at that time
+     * @param changed the robots targeted by the events, as they are after the events
+     * @throws IOException if the file could not be written
+     */
+    public void writeEvent(double t, List<Event> events, Collection<Robot> changed) throws IOException {
+        if (closed) {
+            throw new IllegalStateException("The trace has been closed");
+        }
+        ensureRemaining(1 + 8 + 4);
+        buffer.put(TraceFormat.EVENT_RECORD);
+        buffer.putDouble(t);
+        buffer.putInt(events.size());
+        for (Event event : events) {
+            ensureRemaining(1 + 4);
+            TraceFormat.putEventType(buffer, event.getType());
+            buffer.putInt(event.getTargetId());
+        }
+        ensureRemaining(4);
+        buffer.putInt(changed.size());
+        putRobots(changed);
+        for (Robot robot : changed) {
+            robots.put(robot.getId(), robot);
+        }
+        eventCount++;
+        lastEventTime = t;
+        if (eventCount % keyframeInterval == 0) {
+            writeKeyframe(t);
+        }
+    }
+
+    /**
+     * The number of event records written so far.
+     */
+    public long getEventCount() {
+        return eventCount;
+    }
+
+    /**
+     * The number of events between keyframes.
+     */
+    public int getKeyframeInterval() {
+        return keyframeInterval;
+    }
+
+    /**
+     * Write everything that has been buffered to the file.
+     * @throws IOException if the file could not be written
+     */
+    public void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            written += channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Mark the end of the trace, write the index of the keyframes and close the file.
+     * If the writer was {@link #attach(Simulation, Path) attached} to a simulation, it stops listening to it.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (simulation != null) {
+            simulation.removeListener(this);
+            simulation = null;
+        }
+        try {
+            ensureRemaining(1);
+            buffer.put(TraceFormat.END_RECORD);
+            long indexOffset = position();
+            ensureRemaining(4);
+            buffer.putInt(keyframeCount);
+            for (int i = 0; i < keyframeCount; i++) {
+                ensureRemaining(8 + 8);
+                buffer.putDouble(keyframeTimes[i]);
+                buffer.putLong(keyframeOffsets[i]);
+            }
+            ensureRemaining(8 + 8 + TraceFormat.FOOTER_SIZE);
+            buffer.putLong(eventCount);
+            buffer.putDouble(lastEventTime);
+            buffer.putLong(indexOffset);
+            buffer.putInt(TraceFormat.FOOTER_MAGIC);
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void writeKeyframe(double t) throws IOException {
+        if (keyframeCount == keyframeTimes.length) {
+            keyframeTimes = Arrays.copyOf(keyframeTimes, 2 * keyframeCount);
+            keyframeOffsets = Arrays.copyOf(keyframeOffsets, 2 * keyframeCount);
+        }
+        ensureRemaining(1 + 8 + 4);
+        keyframeTimes[keyframeCount] = t;
+        keyframeOffsets[keyframeCount] = position();
+        keyframeCount++;
+        buffer.put(TraceFormat.KEYFRAME_RECORD);
+        buffer.putDouble(t);
+        buffer.putInt(robots.size());
+        putRobots(robots.values());
+    }
+
+    /**
+     * The offset in the file at which the next byte will be written.
+     */
+    private long position() {
+        return written + buffer.position();
+    }
+
+    private void putRobots(Collection<Robot> robots) throws IOException {
+        for (Robot robot : robots) {
+            ensureRemaining(TraceFormat.robotSize(robot));
+            TraceFormat.putRobot(buffer, robot);
+        }
+    }
+
+    private void ensureRemaining(int bytes) throws IOException {
+        if (bytes > buffer.capacity()) {
+            throw new IllegalArgumentException("A record of " + bytes + " bytes does not fit in the buffer");
+        }
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+}
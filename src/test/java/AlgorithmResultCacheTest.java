@@ -0,0 +1,94 @@
+import nl.tue.oblotsim.RobotPaths.RobotPath;
+import nl.tue.oblotsim.Schedulers.FSyncScheduler;
+import nl.tue.oblotsim.Schedulers.TestUtil;
+import nl.tue.oblotsim.Simulator.Robot;
+import nl.tue.oblotsim.Simulator.Simulation;
+import nl.tue.oblotsim.Simulator.State;
+import nl.tue.oblotsim.Util.Config;
+import nl.tue.oblotsim.Util.Vector;
+import nl.tue.oblotsim.algorithms.AlgorithmResultCache;
+import nl.tue.oblotsim.algorithms.GoToCoG;
+import nl.tue.oblotsim.algorithms.GoToRightMost;
+import nl.tue.oblotsim.positiontransformations.RotationTransformation;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AlgorithmResultCacheTest {
+
+    @Test
+    void testSameSnapshotInAnyOrder() {
+        AlgorithmResultCache cache = new AlgorithmResultCache();
+        GoToCoG algorithm = new GoToCoG();
+        Vector[] snapshot = {new Vector(0, 0), new Vector(2, 0), new Vector(1, 3)};
+        Vector[] permuted = {new Vector(1, 3), new Vector(0, 0), new Vector(2, 0)};
+
+        RobotPath first = cache.calculate(algorithm, snapshot, () -> algorithm.doAlgorithm(snapshot));
+        first.convertFromLocalToGlobal(new RotationTransformation(), new Vector(10, 10));
+        RobotPath second = cache.calculate(algorithm, permuted, () -> algorithm.doAlgorithm(permuted));
+
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        // Converting the first path did not change the cached one.
+        assertEquals(new Vector(1, 1), second.getEnd());
+    }
+
+    @Test
+    void testRightMostDoesNotDependOnOrder() {
+        // Cached paths are shared between snapshots in any order, so a tie must be broken the same way for all of them.
+        GoToRightMost algorithm = new GoToRightMost();
+        Vector[] snapshot = {new Vector(0, 0), new Vector(2, -1), new Vector(2, 1)};
+        Vector[] permuted = {new Vector(2, 1), new Vector(0, 0), new Vector(2, -1)};
+
+        assertEquals(new Vector(2, 1), algorithm.doAlgorithm(snapshot).getEnd());
+        assertEquals(new Vector(2, 1), algorithm.doAlgorithm(permuted).getEnd());
+    }
+
+    @Test
+    void testSimulationWithCacheMatchesWithout() {
+        Robot[] robots = TestUtil.generateRobotCloud(new GoToCoG(), 10.0, 20);
+        AlgorithmResultCache cache = simulateWithAndWithoutCache(robots);
+        assertTrue(cache.getMisses() > 0);
+    }
+
+    @Test
+    void testSymmetricRobotsShareResults() {
+        // Robots on the corners of a square, each turned so that all of them see the same snapshot.
+        Vector[] corners = {new Vector(1, 0), new Vector(0, 1), new Vector(-1, 0), new Vector(0, -1)};
+        double[] rotations = {0, -Math.PI / 2, -Math.PI, Math.PI / 2};
+        Robot[] robots = new Robot[corners.length];
+        for (int i = 0; i < robots.length; i++) {
+            robots[i] = new Robot(i, new GoToCoG(), corners[i], new RotationTransformation(rotations[i]), null, State.SLEEPING, 1.0, 0.0);
+        }
+
+        AlgorithmResultCache cache = simulateWithAndWithoutCache(robots);
+        assertTrue(cache.getHits() > 0);
+        assertTrue(cache.getMisses() > 0);
+    }
+
+    /**
+     * Simulate the robots with and without a cache, check that they end up in the same positions
+     * and return the cache.
+     */
+    private static AlgorithmResultCache simulateWithAndWithoutCache(Robot[] robots) {
+        Config config = new Config(true, Double.POSITIVE_INFINITY, true);
+        Simulation plain = new Simulation(config, List.of(robots), new FSyncScheduler(), 42);
+        Simulation cached = new Simulation(config, List.of(robots), new FSyncScheduler(), 42);
+        AlgorithmResultCache cache = new AlgorithmResultCache();
+        cached.setResultCache(cache);
+
+        plain.simulateTillTimestamp(50.0);
+        cached.simulateTillTimestamp(50.0);
+
+        Map<Integer, Robot> expected = plain.robotsAtTime(50.0).stream().collect(Collectors.toMap(Robot::getId, robot -> robot));
+        for (Robot robot : cached.robotsAtTime(50.0)) {
+            assertTrue(expected.get(robot.getId()).getPos().dist(robot.getPos()) < 1e-6);
+        }
+        return cache;
+    }
+}
@@ -0,0 +1,40 @@
+import nl.tue.oblotsim.Schedulers.SSyncScheduler;
+import nl.tue.oblotsim.Schedulers.TestUtil;
+import nl.tue.oblotsim.Simulator.ArraySimulation;
+import nl.tue.oblotsim.Simulator.Robot;
+import nl.tue.oblotsim.Simulator.Simulation;
+import nl.tue.oblotsim.Util.Config;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ArraySimulationTest {
+
+    @Test
+    void testSameResultAsSimulation() {
+
+        Robot[] robots = TestUtil.generateRobotCloud(TestUtil.GO_TO_COG, 10.0, 20);
+
+        // With the same seed, the SSYNC scheduler makes the same choices, so both engines should see exactly the same events.
+        Config config = new Config(true, Double.POSITIVE_INFINITY, false);
+        Simulation sim = new Simulation(config, List.of(robots), new SSyncScheduler(), 42);
+        ArraySimulation arraySim = new ArraySimulation(config, List.of(robots), new SSyncScheduler(), 42);
+
+        for (int i = 0; i < 30; i++) {
+            sim.simulateTillNextEvent();
+            arraySim.simulateTillNextEvent();
+
+            assertEquals(sim.getTimeline().lastKey(), arraySim.getCurrentTime());
+
+            Map<Integer, Robot> expected = sim.getTimeline().lastEntry().getValue().getSnapshot();
+            for (Robot robot : arraySim.getRobots()) {
+                assertEquals(expected.get(robot.getId()).getPos(), robot.getPos());
+                assertEquals(expected.get(robot.getId()).getState(), robot.getState());
+            }
+        }
+    }
+
+}
@@ -0,0 +1,51 @@
+import nl.tue.oblotsim.Schedulers.AsyncScheduler;
+import nl.tue.oblotsim.Schedulers.TestUtil;
+import nl.tue.oblotsim.Simulator.BackgroundSimulation;
+import nl.tue.oblotsim.Simulator.Robot;
+import nl.tue.oblotsim.Simulator.Simulation;
+import nl.tue.oblotsim.Util.Config;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BackgroundSimulationTest {
+
+    @Test
+    @Timeout(10)
+    void testMatchesForegroundSimulation() throws InterruptedException {
+        Config config = new Config(true, Double.POSITIVE_INFINITY, true);
+        Robot[] robots = TestUtil.generateRobotCloud(TestUtil.GO_TO_COG, 10.0, 20);
+        Simulation expected = new Simulation(config, List.of(robots), new AsyncScheduler(), 42);
+
+        try (BackgroundSimulation background = new BackgroundSimulation(new Simulation(config, List.of(robots), new AsyncScheduler(), 42), 5.0, 8)) {
+            background.start();
+
+            // Play back like the GUI does, waiting whenever the background thread has not caught up yet.
+            double t = 0.0;
+            while (t < 50.0) {
+                background.simulateTillTimestamp(t);
+                if (t > background.highestKnownLastEventTimeLowerBound()) {
+                    Thread.sleep(1);
+                    continue;
+                }
+
+                Map<Integer, Robot> actual = background.robotsAtTime(t).stream().collect(Collectors.toMap(Robot::getId, robot -> robot));
+                for (Robot robot : expected.robotsAtTime(t)) {
+                    assertEquals(robot.getPos(), actual.get(robot.getId()).getPos());
+                    assertEquals(robot.getState(), actual.get(robot.getId()).getState());
+                }
+                t += 0.25;
+            }
+
+            // It never computes much further than the look-ahead.
+            double end = t;
+            assertTrue(background.getComputedEvents().stream().allMatch(event -> event.getTimestamp() <= end + 5.0 + 1.0));
+        }
+    }
+}
@@ -0,0 +1,100 @@
+import nl.tue.oblotsim.Util.CanonicalConfiguration;
+import nl.tue.oblotsim.Util.Vector;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CanonicalConfigurationTest {
+
+    /**
+     * The seeds of the random configurations, fixed so that every run checks the same ones.
+     */
+    private static final long[] SEEDS = new Random(42).longs(1000).toArray();
+
+    /**
+     * A random configuration, sometimes with symmetries, points at the center of its enclosing circle
+     * or several points on the same ray from the center.
+     */
+    private static Vector[] configuration(Random random) {
+        int n = 1 + random.nextInt(40);
+        List<Vector> points = new ArrayList<>();
+        switch (random.nextInt(3)) {
+            case 0:
+                for (int i = 0; i < n; i++) {
+                    points.add(new Vector(random.nextDouble() * 10, random.nextDouble() * 10));
+                }
+                break;
+            case 1:
+                // A regular polygon, which has as many rotations as points that give the same string.
+                for (int i = 0; i < n; i++) {
+                    double angle = 2 * Math.PI * i / n;
+                    points.add(new Vector(Math.cos(angle), Math.sin(angle)));
+                }
+                points.add(new Vector(0, 0));
+                break;
+            default:
+                // Rings of points on the same rays.
+                int rays = 1 + random.nextInt(6);
+                for (int i = 0; i < rays; i++) {
+                    double angle = 2 * Math.PI * i / rays;
+                    points.add(new Vector(Math.cos(angle), Math.sin(angle)));
+                    points.add(new Vector(0.5 * Math.cos(angle), 0.5 * Math.sin(angle)));
+                }
+                break;
+        }
+        return points.toArray(new Vector[0]);
+    }
+
+    /**
+     * The configuration seen by a robot with another coordinate system, with the points in another order.
+     */
+    private static Vector[] similar(Vector[] points, Random random) {
+        double rotation = random.nextDouble() * 2 * Math.PI;
+        double scale = 0.1 + random.nextDouble() * 10;
+        boolean reflect = random.nextBoolean();
+        Vector translation = new Vector(random.nextDouble() * 100 - 50, random.nextDouble() * 100 - 50);
+        List<Vector> result = new ArrayList<>();
+        for (Vector p : points) {
+            Vector q = p.rotate(rotation).mult(scale).add(translation);
+            result.add(reflect ? new Vector(-q.x, q.y) : q);
+        }
+        Collections.shuffle(result, random);
+        return result.toArray(new Vector[0]);
+    }
+
+    @Test
+    void testSimilarConfigurationsAreEqual() {
+        for (long seed : SEEDS) {
+            Random random = new Random(seed);
+            Vector[] points = configuration(random);
+            CanonicalConfiguration a = CanonicalConfiguration.of(points);
+            CanonicalConfiguration b = CanonicalConfiguration.of(similar(points, random));
+            assertEquals(a, b, "seed " + seed);
+            assertEquals(a.hashCode(), b.hashCode(), "seed " + seed);
+            assertEquals(a.hash128()[1], b.hash128()[1], "seed " + seed);
+        }
+    }
+
+    @Test
+    void testMovingAPointChangesTheConfiguration() {
+        for (long seed : SEEDS) {
+            Random random = new Random(seed);
+            Vector[] points = new Vector[3 + random.nextInt(20)];
+            for (int i = 0; i < points.length; i++) {
+                points[i] = new Vector(random.nextDouble() * 10, random.nextDouble() * 10);
+            }
+            Vector[] moved = points.clone();
+            int index = random.nextInt(points.length);
+            moved[index] = moved[index].add(new Vector(0.01, 0.02));
+            CanonicalConfiguration a = CanonicalConfiguration.of(points);
+            CanonicalConfiguration b = CanonicalConfiguration.of(moved);
+            assertTrue(!a.equals(b) && a.hash64() != b.hash64(), "seed " + seed);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+import nl.tue.oblotsim.Schedulers.AsyncScheduler;
+import nl.tue.oblotsim.Schedulers.CalculatedEvent;
+import nl.tue.oblotsim.Schedulers.TestUtil;
+import nl.tue.oblotsim.Simulator.Robot;
+import nl.tue.oblotsim.Simulator.Simulation;
+import nl.tue.oblotsim.Util.Config;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CheckpointTest {
+
+    @Test
+    void testRestoredSimulationContinuesIdentically(@TempDir Path dir) throws IOException {
+
+        Robot[] robots = TestUtil.generateRobotCloud(TestUtil.GO_TO_COG, 10.0, 20);
+        Simulation sim = new Simulation(new Config(true, Double.POSITIVE_INFINITY, true), List.of(robots), new AsyncScheduler());
+        for (int i = 0; i < 200; i++) {
+            sim.simulateTillNextEvent();
+        }
+
+        Path file = dir.resolve("run.checkpoint");
+        sim.checkpoint(file);
+        Simulation restored = Simulation.restore(file);
+        assertEquals(sim.getTimeline().lastKey(), restored.getTimeline().firstKey());
+
+        // The scheduler continues with the same random numbers, so both produce exactly the same events.
+        for (int i = 0; i < 200; i++) {
+            CalculatedEvent expected = sim.simulateTillNextEvent().orElseThrow();
+            CalculatedEvent actual = restored.simulateTillNextEvent().orElseThrow();
+            assertEquals(expected.getTimestamp(), actual.getTimestamp());
+
+            Map<Integer, Robot> snapshot = actual.getSnapshot();
+            for (Robot robot : expected.getSnapshot().values()) {
+                assertEquals(robot.getPos().x, snapshot.get(robot.getId()).getPos().x);
+                assertEquals(robot.getPos().y, snapshot.get(robot.getId()).getPos().y);
+                assertEquals(robot.getState(), snapshot.get(robot.getId()).getState());
+            }
+        }
+    }
+
+}
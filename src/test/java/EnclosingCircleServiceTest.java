@@ -0,0 +1,65 @@
+import nl.tue.oblotsim.Schedulers.TestUtil;
+import nl.tue.oblotsim.Simulator.EnclosingCircleService;
+import nl.tue.oblotsim.Simulator.Robot;
+import nl.tue.oblotsim.Simulator.State;
+import nl.tue.oblotsim.Util.Circle;
+import nl.tue.oblotsim.Util.SmallestEnclosingCircle;
+import nl.tue.oblotsim.Util.Vector;
+import nl.tue.oblotsim.positiontransformations.RotationTransformation;
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Property;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+public class EnclosingCircleServiceTest {
+
+    @Property
+    boolean matchesRecomputingEveryTime(@ForAll long seed) {
+        Random random = new Random(seed);
+        EnclosingCircleService service = new EnclosingCircleService(new Random(seed));
+        Map<Integer, Robot> robots = new HashMap<>();
+        int nextId = 0;
+        for (int i = 0; i < 1 + random.nextInt(20); i++) {
+            robots.put(nextId, robot(nextId, random));
+            nextId++;
+        }
+
+        for (int step = 0; step < 200; step++) {
+            List<Integer> ids = new ArrayList<>(robots.keySet());
+            int action = random.nextInt(4);
+            if (action == 0 || ids.isEmpty()) {
+                robots.put(nextId, robot(nextId, random));
+                nextId++;
+            } else if (action == 1 && ids.size() > 1) {
+                robots.remove(ids.get(random.nextInt(ids.size())));
+            } else {
+                // Move a robot, either a bit or anywhere, which is what happens most.
+                int id = ids.get(random.nextInt(ids.size()));
+                Vector position = random.nextBoolean()
+                        ? robots.get(id).getPos().add(new Vector(random.nextDouble() - 0.5, random.nextDouble() - 0.5))
+                        : robot(id, random).getPos();
+                robots.put(id, new Robot(id, TestUtil.DO_NOTHING, position, new RotationTransformation(), null, State.SLEEPING, 1.0, step));
+            }
+
+            Circle circle = service.update(robots);
+            List<Vector> positions = new ArrayList<>();
+            robots.values().forEach(robot -> positions.add(robot.getPos()));
+            Circle expected = SmallestEnclosingCircle.makeCircle(positions, new Random(seed));
+            double tolerance = 1e-9 * Math.max(1, expected.r);
+            if (Math.abs(circle.r - expected.r) > tolerance || circle.c.dist(expected.c) > tolerance
+                    || !positions.stream().allMatch(p -> p.dist(circle.c) <= circle.r + tolerance)) {
+                return false;
+            }
+        }
+        return service.getReuses() + service.getRecomputations() == 200;
+    }
+
+    private static Robot robot(int id, Random random) {
+        return new Robot(id, TestUtil.DO_NOTHING, new Vector(random.nextDouble() * 20 - 10, random.nextDouble() * 20 - 10),
+                new RotationTransformation(), null, State.SLEEPING, 1.0, 0.0);
+    }
+}
@@ -0,0 +1,123 @@
+import nl.tue.oblotsim.Schedulers.AsyncScheduler;
+import nl.tue.oblotsim.Schedulers.CalculatedEvent;
+import nl.tue.oblotsim.Schedulers.TestUtil;
+import nl.tue.oblotsim.Simulator.RetentionPolicy;
+import nl.tue.oblotsim.Simulator.Robot;
+import nl.tue.oblotsim.Simulator.Simulation;
+import nl.tue.oblotsim.Simulator.State;
+import nl.tue.oblotsim.Util.Config;
+import nl.tue.oblotsim.Util.Vector;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ForkTest {
+
+    private static final Config CONFIG = new Config(true, Double.POSITIVE_INFINITY, true);
+
+    @Test
+    void testForkSharesHistory() {
+        Robot[] robots = TestUtil.generateRobotCloud(TestUtil.GO_TO_COG, 10.0, 20);
+        Simulation sim = new Simulation(CONFIG, List.of(robots), new AsyncScheduler(), 42);
+        sim.simulateTillTimestamp(20.0);
+
+        double t = 10.0;
+        Simulation fork = sim.forkAt(t, new AsyncScheduler(), new Config(true, Double.POSITIVE_INFINITY, false));
+        double forkTime = sim.getTimeline().floorKey(t);
+
+        // The events up to the fork are the same objects, not simulated again.
+        for (Map.Entry<Double, CalculatedEvent> entry : sim.getTimeline().headMap(forkTime, false).entrySet()) {
+            assertSame(entry.getValue(), fork.getTimeline().get(entry.getKey()));
+        }
+        assertEquals(forkTime, fork.getTimeline().lastKey());
+
+        for (double time = 0.0; time <= forkTime; time += 0.5) {
+            Map<Integer, Robot> expected = sim.robotsAtTime(time).stream().collect(Collectors.toMap(Robot::getId, robot -> robot));
+            for (Robot robot : fork.robotsAtTime(time)) {
+                assertEquals(expected.get(robot.getId()).getPos(), robot.getPos());
+                assertEquals(expected.get(robot.getId()).getState(), robot.getState());
+            }
+        }
+
+        // The fork continues on its own, without changing the original.
+        double end = sim.getTimeline().lastKey();
+        fork.simulateTillTimestamp(30.0);
+        assertTrue(fork.getTimeline().lastKey() > forkTime);
+        assertEquals(end, sim.getTimeline().lastKey());
+    }
+
+    @Test
+    void testForkDropsHistoryEvictedByOriginal() {
+        Robot[] robots = TestUtil.generateRobotCloud(TestUtil.GO_TO_COG, 10.0, 20);
+        Simulation sim = new Simulation(CONFIG, List.of(robots), new AsyncScheduler(), 42);
+        sim.simulateTillTimestamp(20.0);
+        Simulation fork = sim.forkAt(10.0, new AsyncScheduler(), CONFIG);
+        double forkTime = fork.getTimeline().lastKey();
+        Simulation forkOfFork = fork.forkAt(15.0, new AsyncScheduler(), CONFIG);
+
+        // The original evicts events before and after the time of the first fork.
+        for (double keep : new double[]{forkTime - 5.0, forkTime + 5.0}) {
+            sim.setRetentionPolicy(RetentionPolicy.lastDuration(sim.getTimeline().lastKey() - keep));
+            for (Simulation other : List.of(fork, forkOfFork)) {
+                assertTrue(other.getHistoryStart() >= Math.min(sim.getHistoryStart(), forkTime));
+                assertEquals(other.getHistoryStart(), other.getTimeline().firstKey());
+                // Everything it still advertises can be looked up.
+                for (CalculatedEvent event : other.getTimeline().values()) {
+                    assertEquals(robots.length, event.getSnapshot().size());
+                }
+                other.robotsAtTime(other.getHistoryStart());
+                assertThrows(IllegalArgumentException.class, () -> other.robotsAtTime(other.getHistoryStart() - 1e-9));
+            }
+        }
+        // Only the events of the first fork itself are left.
+        assertEquals(forkTime, fork.getHistoryStart());
+    }
+
+    @Test
+    void testForkWithOtherRobots() {
+        Robot[] robots = TestUtil.generateRobotCloud(TestUtil.GO_TO_COG, 10.0, 20);
+        Simulation sim = new Simulation(CONFIG, List.of(robots), new AsyncScheduler(), 42);
+        sim.simulateTillTimestamp(20.0);
+        double forkTime = sim.getTimeline().floorKey(10.0);
+
+        // Remove one robot and add another one.
+        List<Robot> changed = sim.getTimeline().get(forkTime).getSnapshot().values().stream()
+                .filter(robot -> robot.getId() != robots[0].getId())
+                .collect(Collectors.toList());
+        int newId = Arrays.stream(robots).mapToInt(Robot::getId).max().getAsInt() + 1;
+        changed.add(new Robot(newId, robots[0].getAlgo(), new Vector(100.0, 100.0), robots[0].getTrans(), null, State.SLEEPING, 1.0, forkTime));
+        Simulation fork = sim.forkAt(10.0, new AsyncScheduler(), CONFIG, changed);
+
+        for (Map.Entry<Double, CalculatedEvent> entry : sim.getTimeline().headMap(forkTime, false).entrySet()) {
+            assertSame(entry.getValue(), fork.getTimeline().get(entry.getKey()));
+        }
+        assertTrue(fork.getTimeline().get(forkTime).getEvents().stream().noneMatch(event -> event.getTargetId() == robots[0].getId()));
+
+        fork.simulateTillTimestamp(30.0);
+        assertTrue(fork.getTimeline().lastKey() > forkTime);
+        Map<Integer, Robot> after = fork.getTimeline().lastEntry().getValue().getSnapshot();
+        assertEquals(robots.length, after.size());
+        assertTrue(!after.containsKey(robots[0].getId()));
+        // The new robot takes part in the simulation.
+        assertTrue(fork.getTimeline().tailMap(forkTime, false).values().stream()
+                .anyMatch(event -> event.getEvents().stream().anyMatch(e -> e.getTargetId() == newId)));
+
+        changed.add(changed.get(0));
+        assertThrows(IllegalArgumentException.class, () -> sim.forkAt(10.0, new AsyncScheduler(), CONFIG, changed));
+    }
+
+    @Test
+    void testForkBeforeHistory() {
+        Robot[] robots = TestUtil.generateRobotCloud(TestUtil.GO_TO_COG, 10.0, 5);
+        Simulation sim = new Simulation(CONFIG, List.of(robots), new AsyncScheduler(), 42);
+        assertThrows(IllegalArgumentException.class, () -> sim.forkAt(-1.0, new AsyncScheduler(), CONFIG));
+    }
+}
@@ -0,0 +1,60 @@
+import nl.tue.oblotsim.Schedulers.AsyncScheduler;
+import nl.tue.oblotsim.Schedulers.HeapAsyncScheduler;
+import nl.tue.oblotsim.Schedulers.HeapSSyncScheduler;
+import nl.tue.oblotsim.Schedulers.SSyncScheduler;
+import nl.tue.oblotsim.Schedulers.Scheduler;
+import nl.tue.oblotsim.Schedulers.TestUtil;
+import nl.tue.oblotsim.Simulator.Robot;
+import nl.tue.oblotsim.Simulator.Simulation;
+import nl.tue.oblotsim.Util.Config;
+import nl.tue.oblotsim.Util.Vector;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HeapSchedulerTest {
+
+    @Test
+    void testHeapAsyncMatchesAsync() {
+        assertSameTimeline(AsyncScheduler::new, HeapAsyncScheduler::new);
+    }
+
+    @Test
+    void testHeapSSyncMatchesSSync() {
+        assertSameTimeline(SSyncScheduler::new, HeapSSyncScheduler::new);
+    }
+
+    private static void assertSameTimeline(Supplier<Scheduler> linear, Supplier<Scheduler> heap) {
+        Robot[] robots = TestUtil.generateRobotCloud(TestUtil.GO_TO_COG, 10.0, 25);
+        for (boolean interruptable : new boolean[]{false, true}) {
+            Config config = new Config(true, Double.POSITIVE_INFINITY, interruptable);
+            for (long seed = 0; seed < 10; seed++) {
+                Simulation expected = new Simulation(config, List.of(robots), linear.get(), seed);
+                Simulation actual = new Simulation(config, List.of(robots), heap.get(), seed);
+                expected.simulateTillTimestamp(40.0);
+                actual.simulateTillTimestamp(40.0);
+
+                List<String> events = describe(expected);
+                assertTrue(events.size() > robots.length);
+                assertEquals(events, describe(actual));
+                Map<Integer, Vector> positions = expected.getCurrentRobots().stream().collect(Collectors.toMap(Robot::getId, Robot::getPos));
+                for (Robot robot : actual.getCurrentRobots()) {
+                    assertEquals(positions.get(robot.getId()), robot.getPos());
+                }
+            }
+        }
+    }
+
+    private static List<String> describe(Simulation sim) {
+        return sim.getTimeline().values().stream()
+                .flatMap(calculated -> calculated.getEvents().stream())
+                .map(event -> event.getType() + " " + event.getTargetId() + " " + event.getT())
+                .collect(Collectors.toList());
+    }
+}
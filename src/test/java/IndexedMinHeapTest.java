@@ -0,0 +1,49 @@
+import nl.tue.oblotsim.Util.IndexedMinHeap;
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Property;
+
+import java.util.Random;
+
+public class IndexedMinHeapTest {
+
+    @Property
+    boolean matchesLinearScan(@ForAll long seed) {
+        Random random = new Random(seed);
+        int capacity = 1 + random.nextInt(100);
+        IndexedMinHeap heap = new IndexedMinHeap(capacity);
+        Double[] keys = new Double[capacity];
+
+        for (int step = 0; step < 1000; step++) {
+            int index = random.nextInt(capacity);
+            switch (random.nextInt(3)) {
+                case 0:
+                    // Few distinct keys, so ties are common.
+                    double key = random.nextInt(20);
+                    heap.set(index, key);
+                    keys[index] = key;
+                    break;
+                case 1:
+                    heap.remove(index);
+                    keys[index] = null;
+                    break;
+                default:
+                    int expected = -1;
+                    for (int i = 0; i < capacity; i++) {
+                        if (keys[i] != null && (expected < 0 || keys[i] < keys[expected])) {
+                            expected = i;
+                        }
+                    }
+                    if (expected < 0) {
+                        if (!heap.isEmpty()) {
+                            return false;
+                        }
+                    } else if (heap.poll() != expected) {
+                        return false;
+                    } else {
+                        keys[expected] = null;
+                    }
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,96 @@
+import nl.tue.oblotsim.RobotPaths.RobotPath;
+import nl.tue.oblotsim.Util.Circle;
+import nl.tue.oblotsim.Util.SmallestEnclosingCircle;
+import nl.tue.oblotsim.Util.Vector;
+import nl.tue.oblotsim.algorithms.LocalSnapshot;
+import nl.tue.oblotsim.algorithms.MoveAlongSEC;
+import nl.tue.oblotsim.algorithms.TransformedSnapshot;
+import nl.tue.oblotsim.positiontransformations.RotationTransformation;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class LocalSnapshotTest {
+
+    /**
+     * Counts how many positions are converted.
+     */
+    private static class CountingTransformation extends RotationTransformation {
+        int conversions = 0;
+
+        CountingTransformation() {
+            super(2, 0.5, true);
+        }
+
+        @Override
+        public Vector globalToLocal(Vector p, Vector origin) {
+            conversions++;
+            return super.globalToLocal(p, origin);
+        }
+
+        @Override
+        public void globalToLocal(double[] src, double[] dst, int n, Vector origin) {
+            conversions += n;
+            super.globalToLocal(src, dst, n, origin);
+        }
+    }
+
+    private static final Vector[] GLOBAL = {new Vector(1, 1), new Vector(4, -2), new Vector(-3, 5), new Vector(0, 7)};
+
+    @Test
+    void testConvertsOnAccessOnce() {
+        CountingTransformation transformation = new CountingTransformation();
+        LocalSnapshot snapshot = new TransformedSnapshot(GLOBAL, transformation, GLOBAL[2], null);
+
+        assertEquals(4, snapshot.size());
+        assertEquals(0, transformation.conversions);
+        Vector p = snapshot.get(1);
+        assertSame(p, snapshot.get(1));
+        assertEquals(1, transformation.conversions);
+        assertEquals(2, snapshot.ownIndex());
+        assertEquals(1, transformation.conversions);
+
+        List<Vector> iterated = new ArrayList<>();
+        snapshot.forEach(iterated::add);
+        assertEquals(4, transformation.conversions);
+        assertEquals(Arrays.asList(new RotationTransformation(2, 0.5, true).globalToLocal(GLOBAL, GLOBAL[2])), iterated);
+        assertEquals(Vector.ZERO, snapshot.get(snapshot.ownIndex()));
+    }
+
+    @Test
+    void testInterleavedMatchesVectors() {
+        double[] coordinates = new double[2 * GLOBAL.length];
+        for (int i = 0; i < GLOBAL.length; i++) {
+            coordinates[2 * i] = GLOBAL[i].x;
+            coordinates[2 * i + 1] = GLOBAL[i].y;
+        }
+        CountingTransformation transformation = new CountingTransformation();
+        LocalSnapshot interleaved = new TransformedSnapshot(coordinates, transformation, GLOBAL[0], null);
+        LocalSnapshot vectors = new TransformedSnapshot(GLOBAL, transformation, GLOBAL[0], null);
+
+        assertEquals(Arrays.asList(vectors.toArray()), Arrays.asList(interleaved.toArray()));
+        assertEquals(0, interleaved.ownIndex());
+        assertEquals(vectors.smallestEnclosingCircle().c, interleaved.smallestEnclosingCircle().c);
+    }
+
+    @Test
+    void testKnownCircleNeedsNoPositions() {
+        CountingTransformation transformation = new CountingTransformation();
+        Circle global = SmallestEnclosingCircle.makeCircle(Arrays.asList(GLOBAL));
+        LocalSnapshot snapshot = new TransformedSnapshot(GLOBAL, transformation, GLOBAL[0],
+                () -> transformation.globalToLocal(global, GLOBAL[0]));
+
+        RobotPath lazy = new MoveAlongSEC().doAlgorithm(snapshot);
+        // Only the center and a point on the circle were converted.
+        assertEquals(2, transformation.conversions);
+
+        Vector[] local = new RotationTransformation(2, 0.5, true).globalToLocal(GLOBAL, GLOBAL[0]);
+        RobotPath eager = new MoveAlongSEC().doAlgorithm(local);
+        assertEquals(eager.getEnd(), lazy.getEnd());
+    }
+}
@@ -0,0 +1,91 @@
+import nl.tue.oblotsim.Util.PersistentIntMap;
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Property;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+public class PersistentIntMapTest {
+
+    @Property
+    boolean behavesLikeAHashMap(@ForAll long seed) {
+        Random random = new Random(seed);
+        // Small and large ranges of keys, so both shallow and deep tries are made, including negative keys.
+        int range = random.nextBoolean() ? 100 : Integer.MAX_VALUE;
+        Map<Integer, Integer> expected = new HashMap<>();
+        PersistentIntMap<Integer> map = PersistentIntMap.empty();
+
+        for (int i = 0; i < 500; i++) {
+            int key = range == Integer.MAX_VALUE ? random.nextInt() : random.nextInt(range);
+            PersistentIntMap<Integer> before = map;
+            Map<Integer, Integer> expectedBefore = new HashMap<>(expected);
+            if (random.nextInt(3) == 0) {
+                map = map.remove(key);
+                expected.remove(key);
+            } else {
+                map = map.put(key, i);
+                expected.put(key, i);
+            }
+            // The old map is not changed.
+            if (!before.asMap().equals(expectedBefore) || !map.asMap().equals(expected) || map.size() != expected.size()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Property
+    boolean builderMatchesSingleChanges(@ForAll long seed) {
+        Random random = new Random(seed);
+        PersistentIntMap<Integer> base = PersistentIntMap.empty();
+        for (int i = 0; i < 200; i++) {
+            base = base.put(random.nextInt(1000), i);
+        }
+
+        PersistentIntMap<Integer> oneByOne = base;
+        PersistentIntMap.Builder<Integer> builder = base.toBuilder();
+        for (int i = 0; i < 100; i++) {
+            int key = random.nextInt(1000);
+            if (random.nextBoolean()) {
+                oneByOne = oneByOne.remove(key);
+                builder.remove(key);
+            } else {
+                oneByOne = oneByOne.put(key, -i);
+                builder.put(key, -i);
+            }
+        }
+        PersistentIntMap<Integer> built = builder.build();
+        Map<Integer, Integer> snapshot = new HashMap<>(built.asMap());
+        // Changes after building do not leak into the built map.
+        builder.put(-1, 0).remove(snapshot.keySet().iterator().next());
+
+        return built.asMap().equals(oneByOne.asMap()) && built.size() == oneByOne.size()
+                && built.asMap().equals(snapshot) && builder.build().size() == snapshot.size();
+    }
+
+    @Property
+    boolean builderDoesNotChangeTheOriginal(@ForAll long seed) {
+        Random random = new Random(seed);
+        PersistentIntMap.Builder<Integer> first = PersistentIntMap.<Integer>empty().toBuilder();
+        for (int key = 0; key < 50 + random.nextInt(1000); key++) {
+            first.put(key, key);
+        }
+        PersistentIntMap<Integer> base = first.build();
+        Map<Integer, Integer> expected = new HashMap<>(base.asMap());
+
+        // Several changes to the same nodes, as when a frame of the timeline changes a few robots.
+        PersistentIntMap.Builder<Integer> builder = base.toBuilder();
+        for (int i = 0; i < 10; i++) {
+            int key = random.nextInt(expected.size());
+            if (random.nextInt(4) == 0) {
+                builder.remove(key);
+            } else {
+                builder.put(key, -key);
+            }
+        }
+        builder.build();
+
+        return base.asMap().equals(expected) && base.size() == expected.size();
+    }
+}
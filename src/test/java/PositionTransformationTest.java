@@ -24,4 +24,50 @@ public class PositionTransformationTest {
                 && p.equalsWithinEpsilon(posTrans.globalToLocal(posTrans.localToGlobal(p, origin), origin), 10E-4);
     }
 
+    @Property
+    boolean testRotationMatchesDefinition(@ForAll @DoubleRange(min=-Math.PI,max=Math.PI-10E-10) double r,
+                                          @ForAll @DoubleRange(min=-10E5,max=10E5) double pX,
+                                          @ForAll @DoubleRange(min=-10E5,max=10E5) double pY,
+                                          @ForAll @DoubleRange(min=10E-3,max=10.0) double unitLength,
+                                          @ForAll boolean chirality) {
+
+        Vector origin = new Vector(3, -7);
+        Vector p = new Vector(pX, pY);
+        Vector expected = p.sub(origin).mult(unitLength).rotate(r);
+        if (chirality) {
+            expected.x = -expected.x;
+        }
+        PositionTransformation posTrans = new RotationTransformation(unitLength, r, chirality);
+
+        return expected.equalsWithinEpsilon(posTrans.globalToLocal(p, origin), 10E-6);
+    }
+
+    @Property
+    boolean testBulkMatchesSingle(@ForAll @DoubleRange(min=-Math.PI,max=Math.PI-10E-10) double r,
+                                  @ForAll @DoubleRange(min=-10E5,max=10E5) double oX,
+                                  @ForAll @DoubleRange(min=-10E5,max=10E5) double oY,
+                                  @ForAll @DoubleRange(min=10E-3,max=10.0) double unitLength,
+                                  @ForAll boolean chirality) {
+
+        Vector origin = new Vector(oX, oY);
+        PositionTransformation posTrans = new RotationTransformation(unitLength, r, chirality);
+        Vector[] points = {new Vector(0, 0), new Vector(1, 2), new Vector(-oY, oX), new Vector(oX, oY)};
+        double[] coordinates = new double[2 * points.length];
+        for (int i = 0; i < points.length; i++) {
+            coordinates[2 * i] = points[i].x;
+            coordinates[2 * i + 1] = points[i].y;
+        }
+
+        double[] local = new double[coordinates.length];
+        posTrans.globalToLocal(coordinates, local, points.length, origin);
+        double[] global = local.clone();
+        posTrans.localToGlobal(global, global, points.length, origin);
+        for (int i = 0; i < points.length; i++) {
+            if (!new Vector(local[2 * i], local[2 * i + 1]).equals(posTrans.globalToLocal(points[i], origin))
+                    || !new Vector(global[2 * i], global[2 * i + 1]).equalsWithinEpsilon(points[i], 10E-4)) {
+                return false;
+            }
+        }
+        return true;
+    }
 }
@@ -0,0 +1,152 @@
+import nl.tue.oblotsim.RobotPaths.PathDescription;
+import nl.tue.oblotsim.RobotPaths.RobotPath;
+import nl.tue.oblotsim.Schedulers.TestUtil;
+import nl.tue.oblotsim.Simulator.Robot;
+import nl.tue.oblotsim.Simulator.State;
+import nl.tue.oblotsim.Util.Circle;
+import nl.tue.oblotsim.Util.SmallestEnclosingCircle;
+import nl.tue.oblotsim.Util.Vector;
+import nl.tue.oblotsim.algorithms.Algorithm;
+import nl.tue.oblotsim.algorithms.GoToCoG;
+import nl.tue.oblotsim.algorithms.GoToRightMost;
+import nl.tue.oblotsim.algorithms.MoveAlongSEC;
+import nl.tue.oblotsim.algorithms.PrimitiveSnapshot;
+import nl.tue.oblotsim.positiontransformations.RotationTransformation;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PrimitiveSnapshotTest {
+
+    private static final Algorithm[] PORTED = {new GoToCoG(), new GoToRightMost(), new MoveAlongSEC()};
+
+    private static Vector[] randomPoints(int n, Random random) {
+        Vector[] points = new Vector[n];
+        for (int i = 0; i < n; i++) {
+            points[i] = new Vector(100 * random.nextDouble(), 100 * random.nextDouble());
+        }
+        return points;
+    }
+
+    private static double[] interleave(Vector[] points) {
+        double[] coordinates = new double[2 * points.length];
+        for (int i = 0; i < points.length; i++) {
+            coordinates[2 * i] = points[i].x;
+            coordinates[2 * i + 1] = points[i].y;
+        }
+        return coordinates;
+    }
+
+    @Test
+    void testSameAsVectorSnapshot() {
+        Random random = new Random(5);
+        for (int run = 0; run < 100; run++) {
+            Vector[] global = randomPoints(3 + random.nextInt(20), random);
+            double[] coordinates = interleave(global);
+            Circle circle = SmallestEnclosingCircle.makeCircle(Arrays.asList(global));
+            for (Algorithm algorithm : PORTED) {
+                Vector pos = global[random.nextInt(global.length)];
+                RotationTransformation trans = new RotationTransformation(0.5 + random.nextDouble(), 2 * Math.PI * random.nextDouble() - Math.PI, random.nextBoolean());
+                Robot robot = new Robot(0, algorithm, pos, trans, null, State.SLEEPING, 1.0, 0.0);
+
+                RobotPath primitive = robot.calculate(coordinates, () -> circle);
+                RobotPath vectors = robot.calculate(global, () -> circle);
+                assertEquals(vectors.getEnd(), primitive.getEnd(), algorithm.getClass().getSimpleName());
+                assertEquals(vectors.getLength(), primitive.getLength(), 1e-9);
+            }
+        }
+    }
+
+    @Test
+    void testUsesPrimitiveSnapshotWhenOverridden() {
+        for (Algorithm algorithm : PORTED) {
+            assertTrue(algorithm.usesPrimitiveSnapshot(), algorithm.getClass().getSimpleName());
+        }
+        // Subclasses inherit the override, algorithms that only compute from vectors do not have one.
+        assertTrue(new GoToCoG() {}.usesPrimitiveSnapshot());
+        assertFalse(TestUtil.GO_TO_COG.usesPrimitiveSnapshot());
+    }
+
+    @Test
+    void testDefaultComputesFromVectors() {
+        // Algorithms that only compute from vectors, with a line, an arc and both combined.
+        Algorithm[] vectorsOnly = {
+                TestUtil.GO_TO_COG,
+                new Algorithm() {
+                    @Override
+                    public RobotPath doAlgorithm(Vector[] snapshot) {
+                        return new MoveAlongSEC().doAlgorithm(snapshot);
+                    }
+                },
+        };
+        Random random = new Random(7);
+        for (int run = 0; run < 20; run++) {
+            Vector[] local = randomPoints(3 + random.nextInt(20), random);
+            PrimitiveSnapshot snapshot = new PrimitiveSnapshot().load(local, null);
+            for (Algorithm algorithm : vectorsOnly) {
+                assertFalse(algorithm.usesPrimitiveSnapshot());
+                RobotPath vectors = algorithm.doAlgorithm(local);
+                PathDescription path = new PathDescription();
+                algorithm.doAlgorithm(snapshot, path);
+                RobotPath primitive = path.toPath();
+                assertEquals(vectors.getEnd(), primitive.getEnd());
+                assertEquals(vectors.getLength(), primitive.getLength(), 1e-9);
+            }
+        }
+    }
+
+    @Test
+    void testOwnIndexAndCircle() {
+        Vector[] global = {new Vector(0, 0), new Vector(4, 0), new Vector(2, 2)};
+        RotationTransformation trans = new RotationTransformation(2, 1, true);
+        Circle circle = SmallestEnclosingCircle.makeCircle(Arrays.asList(global));
+        PrimitiveSnapshot snapshot = new PrimitiveSnapshot().load(interleave(global), global.length, trans, global[1], () -> circle);
+
+        assertEquals(3, snapshot.size());
+        assertEquals(1, snapshot.ownIndex());
+        assertEquals(0.0, snapshot.x(1));
+        assertEquals(0.0, snapshot.y(1));
+        Circle local = trans.globalToLocal(circle, global[1]);
+        assertEquals(local.c, new Vector(snapshot.circleX(), snapshot.circleY()));
+        assertEquals(local.r, snapshot.circleRadius(), 1e-12);
+    }
+
+    @Test
+    void testComputingDoesNotAllocate() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+            return;
+        }
+        com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threads;
+
+        Vector[] global = randomPoints(100, new Random(3));
+        double[] coordinates = interleave(global);
+        Circle circle = SmallestEnclosingCircle.makeCircle(Arrays.asList(global));
+        Supplier<Circle> knownCircle = () -> circle;
+        RotationTransformation trans = new RotationTransformation(1.5, 1, true);
+        PrimitiveSnapshot snapshot = new PrimitiveSnapshot();
+        PathDescription path = new PathDescription();
+        Runnable compute = () -> {
+            for (int i = 0; i < 1000; i++) {
+                snapshot.load(coordinates, global.length, trans, global[i % global.length], knownCircle);
+                for (Algorithm algorithm : PORTED) {
+                    algorithm.doAlgorithm(snapshot, path.clear());
+                }
+            }
+        };
+
+        compute.run();
+        long before = allocations.getThreadAllocatedBytes(Thread.currentThread().getId());
+        compute.run();
+        long allocated = allocations.getThreadAllocatedBytes(Thread.currentThread().getId()) - before;
+        // Leave some room for what measuring itself allocates.
+        assertTrue(allocated < 1024, "Allocated " + allocated + " bytes");
+    }
+}
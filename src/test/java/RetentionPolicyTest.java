@@ -0,0 +1,66 @@
+import nl.tue.oblotsim.Schedulers.AsyncScheduler;
+import nl.tue.oblotsim.Schedulers.TestUtil;
+import nl.tue.oblotsim.Simulator.RetentionPolicy;
+import nl.tue.oblotsim.Simulator.Robot;
+import nl.tue.oblotsim.Simulator.Simulation;
+import nl.tue.oblotsim.Simulator.TimelineStore;
+import nl.tue.oblotsim.Util.Config;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RetentionPolicyTest {
+
+    private static final Config CONFIG = new Config(true, Double.POSITIVE_INFINITY, true);
+
+    @Test
+    void testKeepsLastEvents() {
+        Robot[] robots = TestUtil.generateRobotCloud(TestUtil.GO_TO_COG, 10.0, 20);
+        Simulation full = new Simulation(CONFIG, List.of(robots), new AsyncScheduler(), 42);
+        Simulation bounded = new Simulation(CONFIG, List.of(robots), new AsyncScheduler(), new TimelineStore(), 42);
+        bounded.setRetentionPolicy(RetentionPolicy.lastEvents(50));
+
+        for (int i = 0; i < 500; i++) {
+            full.simulateTillNextEvent();
+            bounded.simulateTillNextEvent();
+            assertTrue(bounded.getTimeline().size() <= 50);
+        }
+        assertEquals(50, bounded.getTimeline().size());
+        assertEquals(full.getTimeline().lastKey(), bounded.getTimeline().lastKey());
+
+        // Within the history that is kept, the robots are the same as with the full history.
+        double start = bounded.getHistoryStart();
+        double end = bounded.getTimeline().lastKey();
+        Random random = new Random(42);
+        for (int i = 0; i < 50; i++) {
+            double t = start + random.nextDouble() * (end - start);
+            Map<Integer, Robot> expected = full.robotsAtTime(t).stream().collect(Collectors.toMap(Robot::getId, robot -> robot));
+            for (Robot robot : bounded.robotsAtTime(t)) {
+                assertEquals(expected.get(robot.getId()).getPos(), robot.getPos());
+                assertEquals(expected.get(robot.getId()).getState(), robot.getState());
+            }
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> bounded.robotsAtTime(start / 2));
+    }
+
+    @Test
+    void testKeepsLastDuration() {
+        Robot[] robots = TestUtil.generateRobotCloud(TestUtil.GO_TO_COG, 10.0, 20);
+        Simulation sim = new Simulation(CONFIG, List.of(robots), new AsyncScheduler(), 42);
+        sim.setRetentionPolicy(RetentionPolicy.lastDuration(10.0));
+
+        sim.simulateTillTimestamp(100.0);
+        double end = sim.getTimeline().lastKey();
+        assertTrue(sim.getHistoryStart() <= end - 10.0);
+        assertTrue(sim.getTimeline().higherKey(sim.getHistoryStart()) > end - 10.0);
+        sim.robotsAtTime(end - 10.0);
+    }
+}
@@ -0,0 +1,119 @@
+import nl.tue.oblotsim.Schedulers.AsyncScheduler;
+import nl.tue.oblotsim.Schedulers.Event;
+import nl.tue.oblotsim.Schedulers.SSyncScheduler;
+import nl.tue.oblotsim.Schedulers.TestUtil;
+import nl.tue.oblotsim.Simulator.ArraySimulation;
+import nl.tue.oblotsim.Simulator.Robot;
+import nl.tue.oblotsim.Simulator.RobotStateStore;
+import nl.tue.oblotsim.Simulator.RobotStates;
+import nl.tue.oblotsim.Simulator.State;
+import nl.tue.oblotsim.Util.Config;
+import nl.tue.oblotsim.Util.Vector;
+import nl.tue.oblotsim.positiontransformations.RotationTransformation;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RobotStateStoreTest {
+
+    @Test
+    void testStoresRobotsOfAnySize() {
+        for (int n : new int[]{0, 1, 7, 1000}) {
+            // Ids that are not equal to the indices, so they have to be looked up.
+            List<Robot> robots = new ArrayList<>();
+            for (int i = 0; i < n; i++) {
+                robots.add(new Robot(3 * i + 1, TestUtil.DO_NOTHING, new Vector(i, -i), new RotationTransformation(), null, State.SLEEPING, 1.0, i / 2.0));
+            }
+
+            RobotStateStore store = new RobotStateStore(robots);
+            assertEquals(n, store.size());
+            assertEquals(n, store.views().size());
+            for (int i = 0; i < n; i++) {
+                assertEquals(i, store.indexOf(3 * i + 1));
+                assertEquals(3 * i + 1, store.getId(i));
+                assertEquals(i / 2.0, store.getInCurrentStateSince(i));
+                assertEquals(new Vector(i, -i), store.view(i).getPos());
+            }
+        }
+        RobotStateStore store = new RobotStateStore(List.of(new Robot(5, TestUtil.DO_NOTHING, Vector.ZERO, new RotationTransformation(), null, State.SLEEPING, 1.0, 0.0)));
+        assertThrows(IllegalArgumentException.class, () -> store.indexOf(0));
+    }
+
+    @Test
+    void testStateTransitions() {
+        Robot[] robots = TestUtil.generateRobotCloud(TestUtil.GO_TO_COG, 10.0, 30);
+        ArraySimulation sim = new ArraySimulation(new Config(true, Double.POSITIVE_INFINITY, true), List.of(robots), new AsyncScheduler(), 42);
+        RobotStateStore store = sim.getStore();
+
+        Map<Integer, State> states = new HashMap<>();
+        for (Robot robot : robots) {
+            states.put(robot.getId(), State.SLEEPING);
+        }
+        for (int i = 0; i < 500 && sim.simulateTillNextEvent(); i++) {
+            for (Event event : sim.toCalculatedEvent().getEvents()) {
+                int index = store.indexOf(event.getTargetId());
+                State before = states.get(event.getTargetId());
+                State after = store.getState(index);
+                // Every robot goes through its cycle in order.
+                assertEquals(before == State.SLEEPING ? State.COMPUTING : before == State.COMPUTING ? State.MOVING : State.SLEEPING, after);
+                assertEquals(event.getT(), store.getInCurrentStateSince(index));
+                assertEquals(after == State.MOVING, store.willStopBefore(index).isPresent());
+                states.put(event.getTargetId(), after);
+            }
+        }
+        for (int i = 0; i < store.size(); i++) {
+            assertEquals(states.get(store.getId(i)), store.getState(i));
+            assertEquals(store.getState(i), store.view(i).getState());
+        }
+    }
+
+    @Test
+    void testInterpolatesLikeRobots() {
+        Robot[] robots = TestUtil.generateRobotCloud(TestUtil.GO_TO_COG, 10.0, 30);
+        ArraySimulation sim = new ArraySimulation(new Config(true, Double.POSITIVE_INFINITY, true), List.of(robots), new SSyncScheduler(), 7);
+        RobotStateStore store = sim.getStore();
+        double[] xs = new double[store.size()];
+        double[] ys = new double[store.size()];
+
+        boolean sawMoving = false;
+        for (int i = 0; i < 50 && sim.simulateTillNextEvent(); i++) {
+            for (double dt : new double[]{0.0, 0.25, 0.5, 1.0, 10.0}) {
+                double t = sim.getCurrentTime() + dt;
+                sim.fillPositionsAt(t, xs, ys);
+                for (int j = 0; j < store.size(); j++) {
+                    sawMoving |= store.getState(j) == State.MOVING;
+                    assertEquals(store.view(j).positionAtTimeWithoutStateChange(t), new Vector(xs[j], ys[j]));
+                }
+            }
+        }
+        assertTrue(sawMoving);
+    }
+
+    @Test
+    void testSchedulersReadStoreLikeRobots() {
+        Robot[] robots = TestUtil.generateRobotCloud(TestUtil.GO_TO_COG, 10.0, 30);
+        ArraySimulation sim = new ArraySimulation(new Config(true, Double.POSITIVE_INFINITY, false), List.of(robots), new SSyncScheduler(), 3);
+        RobotStateStore store = sim.getStore();
+
+        for (int i = 0; i < 30 && sim.simulateTillNextEvent(); i++) {
+            SSyncScheduler columns = new SSyncScheduler();
+            SSyncScheduler views = new SSyncScheduler();
+            columns.setSeed(i);
+            views.setSeed(i);
+            assertEquals(describe(views.getNextEvent(RobotStates.of(store.views()), sim.getCurrentTime(), false)),
+                    describe(columns.getNextEvent(store, sim.getCurrentTime(), false)));
+        }
+    }
+
+    private static List<String> describe(List<Event> events) {
+        return events.stream().map(event -> event.getType() + " " + event.getTargetId() + " " + event.getT()).collect(Collectors.toList());
+    }
+}
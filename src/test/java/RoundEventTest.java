@@ -0,0 +1,67 @@
+import nl.tue.oblotsim.Schedulers.Event;
+import nl.tue.oblotsim.Schedulers.EventType;
+import nl.tue.oblotsim.Schedulers.RoundEvent;
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Property;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class RoundEventTest {
+
+    @Property
+    boolean expandsToEventsInOrderOfId(@ForAll long seed) {
+        Random random = new Random(seed);
+        TreeSet<Integer> ids = new TreeSet<>();
+        int count = 1 + random.nextInt(200);
+        // Dense enough to be stored in a bit set.
+        while (ids.size() < count) {
+            ids.add(random.nextInt(64 * count));
+        }
+        List<Integer> shuffled = new ArrayList<>(ids);
+        Collections.shuffle(shuffled, random);
+
+        List<Event> round = RoundEvent.of(EventType.START_MOVING, 3.0, shuffled.stream().mapToInt(Integer::intValue));
+        if (!(round instanceof RoundEvent) || round.size() != ids.size()) {
+            return false;
+        }
+        if (!round.stream().allMatch(event -> event.getType() == EventType.START_MOVING && event.getT() == 3.0)) {
+            return false;
+        }
+
+        List<Integer> expected = new ArrayList<>(ids);
+        List<Integer> iterated = round.stream().map(Event::getTargetId).collect(Collectors.toList());
+        int index = random.nextInt(round.size());
+        return iterated.equals(expected) && round.get(index).getTargetId() == expected.get(index);
+    }
+
+    @Property
+    boolean sparseIdsAreListedInOrder(@ForAll long seed) {
+        Random random = new Random(seed);
+        TreeSet<Integer> ids = new TreeSet<>();
+        int count = 1 + random.nextInt(50);
+        ids.add(Integer.MAX_VALUE - random.nextInt(10));
+        while (ids.size() < count) {
+            ids.add(random.nextInt(Integer.MAX_VALUE));
+        }
+        List<Integer> shuffled = new ArrayList<>(ids);
+        Collections.shuffle(shuffled, random);
+
+        // Far too sparse for a bit set, which would take hundreds of megabytes.
+        List<Event> round = RoundEvent.of(EventType.START_COMPUTE, 2.0, shuffled.stream().mapToInt(Integer::intValue));
+        return !(round instanceof RoundEvent)
+                && round.stream().allMatch(event -> event.getType() == EventType.START_COMPUTE && event.getT() == 2.0)
+                && round.stream().map(Event::getTargetId).collect(Collectors.toList()).equals(new ArrayList<>(ids));
+    }
+
+    @Property
+    boolean anyIdIsKept(@ForAll int id) {
+        List<Event> round = RoundEvent.of(EventType.END_MOVING, 1.0, IntStream.of(id));
+        return round.size() == 1 && round.get(0).getTargetId() == id;
+    }
+}
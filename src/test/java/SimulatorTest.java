@@ -1,23 +1,39 @@
+import nl.tue.oblotsim.RobotPaths.LinearPath;
+import nl.tue.oblotsim.Schedulers.AsyncScheduler;
+import nl.tue.oblotsim.Schedulers.Event;
+import nl.tue.oblotsim.Schedulers.EventType;
 import nl.tue.oblotsim.Schedulers.FSyncScheduler;
+import nl.tue.oblotsim.Schedulers.SSyncScheduler;
+import nl.tue.oblotsim.Schedulers.Scheduler;
 import nl.tue.oblotsim.Schedulers.TestUtil;
 import nl.tue.oblotsim.Simulator.Simulation;
 import nl.tue.oblotsim.Simulator.Robot;
+import nl.tue.oblotsim.Simulator.SimulationListener;
+import nl.tue.oblotsim.Simulator.State;
 import nl.tue.oblotsim.Util.Config;
 import nl.tue.oblotsim.Util.Vector;
-import org.junit.jupiter.api.Disabled;
+import nl.tue.oblotsim.positiontransformations.RotationTransformation;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.Timeout;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class SimulatorTest {
 
     @Test
     @Timeout(5)
-    @Disabled
     void testGatherAtCOGFSync() {
 
         /*
@@ -40,14 +56,152 @@ class SimulatorTest {
         // Perhaps consider making this a single static method?
         Simulation sim = new Simulation(config, List.of(robots), new FSyncScheduler());
 
-        // Run until it all stops. Note that this implies that it stops.
+        // Run until it all stops. Note that this implies that it stops, which it does once the robots have converged.
         sim.simulateTillTimestamp(Double.POSITIVE_INFINITY);
+        assertTrue(sim.hasConverged());
 
-        // Expect the robots to have gathered exactly at the COG.
-        for (Robot r : robots) {
-            assertEquals(robots[0].getPos(), r.getPos());
+        // Expect the robots to have gathered at the COG.
+        for (Robot r : sim.getCurrentRobots()) {
+            assertEquals(expected, r.getPos());
         }
 
     }
 
-}
\ No newline at end of file
+    @Test
+    void testSSyncEarlyStopReturnsFirstStops() {
+
+        // All robots start moving at the same time, far enough that they could all be interrupted.
+        List<Robot> robots = new ArrayList<>();
+        for (int id = 0; id < 20; id++) {
+            Vector position = new Vector(id, 0);
+            robots.add(new Robot(id, TestUtil.DO_NOTHING, position, new RotationTransformation(), new LinearPath(position, new Vector(id, 100)), State.MOVING, 1.0, 0.0));
+        }
+        SSyncScheduler scheduler = new SSyncScheduler();
+        scheduler.setSeed(42);
+
+        // Every call returns the robots that stop first, all at the same time, and the robots stop one batch after another.
+        double t = 0.0;
+        Set<Integer> stopped = new HashSet<>();
+        int batches = 0;
+        while (stopped.size() < robots.size()) {
+            List<Event> events = scheduler.getNextEvent(robots, t, true);
+            double stopTime = events.get(0).getT();
+            assertTrue(stopTime > t);
+            for (Event event : events) {
+                assertEquals(EventType.END_MOVING, event.getType());
+                assertEquals(stopTime, event.getT());
+                assertTrue(stopped.add(event.getTargetId()));
+                Robot robot = robots.get(event.getTargetId());
+                robots.set(event.getTargetId(), new Robot(robot.getId(), robot.getAlgo(), robot.positionAtTimeWithoutStateChange(stopTime),
+                        robot.getTrans(), null, State.SLEEPING, robot.getSpeed(), stopTime));
+            }
+            t = stopTime;
+            batches++;
+        }
+        assertTrue(batches > 1);
+
+        // Only once all of them stopped, the next round starts.
+        assertEquals(EventType.START_COMPUTE, scheduler.getNextEvent(robots, t, true).get(0).getType());
+    }
+
+    @Test
+    void testSameSeedSameTimeline() {
+
+        Robot[] robots = TestUtil.generateRobotCloud(TestUtil.GO_TO_COG, 10.0, 20);
+        Config config = new Config(true, Double.POSITIVE_INFINITY, true);
+
+        for (Supplier<Scheduler> scheduler : List.<Supplier<Scheduler>>of(AsyncScheduler::new, SSyncScheduler::new)) {
+            Simulation sim = new Simulation(config, List.of(robots), scheduler.get(), 1234);
+            Simulation again = new Simulation(config, List.of(robots), scheduler.get(), 1234);
+            Simulation other = new Simulation(config, List.of(robots), scheduler.get(), 4321);
+            sim.simulateTillTimestamp(30.0);
+            again.simulateTillTimestamp(30.0);
+            other.simulateTillTimestamp(30.0);
+
+            assertEquals(describe(sim), describe(again));
+            Map<Integer, Vector> positions = sim.getCurrentRobots().stream().collect(Collectors.toMap(Robot::getId, Robot::getPos));
+            for (Robot robot : again.getCurrentRobots()) {
+                assertEquals(positions.get(robot.getId()), robot.getPos());
+            }
+            // The seed does make a difference.
+            assertTrue(!describe(sim).equals(describe(other)));
+        }
+    }
+
+    private static List<String> describe(Simulation sim) {
+        return sim.getTimeline().values().stream()
+                .flatMap(calculated -> calculated.getEvents().stream())
+                .map(event -> event.getType() + " " + event.getTargetId() + " " + event.getT())
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    void testFillPositionsMatchesRobotsAtTime() {
+
+        Robot[] robots = TestUtil.generateRobotCloud(TestUtil.GO_TO_COG, 10.0, 20);
+        Simulation sim = new Simulation(new Config(true, Double.POSITIVE_INFINITY, true), List.of(robots), new AsyncScheduler(), 42);
+        int[] ids = sim.getRobotIds();
+        double[] xy = new double[2 * ids.length];
+
+        // Going back and forth, as when scrubbing in the GUI.
+        Random random = new Random(42);
+        for (int i = 0; i < 200; i++) {
+            double t = random.nextDouble() * 50.0;
+            assertEquals(ids.length, sim.fillPositionsAt(t, xy));
+
+            Map<Integer, Robot> expected = sim.robotsAtTime(t).stream().collect(Collectors.toMap(Robot::getId, robot -> robot));
+            for (int j = 0; j < ids.length; j++) {
+                assertEquals(expected.get(ids[j]).getPos(), new Vector(xy[2 * j], xy[2 * j + 1]));
+            }
+        }
+    }
+
+    @Test
+    void testThrowingListenerLeavesSimulationConsistent() {
+
+        Robot[] robots = TestUtil.generateRobotCloud(TestUtil.GO_TO_COG, 10.0, 10);
+        Simulation sim = new Simulation(new Config(true, Double.POSITIVE_INFINITY, true), List.of(robots), new AsyncScheduler(), 42);
+        Simulation reference = new Simulation(new Config(true, Double.POSITIVE_INFINITY, true), List.of(robots), new AsyncScheduler(), 42);
+
+        SimulationListener failing = (event, changed) -> {
+            throw new IllegalStateException("listener failed");
+        };
+        sim.addListener(failing);
+        assertThrows(IllegalStateException.class, sim::simulateTillNextEvent);
+        sim.removeListener(failing);
+
+        // The event was still recorded completely, so the simulation goes on as if there was no listener.
+        sim.simulateTillTimestamp(20.0);
+        reference.simulateTillTimestamp(20.0);
+        assertEquals(reference.getTimeline().keySet(), sim.getTimeline().keySet());
+        Map<Integer, Robot> expected = reference.getCurrentRobots().stream().collect(Collectors.toMap(Robot::getId, robot -> robot));
+        for (Robot r : sim.getCurrentRobots()) {
+            assertEquals(expected.get(r.getId()).getPos(), r.getPos());
+        }
+    }
+
+    @Test
+    @Timeout(5)
+    void testLimitedVisibility() {
+
+        Robot[] robots = TestUtil.generateRobotCloud(TestUtil.GO_TO_COG, 10.0, 20);
+
+        // Robots that see the whole swarm behave as with infinite visibility.
+        Simulation infinite = new Simulation(new Config(true, Double.POSITIVE_INFINITY, true), List.of(robots), new AsyncScheduler(), 42);
+        Simulation farSighted = new Simulation(new Config(true, 1000.0, true), List.of(robots), new AsyncScheduler(), 42);
+        infinite.simulateTillTimestamp(20.0);
+        farSighted.simulateTillTimestamp(20.0);
+        Map<Integer, Robot> expected = infinite.getCurrentRobots().stream().collect(Collectors.toMap(Robot::getId, robot -> robot));
+        for (Robot r : farSighted.getCurrentRobots()) {
+            assertEquals(expected.get(r.getId()).getPos(), r.getPos());
+        }
+
+        // Robots that only see themselves stay where they are. Their cells are far beyond the range of an int.
+        Simulation blind = new Simulation(new Config(true, 1e-300, true), List.of(robots), new AsyncScheduler(), 42);
+        blind.simulateTillTimestamp(20.0);
+        for (Robot r : blind.getCurrentRobots()) {
+            assertEquals(robots[r.getId()].getPos(), r.getPos());
+        }
+    }
+
+}
@@ -0,0 +1,106 @@
+import nl.tue.oblotsim.Util.Circle;
+import nl.tue.oblotsim.Util.SmallestEnclosingCircle;
+import nl.tue.oblotsim.Util.Vector;
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Property;
+import net.jqwik.api.constraints.DoubleRange;
+import net.jqwik.api.constraints.IntRange;
+import net.jqwik.api.constraints.Size;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class SmallestEnclosingCircleTest {
+
+    @Property
+    boolean matchesBruteForce(@ForAll @Size(min = 1, max = 12) List<@DoubleRange(min = -100, max = 100) Double> xs,
+                              @ForAll long seed) {
+        Random random = new Random(seed);
+        List<Vector> points = new ArrayList<>();
+        for (double x : xs) {
+            points.add(new Vector(x, random.nextDouble() * 200 - 100));
+        }
+
+        Circle circle = SmallestEnclosingCircle.makeCircle(points, new Random(seed));
+        Circle expected = bruteForce(points);
+
+        return Math.abs(circle.r - expected.r) <= 1e-9 * Math.max(1, expected.r)
+                && points.stream().allMatch(p -> p.dist(circle.c) <= circle.r + 1e-9);
+    }
+
+    @Property
+    boolean handlesLargeInputs(@ForAll @IntRange(min = 1000, max = 100000) int n, @ForAll long seed) {
+        Random random = new Random(seed);
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        for (int i = 0; i < n; i++) {
+            // Many duplicates, which used to need deduplication.
+            xs[i] = random.nextInt(50);
+            ys[i] = random.nextInt(50);
+        }
+
+        Circle circle = SmallestEnclosingCircle.makeCircle(xs, ys, n);
+        for (int i = 0; i < n; i++) {
+            if (new Vector(xs[i], ys[i]).dist(circle.c) > circle.r + 1e-9) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Property
+    boolean emptyInputHasNoCircle(@ForAll long seed) {
+        return SmallestEnclosingCircle.makeCircle(new ArrayList<>(), new Random(seed)) == null;
+    }
+
+    /**
+     * The smallest enclosing circle is determined by 2 or 3 of the points, so try all of them.
+     */
+    private static Circle bruteForce(List<Vector> points) {
+        Circle best = new Circle(points.get(0), 0);
+        if (points.size() == 1) {
+            return best;
+        }
+        best = null;
+        int n = points.size();
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                best = better(best, diameterCircle(points.get(i), points.get(j)), points);
+                for (int k = j + 1; k < n; k++) {
+                    best = better(best, circumCircle(points.get(i), points.get(j), points.get(k)), points);
+                }
+            }
+        }
+        return best;
+    }
+
+    private static Circle better(Circle best, Circle candidate, List<Vector> points) {
+        if (candidate == null || (best != null && candidate.r >= best.r)) {
+            return best;
+        }
+        for (Vector p : points) {
+            if (p.dist(candidate.c) > candidate.r + 1e-9) {
+                return best;
+            }
+        }
+        return candidate;
+    }
+
+    private static Circle diameterCircle(Vector a, Vector b) {
+        return new Circle(new Vector((a.x + b.x) / 2, (a.y + b.y) / 2), a.dist(b) / 2);
+    }
+
+    private static Circle circumCircle(Vector a, Vector b, Vector c) {
+        double d = 2 * (a.x * (b.y - c.y) + b.x * (c.y - a.y) + c.x * (a.y - b.y));
+        if (d == 0) {
+            return null;
+        }
+        double a2 = a.x * a.x + a.y * a.y;
+        double b2 = b.x * b.x + b.y * b.y;
+        double c2 = c.x * c.x + c.y * c.y;
+        Vector center = new Vector((a2 * (b.y - c.y) + b2 * (c.y - a.y) + c2 * (a.y - b.y)) / d,
+                (a2 * (c.x - b.x) + b2 * (a.x - c.x) + c2 * (b.x - a.x)) / d);
+        return new Circle(center, center.dist(a));
+    }
+}
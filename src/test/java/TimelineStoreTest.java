@@ -0,0 +1,157 @@
+import nl.tue.oblotsim.RobotPaths.LinearPath;
+import nl.tue.oblotsim.Schedulers.CalculatedEvent;
+import nl.tue.oblotsim.Simulator.Robot;
+import nl.tue.oblotsim.Simulator.State;
+import nl.tue.oblotsim.Simulator.TimelineStore;
+import nl.tue.oblotsim.Util.Vector;
+import nl.tue.oblotsim.algorithms.GoToCoG;
+import nl.tue.oblotsim.positiontransformations.RotationTransformation;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimelineStoreTest {
+
+    private static final int ROBOTS = 50;
+
+    /**
+     * Appends frames in which a few random robots start or stop moving,
+     * and remembers the full state of the robots at every frame to compare with.
+     */
+    private static class Recorder {
+        final TimelineStore store = new TimelineStore();
+        final Map<Integer, Map<Integer, Robot>> expected = new HashMap<>();
+        final Random random = new Random(42);
+        final Map<Integer, Robot> current = new HashMap<>();
+        double time = 0.0;
+
+        Recorder() {
+            for (int id = 0; id < ROBOTS; id++) {
+                current.put(id, new Robot(id, new GoToCoG(), new Vector(random.nextDouble(), random.nextDouble()), new RotationTransformation(), null, State.SLEEPING, 1.0, 0.0));
+            }
+            record(current.values());
+        }
+
+        void appendFrame() {
+            time += 0.1 + random.nextDouble();
+            List<Robot> changed = new ArrayList<>();
+            for (int id : random.ints(0, ROBOTS).distinct().limit(3).toArray()) {
+                Robot robot = current.get(id);
+                Vector position = robot.positionAtTimeWithoutStateChange(time);
+                Robot next = robot.getState() == State.MOVING
+                        ? new Robot(robot.getId(), robot.getAlgo(), position, robot.getTrans(), null, State.SLEEPING, 1.0, time)
+                        : new Robot(robot.getId(), robot.getAlgo(), position, robot.getTrans(),
+                                new LinearPath(position, new Vector(10 * random.nextDouble(), 10 * random.nextDouble())), State.MOVING, 1.0, time);
+                current.put(id, next);
+                changed.add(next);
+            }
+            record(changed);
+        }
+
+        private void record(Collection<Robot> changed) {
+            int index = store.append(time, current, changed);
+            Map<Integer, Robot> full = new HashMap<>();
+            current.forEach((id, robot) -> full.put(id, robot.extrapolatedToTime(time)));
+            expected.put(index, full);
+        }
+
+        void assertFrame(int index) {
+            Map<Integer, Robot> snapshot = store.snapshot(index);
+            Map<Integer, Robot> full = expected.get(index);
+            assertEquals(full.size(), snapshot.size());
+            for (Map.Entry<Integer, Robot> entry : snapshot.entrySet()) {
+                Robot robot = full.get(entry.getKey());
+                assertEquals(robot.getPos(), entry.getValue().getPos());
+                assertEquals(robot.getState(), entry.getValue().getState());
+                assertEquals(robot.getInCurrentStateSince(), entry.getValue().getInCurrentStateSince());
+                assertEquals(robot.getPos(), snapshot.get(entry.getKey()).getPos());
+            }
+        }
+    }
+
+    @Test
+    void testReconstructsEveryFrame() {
+        Recorder recorder = new Recorder();
+        // More frames than the initial capacity of the ring buffer, so it has to grow.
+        for (int i = 0; i < 100; i++) {
+            recorder.appendFrame();
+        }
+        assertEquals(101, recorder.store.size());
+        for (int index = 0; index <= 100; index++) {
+            recorder.assertFrame(index);
+        }
+    }
+
+    @Test
+    void testEviction() {
+        Recorder recorder = new Recorder();
+        for (int i = 0; i < 40; i++) {
+            recorder.appendFrame();
+        }
+        long before = recorder.store.estimatedBytes();
+
+        recorder.store.evictBefore(25);
+        assertEquals(25, recorder.store.getFirstIndex());
+        assertEquals(16, recorder.store.size());
+        assertTrue(recorder.store.estimatedBytes() < before);
+        assertThrows(IllegalArgumentException.class, () -> recorder.store.snapshot(24));
+        assertThrows(IllegalArgumentException.class, () -> recorder.store.evictBefore(41));
+
+        // The frames that are kept, and those appended after the eviction, do not depend on the evicted ones.
+        for (int i = 0; i < 40; i++) {
+            recorder.appendFrame();
+        }
+        for (int index = 25; index <= 80; index++) {
+            recorder.assertFrame(index);
+        }
+
+        recorder.store.evictBefore(80);
+        assertEquals(1, recorder.store.size());
+        recorder.appendFrame();
+        recorder.assertFrame(80);
+        recorder.assertFrame(81);
+    }
+
+    @Test
+    void testSerializedEventKeepsSnapshot() throws IOException, ClassNotFoundException {
+        Recorder recorder = new Recorder();
+        for (int i = 0; i < 10; i++) {
+            recorder.appendFrame();
+        }
+        CalculatedEvent event = new CalculatedEvent(recorder.time, List.of(), () -> recorder.store.snapshot(10));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(event);
+        }
+        // The copy does not refer to the store, so it keeps its snapshot when the store evicts it.
+        recorder.appendFrame();
+        recorder.store.evictBefore(11);
+        CalculatedEvent copy;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            copy = (CalculatedEvent) in.readObject();
+        }
+
+        assertEquals(event.getTimestamp(), copy.getTimestamp());
+        Map<Integer, Robot> expected = recorder.expected.get(10);
+        assertEquals(expected.size(), copy.getSnapshot().size());
+        for (Robot robot : copy.getSnapshot().values()) {
+            assertEquals(expected.get(robot.getId()).getPos(), robot.getPos());
+            assertEquals(expected.get(robot.getId()).getState(), robot.getState());
+        }
+    }
+}
@@ -0,0 +1,87 @@
+import nl.tue.oblotsim.Schedulers.CalculatedEvent;
+import nl.tue.oblotsim.Schedulers.SSyncScheduler;
+import nl.tue.oblotsim.Schedulers.TestUtil;
+import nl.tue.oblotsim.Simulator.Robot;
+import nl.tue.oblotsim.Simulator.Simulation;
+import nl.tue.oblotsim.Util.Config;
+import nl.tue.oblotsim.trace.TraceReader;
+import nl.tue.oblotsim.trace.TraceWriter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TraceReaderTest {
+
+    @Test
+    void testReadsBackSimulation(@TempDir Path dir) throws IOException {
+
+        Robot[] robots = TestUtil.generateRobotCloud(TestUtil.GO_TO_COG, 10.0, 20);
+        Simulation sim = new Simulation(new Config(true, Double.POSITIVE_INFINITY, false), List.of(robots), new SSyncScheduler());
+
+        // A small keyframe interval, so lookups have to replay events from a keyframe.
+        Path file = dir.resolve("run.trace");
+        try (TraceWriter writer = new TraceWriter(file, sim.config, 0.0, sim.getCurrentRobots(), TraceWriter.DEFAULT_BUFFER_SIZE, 8)) {
+            sim.addListener(writer);
+            sim.simulateTillTimestamp(100.0);
+            sim.removeListener(writer);
+        }
+
+        try (TraceReader reader = new TraceReader(file)) {
+            assertEquals(sim.getTimeline().size() - 1, reader.getEventCount());
+
+            Random random = new Random(42);
+            for (int i = 0; i < 100; i++) {
+                double t = random.nextDouble() * reader.getEndTime();
+                Map<Integer, Robot> expected = sim.robotsAtTime(t).stream().collect(Collectors.toMap(Robot::getId, robot -> robot));
+                for (Robot robot : reader.robotsAtTime(t)) {
+                    assertEquals(expected.get(robot.getId()).getPos(), robot.getPos());
+                    assertEquals(expected.get(robot.getId()).getState(), robot.getState());
+                }
+            }
+
+            Iterator<CalculatedEvent> events = reader.iterator();
+            for (CalculatedEvent expected : sim.getTimeline().headMap(reader.getEndTime(), true).values()) {
+                CalculatedEvent actual = events.next();
+                assertEquals(expected.getTimestamp(), actual.getTimestamp());
+                assertEquals(expected.getEvents().size(), actual.getEvents().size());
+            }
+            assertFalse(events.hasNext());
+
+            assertThrows(IllegalArgumentException.class, () -> reader.robotsAtTime(-1.0));
+        }
+    }
+
+    @Test
+    void testSimulatingAfterClose(@TempDir Path dir) throws IOException {
+
+        Robot[] robots = TestUtil.generateRobotCloud(TestUtil.GO_TO_COG, 10.0, 20);
+        Simulation sim = new Simulation(new Config(true, Double.POSITIVE_INFINITY, false), List.of(robots), new SSyncScheduler());
+
+        Path file = dir.resolve("run.trace");
+        try (TraceWriter ignored = TraceWriter.attach(sim, file)) {
+            sim.simulateTillTimestamp(10.0);
+        }
+        int recorded = sim.getTimeline().size() - 1;
+
+        // The writer no longer listens, so this neither fails nor writes to the closed file.
+        sim.simulateTillTimestamp(20.0);
+        assertTrue(sim.getTimeline().size() - 1 > recorded);
+
+        try (TraceReader reader = new TraceReader(file)) {
+            assertEquals(recorded, reader.getEventCount());
+        }
+    }
+
+}
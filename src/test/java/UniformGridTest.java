@@ -0,0 +1,49 @@
+import nl.tue.oblotsim.Util.UniformGrid;
+import nl.tue.oblotsim.Util.Vector;
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Property;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+public class UniformGridTest {
+
+    private static final double[] DISTANCES = {0.0, 1e-300, 0.01, 0.5, 1.0, 3.0, 1e6, 1e300, Double.POSITIVE_INFINITY};
+
+    @Property
+    boolean findsTheSamePointsAsBruteForce(@ForAll long seed) {
+        Random random = new Random(seed);
+        // Points close together and spread far apart, compared to the cell size.
+        double spread = random.nextBoolean() ? 10.0 : 1e12;
+        Vector[] points = new Vector[random.nextInt(100)];
+        for (int i = 0; i < points.length; i++) {
+            points[i] = new Vector(spread * (random.nextDouble() - 0.5), spread * (random.nextDouble() - 0.5));
+        }
+        double cellSize = random.nextBoolean() ? 1.0 : 1e-200;
+        UniformGrid grid = new UniformGrid(points, cellSize);
+
+        for (int query = 0; query < 20; query++) {
+            Vector center = points.length > 0 && random.nextBoolean()
+                    ? points[random.nextInt(points.length)]
+                    : new Vector(spread * (random.nextDouble() - 0.5), spread * (random.nextDouble() - 0.5));
+            for (double distance : DISTANCES) {
+                int[] expected = IntStream.range(0, points.length)
+                        .filter(i -> {
+                            double dx = points[i].x - center.x;
+                            double dy = points[i].y - center.y;
+                            return dx * dx + dy * dy <= distance * distance;
+                        })
+                        .toArray();
+                if (!Arrays.equals(expected, grid.indicesWithin(center, distance))) {
+                    return false;
+                }
+                Vector[] within = grid.within(center, distance);
+                if (within.length != expected.length || IntStream.range(0, expected.length).anyMatch(i -> within[i] != points[expected[i]])) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}